@@ -0,0 +1,102 @@
+package com.internship.deal_service.config.hibernate;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш второго уровня Hibernate для справочников: валют, ролей контрагентов, типов и статусов сделок.
+ * <p>
+ * Регионы хранятся в локальном JCache (Caffeine) и создаются заранее с ограничением по размеру
+ * {@code hibernate-cache.max-size} и времени жизни {@code hibernate-cache.ttl}. Валюты и роли меняются
+ * только миграциями и кэшируются как {@code READ_ONLY}; типы и статусы меняются через
+ * {@code DealTypeService}/{@code DealStatusService} и кэшируются как {@code NONSTRICT_READ_WRITE}.
+ * Доля попаданий по каждому региону публикуется в метриках {@code cache.l2.requests} и {@code cache.l2.hit.ratio}.
+ * Метрики строятся на статистике Hibernate, которая считает каждый запрос и каждую сущность, поэтому включаются
+ * только вместе с ней свойством {@code hibernate-cache.statistics-enabled} (по умолчанию выключено).
+ * </p>
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final List<String> REFERENCE_REGIONS = List.of("currency", "contractorRole", "dealType", "dealStatus");
+
+    @Value("${hibernate-cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${hibernate-cache.ttl:1h}")
+    private Duration ttl;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Собственный URI, чтобы несколько контекстов в одной JVM (например, в тестах) не делили регионы.
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()),
+                getClass().getClassLoader());
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+                new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, ttl.toMillis())));
+        REFERENCE_REGIONS.forEach(region -> cacheManager.createCache(region, configuration));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return registry -> { };
+        }
+        return registry -> REFERENCE_REGIONS.forEach(region -> {
+            FunctionCounter.builder("cache.l2.requests", statistics, stats -> regionStatistics(stats, region).getHitCount())
+                    .tag("region", region)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.l2.requests", statistics, stats -> regionStatistics(stats, region).getMissCount())
+                    .tag("region", region)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("cache.l2.hit.ratio", statistics, stats -> hitRatio(regionStatistics(stats, region)))
+                    .tag("region", region)
+                    .register(registry);
+        });
+    }
+
+    private static CacheRegionStatistics regionStatistics(Statistics statistics, String region) {
+        return statistics.getDomainDataRegionStatistics(region);
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        long requests = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return requests == 0 ? 0.0 : (double) regionStatistics.getHitCount() / requests;
+    }
+
+}
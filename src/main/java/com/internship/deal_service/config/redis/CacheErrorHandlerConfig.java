@@ -0,0 +1,21 @@
+package com.internship.deal_service.config.redis;
+
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ошибки кэша в {@code @Cacheable}/{@code @CacheEvict} не должны ломать запрос: они логируются,
+ * а метод выполняется так, как если бы кэша не было. Большинство сбоев Redis перехватывает
+ * {@link RedisCircuitBreaker}; этот обработчик — последняя страховка.
+ */
+@Configuration
+public class CacheErrorHandlerConfig implements CachingConfigurer {
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler(false);
+    }
+
+}
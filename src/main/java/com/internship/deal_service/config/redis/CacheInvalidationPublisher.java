@@ -0,0 +1,105 @@
+package com.internship.deal_service.config.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Публикует сообщения об инвалидации локального кэша (L1) в канал Redis pub/sub.
+ * <p>
+ * Формат сообщения: {@code <nodeId>|<cacheName>|<key>}. Для полной очистки кэша
+ * вместо ключа передаётся {@link #CLEAR_ALL}. Узел-отправитель игнорирует собственные сообщения.
+ * Идентификатор узла имеет вид {@code <uuid>@<версия схемы кэша>}: получатель с другой версией схемы
+ * удаляет запись и из своего пространства ключей Redis.
+ * </p>
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    public static final String CLEAR_ALL = "*";
+    public static final String SEPARATOR = "|";
+    public static final String VERSION_SEPARATOR = "@";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    /**
+     * @param circuitBreaker выключатель Redis; пока он разомкнут, сообщения не отправляются
+     *                       (записи L1 на других узлах истекут по TTL). Может быть {@code null}.
+     */
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel, String nodeId,
+                                      RedisCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.nodeId = nodeId;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    /**
+     * Публикует сообщения об удалении нескольких ключей одним конвейером (pipeline).
+     */
+    public void publishEvictAll(String cacheName, Collection<String> keys) {
+        if (keys.isEmpty() || isRedisDown()) {
+            return;
+        }
+        try {
+            byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                keys.forEach(key -> connection.publish(channelBytes, message(cacheName, key).getBytes(StandardCharsets.UTF_8)));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to publish cache invalidation for {} keys of {}: {}", keys.size(), cacheName, e.getMessage());
+        }
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, CLEAR_ALL);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getSchemaVersion() {
+        return schemaVersionOf(nodeId);
+    }
+
+    /**
+     * @return версия схемы кэша из идентификатора узла; {@code null}, если узел её не передаёт.
+     */
+    public static String schemaVersionOf(String nodeId) {
+        int separator = nodeId.lastIndexOf(VERSION_SEPARATOR);
+        return separator < 0 ? null : nodeId.substring(separator + 1);
+    }
+
+    private void publish(String cacheName, String key) {
+        if (isRedisDown()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, message(cacheName, key));
+        } catch (Exception e) {
+            // Потеря сообщения не критична: запись в L1 на других узлах истечёт по TTL.
+            log.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private boolean isRedisDown() {
+        return circuitBreaker != null && circuitBreaker.isOpen();
+    }
+
+    private String message(String cacheName, String key) {
+        return nodeId + SEPARATOR + cacheName + SEPARATOR + key;
+    }
+
+}
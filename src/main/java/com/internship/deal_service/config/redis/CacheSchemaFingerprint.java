@@ -0,0 +1,92 @@
+package com.internship.deal_service.config.redis;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Отпечаток схемы значения кэша.
+ * <p>
+ * Строится по именам и типам полей класса и всех вложенных классов из того же пакета
+ * (например, {@code DealDto} → {@code DealSumDto}, {@code DealContractorDto}, ...), поэтому меняется при
+ * любом добавлении, удалении, переименовании поля или смене его типа. Используется как часть префикса
+ * ключей Redis, чтобы записи разных версий DTO не пересекались.
+ * </p>
+ */
+public final class CacheSchemaFingerprint {
+
+    private static final int LENGTH = 8;
+
+    private CacheSchemaFingerprint() {
+
+    }
+
+    /**
+     * @return первые {@value #LENGTH} шестнадцатеричных символов SHA-256 от описания схемы.
+     */
+    public static String of(Class<?> type) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(describe(type).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Описание схемы: по строке {@code Класс.поле:тип} на каждое поле, классы и поля в алфавитном порядке.
+     */
+    static String describe(Class<?> root) {
+        String rootPackage = root.getPackageName();
+        Set<Class<?>> visited = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            if (!visited.add(type)) {
+                continue;
+            }
+            for (Field field : schemaFields(type)) {
+                collectNested(field.getGenericType(), rootPackage, queue);
+            }
+        }
+
+        return visited.stream()
+                .sorted(Comparator.comparing(Class::getName))
+                .flatMap(type -> Arrays.stream(schemaFields(type))
+                        .map(field -> type.getName() + "." + field.getName() + ":" + field.getGenericType().getTypeName()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static Field[] schemaFields(Class<?> type) {
+        return Arrays.stream(type.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()))
+                .sorted(Comparator.comparing(Field::getName))
+                .toArray(Field[]::new);
+    }
+
+    private static void collectNested(Type type, String rootPackage, Deque<Class<?>> queue) {
+        if (type instanceof ParameterizedType parameterized) {
+            collectNested(parameterized.getRawType(), rootPackage, queue);
+            Arrays.stream(parameterized.getActualTypeArguments()).forEach(argument -> collectNested(argument, rootPackage, queue));
+        } else if (type instanceof Class<?> clazz) {
+            Class<?> component = clazz.isArray() ? clazz.getComponentType() : clazz;
+            if (!component.isPrimitive() && component.getPackageName().startsWith(rootPackage)) {
+                queue.add(component);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.internship.deal_service.config.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Обёртка над кэшем Redis, которая обращается к нему через {@link RedisCircuitBreaker}.
+ * <p>
+ * Пока выключатель разомкнут или Redis отвечает ошибкой, чтение возвращает промах, а загрузка
+ * выполняется напрямую из БД. Пропущенные записи и удаления запоминаются: при восстановлении Redis
+ * соответствующие ключи удаляются, чтобы в кэше не осталось значений, устаревших за время сбоя.
+ * Если пропущенных ключей больше {@code maxPendingEvictions}, при восстановлении кэш очищается целиком.
+ * </p>
+ */
+@Slf4j
+public class CircuitBreakingCache implements Cache {
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final int maxPendingEvictions;
+    private final Set<Object> pendingEvictions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingClear = new AtomicBoolean();
+
+    public CircuitBreakingCache(Cache delegate, RedisCircuitBreaker circuitBreaker, int maxPendingEvictions) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.maxPendingEvictions = maxPendingEvictions;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    public RedisCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return circuitBreaker.call(() -> {
+            flushPending();
+            return delegate.get(key);
+        }, () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return circuitBreaker.call(() -> {
+            flushPending();
+            return delegate.get(key, type);
+        }, () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return circuitBreaker.call(() -> {
+            flushPending();
+            return delegate.get(key, valueLoader);
+        }, () -> load(key, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        circuitBreaker.run(() -> {
+            flushPending();
+            delegate.put(key, value);
+        }, () -> markPending(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return circuitBreaker.call(() -> {
+            flushPending();
+            return delegate.putIfAbsent(key, value);
+        }, () -> {
+            markPending(key);
+            return null;
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        circuitBreaker.run(() -> {
+            flushPending();
+            delegate.evict(key);
+        }, () -> markPending(key));
+    }
+
+    @Override
+    public void clear() {
+        circuitBreaker.run(() -> {
+            flushPending();
+            delegate.clear();
+        }, () -> pendingClear.set(true));
+    }
+
+    /**
+     * Запоминает ключ, изменение которого не дошло до Redis.
+     */
+    public void markPending(Object key) {
+        if (pendingEvictions.size() >= maxPendingEvictions) {
+            pendingClear.set(true);
+            pendingEvictions.clear();
+            return;
+        }
+        pendingEvictions.add(key);
+    }
+
+    private void flushPending() {
+        if (pendingClear.compareAndSet(true, false)) {
+            pendingEvictions.clear();
+            log.info("Redis is available again, clearing cache <<{}>> after skipped writes", getName());
+            delegate.clear();
+            return;
+        }
+        if (pendingEvictions.isEmpty()) {
+            return;
+        }
+        for (Object key : Set.copyOf(pendingEvictions)) {
+            delegate.evict(key);
+            pendingEvictions.remove(key);
+        }
+    }
+
+    private static <T> T load(Object key, Callable<T> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+}
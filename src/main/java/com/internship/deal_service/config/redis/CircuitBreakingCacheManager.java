@@ -0,0 +1,44 @@
+package com.internship.deal_service.config.redis;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheManager}, который оборачивает кэши другого менеджера в {@link CircuitBreakingCache}.
+ */
+public class CircuitBreakingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final int maxPendingEvictions;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public CircuitBreakingCacheManager(CacheManager delegate, RedisCircuitBreaker circuitBreaker, int maxPendingEvictions) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.maxPendingEvictions = maxPendingEvictions;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new CircuitBreakingCache(target, circuitBreaker, maxPendingEvictions));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+}
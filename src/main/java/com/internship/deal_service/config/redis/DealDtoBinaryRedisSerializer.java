@@ -0,0 +1,324 @@
+package com.internship.deal_service.config.redis;
+
+import com.internship.deal_service.model.dto.ContractorRoleDto;
+import com.internship.deal_service.model.dto.DealContractorDto;
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.model.dto.DealStatusDto;
+import com.internship.deal_service.model.dto.DealSumDto;
+import com.internship.deal_service.model.dto.DealTypeDto;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Компактный бинарный сериализатор {@link DealDto} для кэша сделок.
+ * <p>
+ * Формат записи: {@code [версия схемы][флаги][данные]}. Данные пишутся в фиксированном порядке
+ * полей без имён, строки — в UTF-8 с префиксом длины. Если размер данных превышает
+ * {@code compressionThreshold}, они сжимаются GZIP и в флагах выставляется {@link #FLAG_GZIP}.
+ * </p>
+ * При изменении набора полей {@link DealDto} необходимо увеличить {@link #SCHEMA_VERSION}:
+ * записи с неизвестной версией не читаются и считаются промахом кэша ({@link #deserialize} возвращает
+ * {@code null}), поэтому во время поэтапного развёртывания узлы разных версий не получают ошибок
+ * на записях друг друга, а читают сделку из БД.
+ * Записи, сохранённые ранее в JSON, читаются через {@code legacySerializer}.
+ */
+public class DealDtoBinaryRedisSerializer implements RedisSerializer<DealDto> {
+
+    public static final byte SCHEMA_VERSION = 1;
+    public static final byte FLAG_GZIP = 0x01;
+
+    private static final byte JSON_OBJECT_START = '{';
+    private static final int NULL_LENGTH = -1;
+
+    private final int compressionThreshold;
+    private final RedisSerializer<DealDto> legacySerializer;
+
+    /**
+     * @param compressionThreshold размер данных в байтах, начиная с которого они сжимаются; 0 или меньше — не сжимать.
+     * @param legacySerializer     сериализатор для чтения старых записей в JSON, может быть {@code null}.
+     */
+    public DealDtoBinaryRedisSerializer(int compressionThreshold, RedisSerializer<DealDto> legacySerializer) {
+        this.compressionThreshold = compressionThreshold;
+        this.legacySerializer = legacySerializer;
+    }
+
+    @Override
+    public byte[] serialize(DealDto dealDto) throws SerializationException {
+        if (dealDto == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(payload)) {
+                writeDeal(out, dealDto);
+            }
+
+            byte[] body = payload.toByteArray();
+            byte flags = 0;
+            if (compressionThreshold > 0 && body.length > compressionThreshold) {
+                body = gzip(body);
+                flags |= FLAG_GZIP;
+            }
+
+            byte[] result = new byte[body.length + 2];
+            result[0] = SCHEMA_VERSION;
+            result[1] = flags;
+            System.arraycopy(body, 0, result, 2, body.length);
+            return result;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write DealDto in binary format", e);
+        }
+    }
+
+    @Override
+    public DealDto deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JSON_OBJECT_START && legacySerializer != null) {
+            return legacySerializer.deserialize(bytes);
+        }
+        if (bytes[0] != SCHEMA_VERSION) {
+            return null;
+        }
+
+        try {
+            InputStream body = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+            if ((bytes[1] & FLAG_GZIP) != 0) {
+                body = new GZIPInputStream(body);
+            }
+            try (DataInputStream in = new DataInputStream(body)) {
+                return readDeal(in);
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not read DealDto in binary format", e);
+        }
+    }
+
+    private static void writeDeal(DataOutputStream out, DealDto deal) throws IOException {
+        writeUuid(out, deal.getId());
+        writeString(out, deal.getDescription());
+        writeString(out, deal.getAgreementNumber());
+        writeDate(out, deal.getAgreementDate());
+        writeDateTime(out, deal.getAgreementStartDt());
+        writeDate(out, deal.getAvailabilityDate());
+
+        DealTypeDto type = deal.getType();
+        out.writeBoolean(type != null);
+        if (type != null) {
+            writeString(out, type.getId());
+            writeString(out, type.getName());
+        }
+
+        DealStatusDto status = deal.getStatus();
+        out.writeBoolean(status != null);
+        if (status != null) {
+            writeString(out, status.getId());
+            writeString(out, status.getName());
+        }
+
+        DealSumDto sum = deal.getSum();
+        out.writeBoolean(sum != null);
+        if (sum != null) {
+            writeDecimal(out, sum.getValue());
+            writeString(out, sum.getCurrency());
+        }
+
+        writeDateTime(out, deal.getCloseDt());
+
+        Set<DealContractorDto> contractors = deal.getContractors();
+        out.writeInt(contractors == null ? NULL_LENGTH : contractors.size());
+        if (contractors != null) {
+            for (DealContractorDto contractor : contractors) {
+                writeContractor(out, contractor);
+            }
+        }
+    }
+
+    private static DealDto readDeal(DataInputStream in) throws IOException {
+        DealDto.DealDtoBuilder builder = DealDto.builder()
+                .id(readUuid(in))
+                .description(readString(in))
+                .agreementNumber(readString(in))
+                .agreementDate(readDate(in))
+                .agreementStartDt(readDateTime(in))
+                .availabilityDate(readDate(in));
+
+        if (in.readBoolean()) {
+            builder.type(new DealTypeDto(readString(in), readString(in)));
+        }
+        if (in.readBoolean()) {
+            builder.status(new DealStatusDto(readString(in), readString(in)));
+        }
+        if (in.readBoolean()) {
+            builder.sum(new DealSumDto(readDecimal(in), readString(in)));
+        }
+
+        builder.closeDt(readDateTime(in));
+
+        int contractorCount = in.readInt();
+        if (contractorCount != NULL_LENGTH) {
+            Set<DealContractorDto> contractors = new HashSet<>(Math.max(16, contractorCount * 2));
+            for (int i = 0; i < contractorCount; i++) {
+                contractors.add(readContractor(in));
+            }
+            builder.contractors(contractors);
+        }
+        return builder.build();
+    }
+
+    private static void writeContractor(DataOutputStream out, DealContractorDto contractor) throws IOException {
+        writeUuid(out, contractor.getId());
+        writeString(out, contractor.getContractorId());
+        writeString(out, contractor.getName());
+        writeBoolean(out, contractor.getMain());
+
+        List<ContractorRoleDto> roles = contractor.getRoles();
+        out.writeInt(roles == null ? NULL_LENGTH : roles.size());
+        if (roles != null) {
+            for (ContractorRoleDto role : roles) {
+                out.writeBoolean(role != null);
+                if (role != null) {
+                    writeString(out, role.getId());
+                    writeString(out, role.getName());
+                    writeString(out, role.getCategory());
+                }
+            }
+        }
+    }
+
+    private static DealContractorDto readContractor(DataInputStream in) throws IOException {
+        DealContractorDto contractor = DealContractorDto.builder()
+                .id(readUuid(in))
+                .contractorId(readString(in))
+                .name(readString(in))
+                .main(readBoolean(in))
+                .build();
+
+        int roleCount = in.readInt();
+        if (roleCount != NULL_LENGTH) {
+            List<ContractorRoleDto> roles = new ArrayList<>(roleCount);
+            for (int i = 0; i < roleCount; i++) {
+                roles.add(in.readBoolean() ? new ContractorRoleDto(readString(in), readString(in), readString(in)) : null);
+            }
+            contractor.setRoles(roles);
+        }
+        return contractor;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toLocalDate().toEpochDay());
+            out.writeLong(value.toLocalTime().toNanoOfDay());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.of(LocalDate.ofEpochDay(in.readLong()), LocalTime.ofNanoOfDay(in.readLong()));
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readInt()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? NULL_LENGTH : (value ? 1 : 0));
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte value = in.readByte();
+        return value == NULL_LENGTH ? null : value == 1;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+}
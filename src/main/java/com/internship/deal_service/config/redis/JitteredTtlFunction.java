@@ -0,0 +1,46 @@
+package com.internship.deal_service.config.redis;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Время жизни записи кэша со случайным разбросом: {@code ttl * (1 ± jitter)}.
+ * <p>
+ * Записи, созданные одновременно (например, при прогреве), истекают не в одну секунду,
+ * и нагрузка на БД при их повторной загрузке распределяется во времени.
+ * </p>
+ */
+public class JitteredTtlFunction implements RedisCacheWriter.TtlFunction {
+
+    private final Duration ttl;
+    private final double jitter;
+
+    /**
+     * @param ttl    базовое время жизни.
+     * @param jitter доля разброса от {@code 0} (без разброса) до {@code 1}.
+     */
+    public JitteredTtlFunction(Duration ttl, double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("TTL jitter must be between 0 and 1: " + jitter);
+        }
+        this.ttl = ttl;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (jitter == 0) {
+            return ttl;
+        }
+        long baseMillis = ttl.toMillis();
+        long spread = (long) (baseMillis * jitter);
+        return Duration.ofMillis(baseMillis + ThreadLocalRandom.current().nextLong(-spread, spread + 1));
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.internship.deal_service.config.redis;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Пакетные операции над записями {@link RedisCache}, которых нет в API Spring Cache.
+ * <p>
+ * Ключи формируются так же, как это делает {@code RedisCache}: префикс кэша + строковое
+ * представление ключа, сериализованные парой ключей из конфигурации кэша.
+ * </p>
+ */
+public class RedisCacheBatchOperations {
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisCacheBatchOperations(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Удаляет записи одной командой {@code DEL key1 key2 ...}.
+     *
+     * @return количество удалённых записей.
+     */
+    public long evictAll(RedisCache cache, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        byte[][] redisKeys = keys.stream()
+                .map(key -> redisKey(cache, key))
+                .toArray(byte[][]::new);
+        Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> del(connection, redisKeys));
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Удаляет записи вместе с их версиями одной командой {@code DEL}.
+     *
+     * @return количество удалённых записей, включая версии.
+     */
+    public long evictAll(RedisCache cache, RedisCache versionCache, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        byte[][] redisKeys = keys.stream()
+                .flatMap(key -> Stream.of(redisKey(cache, key), redisKey(versionCache, key)))
+                .toArray(byte[][]::new);
+        Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> del(connection, redisKeys));
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Читает записи одной командой {@code MGET}.
+     *
+     * @return найденные значения по строковому ключу; отсутствующие ключи в результат не попадают.
+     */
+    public Map<String, Object> getAll(RedisCache cache, List<String> keys) {
+        Map<String, Object> result = new HashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+        byte[][] redisKeys = keys.stream()
+                .map(key -> redisKey(cache, key))
+                .toArray(byte[][]::new);
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(redisKeys));
+        if (values == null) {
+            return result;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] value = values.get(i);
+            if (value != null) {
+                result.put(keys.get(i), config.getValueSerializationPair().read(ByteBuffer.wrap(value)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Записывает значения одним конвейером команд {@code SET ... PX ttl}.
+     * Время жизни каждой записи берётся из конфигурации кэша.
+     */
+    public void putAll(RedisCache cache, Map<String, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entries.forEach((key, value) -> connection.stringCommands().set(
+                    redisKey(cache, key),
+                    toBytes(config.getValueSerializationPair().write(value)),
+                    expiration(config.getTtlFunction().getTimeToLive(key, value)),
+                    RedisStringCommands.SetOption.upsert()));
+            return null;
+        });
+    }
+
+    /**
+     * Записывает значения вместе с их версиями одной транзакцией {@code MULTI ... EXEC} в конвейере.
+     * Версия получает то же время жизни, что и значение, а транзакция не даёт конкурирующей записи
+     * оставить в Redis значение одной записи рядом с версией другой.
+     *
+     * @param versions версии по ключу; у ключей без версии прежняя версия удаляется.
+     */
+    public void putAll(RedisCache cache, Map<String, ?> entries, RedisCache versionCache, Map<String, String> versions) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        RedisCacheConfiguration versionConfig = versionCache.getCacheConfiguration();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.multi();
+            entries.forEach((key, value) -> {
+                Expiration expiration = expiration(config.getTtlFunction().getTimeToLive(key, value));
+                connection.stringCommands().set(
+                        redisKey(cache, key),
+                        toBytes(config.getValueSerializationPair().write(value)),
+                        expiration,
+                        RedisStringCommands.SetOption.upsert());
+                String version = versions.get(key);
+                if (version != null) {
+                    connection.stringCommands().set(
+                            redisKey(versionCache, key),
+                            toBytes(versionConfig.getValueSerializationPair().write(version)),
+                            expiration,
+                            RedisStringCommands.SetOption.upsert());
+                } else {
+                    connection.keyCommands().del(redisKey(versionCache, key));
+                }
+            });
+            connection.exec();
+            return null;
+        });
+    }
+
+    /**
+     * Оставшееся время жизни записи ({@code PTTL}).
+     *
+     * @return {@code null}, если записи нет или у неё нет времени жизни.
+     */
+    public Duration remainingTtl(RedisCache cache, String key) {
+        byte[] redisKey = redisKey(cache, key);
+        Long millis = redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().pTtl(redisKey));
+        return millis != null && millis >= 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    private static Expiration expiration(Duration ttl) {
+        return ttl == null || ttl.isZero() || ttl.isNegative()
+                ? Expiration.persistent()
+                : Expiration.from(ttl);
+    }
+
+    private static Long del(RedisConnection connection, byte[][] keys) {
+        return connection.keyCommands().del(keys);
+    }
+
+    static byte[] redisKey(RedisCache cache, String key) {
+        String prefixed = cache.getCacheConfiguration().getKeyPrefixFor(cache.getName()) + key;
+        return toBytes(cache.getCacheConfiguration().getKeySerializationPair().write(prefixed));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.internship.deal_service.config.redis;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Автоматический выключатель (circuit breaker) для обращений к Redis.
+ * <p>
+ * После {@code failureThreshold} ошибок подряд выключатель размыкается ({@link State#OPEN}): обращения к Redis
+ * не выполняются, вызывающий сразу получает запасной результат (промах кэша), и запрос идёт в БД.
+ * Через {@code openDuration} выключатель переходит в {@link State#HALF_OPEN} и пропускает по одному пробному
+ * запросу; после {@code halfOpenProbes} успешных проб он замыкается, после первой ошибки — снова размыкается.
+ * Ошибкой считается только {@link DataAccessException} — так Spring Data Redis сообщает о сбоях и таймаутах.
+ * Текущее состояние публикуется в метрике {@code cache.circuit.state} (0 — closed, 1 — half-open, 2 — open).
+ * </p>
+ */
+@Slf4j
+public class RedisCircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int halfOpenProbes;
+    private final Clock clock;
+
+    private volatile State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int probeSuccesses;
+    private boolean probeInFlight;
+    private long openedAt;
+
+    public RedisCircuitBreaker(int failureThreshold, Duration openDuration, int halfOpenProbes,
+                               MeterRegistry meterRegistry) {
+        this(failureThreshold, openDuration, halfOpenProbes, meterRegistry, Clock.systemUTC());
+    }
+
+    RedisCircuitBreaker(int failureThreshold, Duration openDuration, int halfOpenProbes,
+                        MeterRegistry meterRegistry, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenProbes = halfOpenProbes;
+        this.clock = clock;
+        Gauge.builder("cache.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("Redis cache circuit breaker state: 0 - closed, 1 - half-open, 2 - open")
+                .tag("name", "redis")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет обращение к Redis, если выключатель его пропускает.
+     *
+     * @param action   обращение к Redis.
+     * @param fallback результат, если выключатель разомкнут или обращение завершилось ошибкой Redis.
+     */
+    public <T> T call(Supplier<T> action, Supplier<T> fallback) {
+        if (!tryAcquire()) {
+            return fallback.get();
+        }
+        boolean redisFailed = false;
+        try {
+            return action.get();
+        } catch (DataAccessException e) {
+            redisFailed = true;
+            log.debug("Redis call failed: {}", e.getMessage());
+            return fallback.get();
+        } finally {
+            if (redisFailed) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+        }
+    }
+
+    public void run(Runnable action, Runnable fallback) {
+        call(() -> {
+            action.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return {@code true}, если выключатель разомкнут и обращаться к Redis сейчас не нужно.
+     */
+    public boolean isOpen() {
+        return getState() == State.OPEN;
+    }
+
+    public State getState() {
+        State current = state;
+        if (current == State.OPEN && openDurationElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return current;
+    }
+
+    private boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (!openDurationElapsed()) {
+                        return false;
+                    }
+                    transitionTo(State.HALF_OPEN);
+                    probeSuccesses = 0;
+                    probeInFlight = true;
+                    return true;
+                default:
+                    if (probeInFlight) {
+                        return false;
+                    }
+                    probeInFlight = true;
+                    return true;
+            }
+        }
+    }
+
+    private void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+                if (++probeSuccesses >= halfOpenProbes) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            consecutiveFailures = 0;
+        }
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = clock.millis();
+        consecutiveFailures = 0;
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(State newState) {
+        if (state != newState) {
+            log.warn("Redis circuit breaker {} -> {}", state, newState);
+            state = newState;
+        }
+    }
+
+    private boolean openDurationElapsed() {
+        return clock.millis() - openedAt >= openDuration.toMillis();
+    }
+
+}
@@ -2,8 +2,15 @@ package com.internship.deal_service.config.redis;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.service.cache.DealVersion;
+import com.internship.deal_service.service.cache.ReferenceDataRegistry;
+import com.internship.deal_service.service.impl.DealCacheServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -11,13 +18,23 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class RedisConfig {
@@ -31,6 +48,69 @@ public class RedisConfig {
     @Value("${redis.password}")
     private String redisPassword;
 
+    @Value("${redis.timeout:500ms}")
+    private Duration redisTimeout;
+
+    @Value("${deal-cache.circuit-breaker.failure-threshold:5}")
+    private int circuitBreakerFailureThreshold;
+
+    @Value("${deal-cache.circuit-breaker.open-duration:10s}")
+    private Duration circuitBreakerOpenDuration;
+
+    @Value("${deal-cache.circuit-breaker.half-open-probes:3}")
+    private int circuitBreakerHalfOpenProbes;
+
+    @Value("${deal-cache.circuit-breaker.max-pending-evictions:10000}")
+    private int circuitBreakerMaxPendingEvictions;
+
+    @Value("${deal-cache.local.max-size:1000}")
+    private long localCacheMaxSize;
+
+    @Value("${deal-cache.local.ttl:60s}")
+    private Duration localCacheTtl;
+
+    @Value("${deal-cache.invalidation-channel:deal-cache-invalidation}")
+    private String invalidationChannel;
+
+    @Value("${deal-cache.single-flight.distributed:false}")
+    private boolean distributedSingleFlight;
+
+    @Value("${deal-cache.single-flight.lock-ttl:2s}")
+    private Duration singleFlightLockTtl;
+
+    @Value("${deal-cache.single-flight.poll-interval:25ms}")
+    private Duration singleFlightPollInterval;
+
+    @Value("${deal-cache.ttl:30m}")
+    private Duration dealCacheTtl;
+
+    @Value("${deal-cache.ttl-jitter:0.1}")
+    private double dealCacheTtlJitter;
+
+    @Value("${deal-cache.refresh-ahead.enabled:false}")
+    private boolean refreshAheadEnabled;
+
+    @Value("${deal-cache.refresh-ahead.threshold:0.2}")
+    private double refreshAheadThreshold;
+
+    @Value("${deal-cache.refresh-ahead.threads:2}")
+    private int refreshAheadThreads;
+
+    @Value("${deal-cache.refresh-ahead.queue-capacity:100}")
+    private int refreshAheadQueueCapacity;
+
+    @Value("${deal-cache.tombstone-ttl:30s}")
+    private Duration tombstoneTtl;
+
+    @Value("${deal-cache.serializer:json}")
+    private String dealCacheSerializer;
+
+    @Value("${deal-cache.compression-threshold:1024}")
+    private int dealCacheCompressionThreshold;
+
+    @Value("${deal-cache.schema-version:}")
+    private String dealCacheSchemaVersion;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -40,37 +120,168 @@ public class RedisConfig {
         config.setHostName(redisHost);
         config.setPort(redisPort);
         config.setPassword(redisPassword);
-        return new LettuceConnectionFactory(config);
+        // Короткий таймаут команд: при зависшем Redis запрос быстрее уходит в БД, а выключатель быстрее размыкается.
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .commandTimeout(redisTimeout)
+                .build();
+        return new LettuceConnectionFactory(config, clientConfig);
+    }
+
+    /**
+     * Общий для всех кэшей Redis выключатель: при сбое Redis кэши отдают промах, и чтение идёт в БД.
+     */
+    @Bean
+    public RedisCircuitBreaker redisCircuitBreaker(MeterRegistry meterRegistry) {
+        return new RedisCircuitBreaker(circuitBreakerFailureThreshold, circuitBreakerOpenDuration,
+                circuitBreakerHalfOpenProbes, meterRegistry);
     }
 
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate,
+                                                                 RedisCircuitBreaker redisCircuitBreaker) {
+        String nodeId = UUID.randomUUID() + CacheInvalidationPublisher.VERSION_SEPARATOR + dealCacheSchemaVersion();
+        return new CacheInvalidationPublisher(stringRedisTemplate, invalidationChannel, nodeId, redisCircuitBreaker);
+    }
+
+    /**
+     * Сериализатор значений кэша сделок. Режим задаётся свойством {@code deal-cache.serializer}:
+     * {@code json} — Jackson, {@code binary} — {@link DealDtoBinaryRedisSerializer}
+     * со сжатием записей больше {@code deal-cache.compression-threshold} байт.
+     */
+    @Bean
+    public RedisSerializer<DealDto> dealDtoRedisSerializer() {
+        Jackson2JsonRedisSerializer<DealDto> jsonSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, DealDto.class);
+        return switch (dealCacheSerializer) {
+            case "json" -> jsonSerializer;
+            case "binary" -> new DealDtoBinaryRedisSerializer(dealCacheCompressionThreshold, jsonSerializer);
+            default -> throw new IllegalArgumentException("Unknown deal-cache.serializer: " + dealCacheSerializer);
+        };
+    }
+
+    /**
+     * Менеджер кэша сделок: локальный Caffeine (L1) перед Redis (L2).
+     * Межузловая инвалидация L1 выполняется через канал {@code deal-cache.invalidation-channel}.
+     * TTL записей {@code deal-cache.ttl} получает случайный разброс {@code deal-cache.ttl-jitter}; при
+     * {@code deal-cache.refresh-ahead.enabled=true} записи, прочитанные в последние {@code threshold} от TTL,
+     * перезагружаются в фоне через {@link DealService#loadDealForCache(UUID)}. Сервис зависит от этого менеджера,
+     * поэтому берётся лениво из {@link ObjectProvider} при первой перезагрузке.
+     * Кэш {@code dealTombstones} хранит отметки об отсутствующих сделках с коротким TTL {@code deal-cache.tombstone-ttl}.
+     * Загрузка при промахе объединяется по ключу; при {@code deal-cache.single-flight.distributed=true}
+     * дополнительно берётся короткая блокировка в Redis, чтобы запрос в БД выполнял один узел кластера.
+     * Обращения к Redis (L2) идут через {@link RedisCircuitBreaker}; при его размыкании работают только L1 и БД.
+     * Ключи сделок имеют вид {@code deals:<версия схемы>::<id>} (см. {@link #dealCacheSchemaVersion()}), поэтому
+     * при rolling-деплое узлы старой и новой версии {@code DealDto} работают с разными записями, а новая версия
+     * прогревается при старте узла до того, как на него пойдёт трафик.
+     */
     @Primary
     @Bean("dealCacheManager")
-    public RedisCacheManager dealCacheManager(RedisConnectionFactory connectionFactory) {
-        Jackson2JsonRedisSerializer<DealDto> dealDtoSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, DealDto.class);
-
+    public TwoLevelCacheManager dealCacheManager(RedisConnectionFactory connectionFactory,
+                                                 StringRedisTemplate stringRedisTemplate,
+                                                 CacheInvalidationPublisher cacheInvalidationPublisher,
+                                                 RedisSerializer<DealDto> dealDtoRedisSerializer,
+                                                 RedisCircuitBreaker redisCircuitBreaker,
+                                                 MeterRegistry meterRegistry,
+                                                 ObjectProvider<DealService> dealService) {
         RedisCacheConfiguration dealsCfg = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(dealDtoSerializer))
-                .entryTtl(Duration.ofMinutes(30));
+                        RedisSerializationContext.SerializationPair.fromSerializer(dealDtoRedisSerializer))
+                .entryTtl(new JitteredTtlFunction(dealCacheTtl, dealCacheTtlJitter))
+                .computePrefixWith(cacheName -> cacheName + ":" + dealCacheSchemaVersion() + "::");
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheConfiguration tombstonesCfg = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeKeysWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .entryTtl(tombstoneTtl);
+
+        // Версии сделок живут столько же, сколько сами записи, и, как и они, зависят от схемы DealDto
+        RedisCacheConfiguration versionsCfg = dealsCfg
+                .serializeValuesWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(dealsCfg)
+                .withCacheConfiguration(DealCacheServiceImpl.DEAL_TOMBSTONES_CACHE, tombstonesCfg)
+                .withCacheConfiguration(DealCacheServiceImpl.DEAL_VERSIONS_CACHE, versionsCfg)
                 .build();
+        redisCacheManager.initializeCaches();
+
+        RedisLoadLock loadLock = distributedSingleFlight
+                ? new RedisLoadLock(stringRedisTemplate, cacheInvalidationPublisher.getNodeId(), singleFlightLockTtl,
+                        singleFlightPollInterval, redisCircuitBreaker)
+                : null;
+
+        CacheManager remoteCacheManager =
+                new CircuitBreakingCacheManager(redisCacheManager, redisCircuitBreaker, circuitBreakerMaxPendingEvictions);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(remoteCacheManager, cacheInvalidationPublisher, loadLock,
+                new RedisCacheBatchOperations(stringRedisTemplate), meterRegistry, localCacheMaxSize, localCacheTtl)
+                .withLocalTtl(DealCacheServiceImpl.DEAL_TOMBSTONES_CACHE, min(localCacheTtl, tombstoneTtl))
+                .withVersions(DealCacheServiceImpl.DEALS_CACHE, DealCacheServiceImpl.DEAL_VERSIONS_CACHE,
+                        value -> DealVersion.of((DealDto) value));
+        if (refreshAheadEnabled) {
+            cacheManager.withRefreshAhead(DealCacheServiceImpl.DEALS_CACHE,
+                    new RefreshAheadPolicy(dealCacheTtl, refreshAheadThreshold, refreshAheadExecutor(),
+                            key -> dealService.getObject().loadDealForCache(UUID.fromString(String.valueOf(key)))));
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager dealCacheManager,
+                                                                            ReferenceDataRegistry referenceDataRegistry) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(dealCacheManager, new ChannelTopic(invalidationChannel));
+        container.addMessageListener(referenceDataRegistry, new ChannelTopic(referenceDataRegistry.getChannel()));
+        return container;
     }
 
     @Bean("dealMetaDataCacheManager")
-    public RedisCacheManager dealMetaDataCacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager dealMetaDataCacheManager(RedisConnectionFactory connectionFactory,
+                                                 RedisCircuitBreaker redisCircuitBreaker) {
         GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
 
         RedisCacheConfiguration metaConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(1))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(metaConfig)
                 .build();
+        redisCacheManager.initializeCaches();
+        return new CircuitBreakingCacheManager(redisCacheManager, redisCircuitBreaker, circuitBreakerMaxPendingEvictions);
+    }
+
+    /**
+     * Ограниченный пул фоновых перезагрузок refresh-ahead на daemon-потоках. Намеренно не регистрируется
+     * как bean, чтобы не подменять автоконфигурируемый {@code applicationTaskExecutor}.
+     * При переполненной очереди задача отклоняется, и запись просто истекает по TTL.
+     */
+    private ThreadPoolExecutor refreshAheadExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("deal-cache-refresh-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(refreshAheadThreads, refreshAheadThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshAheadQueueCapacity), threadFactory);
+    }
+
+    /**
+     * Версия схемы записей кэша сделок: формат сериализатора и отпечаток полей {@link DealDto}
+     * ({@link CacheSchemaFingerprint}). Может быть задана явно свойством {@code deal-cache.schema-version}.
+     */
+    private String dealCacheSchemaVersion() {
+        if (!dealCacheSchemaVersion.isBlank()) {
+            return dealCacheSchemaVersion;
+        }
+        String format = "binary".equals(dealCacheSerializer) ? "b" + DealDtoBinaryRedisSerializer.SCHEMA_VERSION : "j";
+        return format + "-" + CacheSchemaFingerprint.of(DealDto.class);
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
     }
 
 }
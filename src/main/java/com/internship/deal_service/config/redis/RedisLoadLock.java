@@ -0,0 +1,90 @@
+package com.internship.deal_service.config.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Короткая распределённая блокировка загрузки записи кэша ({@code SET NX PX}).
+ * <p>
+ * Позволяет только одному узлу кластера выполнять загрузку значения из БД при промахе кэша,
+ * остальные узлы ждут появления значения в Redis. Блокировка ограничена по времени,
+ * поэтому падение узла-владельца не блокирует загрузку надолго.
+ * </p>
+ */
+@Slf4j
+public class RedisLoadLock {
+
+    private static final String LOCK_PREFIX = "lock:";
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String ownerId;
+    private final Duration lockTtl;
+    private final Duration pollInterval;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    /**
+     * @param circuitBreaker выключатель Redis; пока он разомкнут, блокировка считается захваченной
+     *                       без обращения к Redis. Может быть {@code null}.
+     */
+    public RedisLoadLock(StringRedisTemplate redisTemplate, String ownerId, Duration lockTtl, Duration pollInterval,
+                         RedisCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.ownerId = ownerId;
+        this.lockTtl = lockTtl;
+        this.pollInterval = pollInterval;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @return {@code true}, если блокировка захвачена текущим узлом.
+     */
+    public boolean tryLock(String cacheName, String key) {
+        if (isRedisDown()) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), ownerId, lockTtl));
+        } catch (Exception e) {
+            // Без Redis координация между узлами невозможна — загружаем локально.
+            log.warn("Failed to acquire load lock for {}::{}: {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    public void unlock(String cacheName, String key) {
+        if (isRedisDown()) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(cacheName, key)), ownerId);
+        } catch (Exception e) {
+            log.warn("Failed to release load lock for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    public Duration getLockTtl() {
+        return lockTtl;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    private boolean isRedisDown() {
+        return circuitBreaker != null && circuitBreaker.isOpen();
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return LOCK_PREFIX + cacheName + "::" + key;
+    }
+
+}
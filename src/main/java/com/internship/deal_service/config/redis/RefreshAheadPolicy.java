@@ -0,0 +1,56 @@
+package com.internship.deal_service.config.redis;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Политика упреждающего обновления (refresh-ahead) записей кэша.
+ * <p>
+ * Если запись прочитана из Redis, когда до её истечения осталось меньше {@code threshold}
+ * от базового TTL, значение перезагружается асинхронно на ограниченном {@link Executor},
+ * а вызывающий сразу получает текущее значение. Задачи, не поместившиеся в очередь исполнителя,
+ * отбрасываются: запись тогда просто истечёт и загрузится обычным образом.
+ * </p>
+ * <p>
+ * Значение перезагружается отдельной функцией {@code loader}, а не загрузчиком вызова {@code @Cacheable}:
+ * тот выполняется в контексте вызывающего (транзакция, побочные эффекты промаха) и в фоновом потоке
+ * недействителен. {@code loader} возвращает {@code null}, если записи больше нет в источнике.
+ * </p>
+ */
+public class RefreshAheadPolicy {
+
+    private final Duration ttl;
+    private final double threshold;
+    private final Executor executor;
+    private final Function<Object, ?> loader;
+
+    /**
+     * @param ttl       базовое время жизни записи в Redis.
+     * @param threshold доля TTL от {@code 0} до {@code 1}, в пределах которой запись считается близкой к истечению.
+     * @param executor  ограниченный исполнитель фоновых перезагрузок.
+     * @param loader    перезагрузка значения по ключу записи.
+     */
+    public RefreshAheadPolicy(Duration ttl, double threshold, Executor executor, Function<Object, ?> loader) {
+        if (threshold <= 0 || threshold >= 1) {
+            throw new IllegalArgumentException("Refresh-ahead threshold must be between 0 and 1: " + threshold);
+        }
+        this.ttl = ttl;
+        this.threshold = threshold;
+        this.executor = executor;
+        this.loader = loader;
+    }
+
+    public boolean shouldRefresh(Duration remainingTtl) {
+        return remainingTtl != null && remainingTtl.toMillis() < ttl.toMillis() * threshold;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Object load(Object key) {
+        return loader.apply(key);
+    }
+
+}
@@ -0,0 +1,684 @@
+package com.internship.deal_service.config.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Двухуровневый кэш: локальный in-process кэш (L1, Caffeine) перед распределённым кэшем Redis (L2).
+ * <p>
+ * Чтение сначала идёт в L1, при промахе — в L2, найденное в L2 значение поднимается в L1.
+ * Любая запись или удаление выполняется в обоих уровнях, после чего остальные узлы получают
+ * сообщение об инвалидации через Redis pub/sub и сбрасывают свою копию в L1.
+ * </p>
+ * <p>
+ * Загрузка при промахе ({@link #get(Object, Callable)}) выполняется в режиме single-flight:
+ * на узле для одного ключа работает только один загрузчик, остальные вызовы ждут его результат.
+ * Если задан {@link RedisLoadLock}, загрузка дополнительно координируется между узлами.
+ * Количество объединённых ожидающих вызовов публикуется в метрике {@code cache.load.coalesced}.
+ * </p>
+ * <p>
+ * Если задана {@link RefreshAheadPolicy}, запись, прочитанная из L2 незадолго до истечения,
+ * перезагружается в фоне загрузчиком политики ({@code cache.refresh.ahead}), а вызывающий получает текущее значение.
+ * Перезагруженное значение не записывается, если за время перезагрузки ключ был записан или удалён — на этом узле
+ * или, судя по сообщению об инвалидации либо значению в Redis, на другом: иначе фоновое чтение, начатое до
+ * коммита изменения, затёрло бы его более старым состоянием.
+ * </p>
+ * <p>
+ * Если задан кэш версий ({@code versionCache}), рядом с каждой записью хранится её версия — короткая строка,
+ * которая считается функцией {@code versionFunction} один раз при записи или при подъёме значения в L1,
+ * а не при каждом чтении версии. В L1 версия лежит в той же обёртке, что и значение, в Redis — отдельным ключом
+ * с тем же временем жизни, который записывается и удаляется одной командой или транзакцией вместе со значением.
+ * {@link #getVersion(Object)} читает только версию, не поднимая в L1 и не десериализуя само значение.
+ * </p>
+ * <p>
+ * Значение, прочитанное из L2, не поднимается в L1, если во время чтения ключ был записан, удалён или пришло
+ * сообщение об инвалидации: иначе значение, прочитанное до инвалидации, осталось бы в L1 после неё. Для этого
+ * у ключа есть поколение инвалидации (счётчик на полосу ключей плюс общий счётчик очисток), которое
+ * запоминается до чтения из L2 и сверяется после записи в L1.
+ * </p>
+ * Ключи L1 приводятся к строке, так же как это делает {@code RedisCache}, чтобы {@code UUID}
+ * и его строковое представление указывали на одну и ту же запись.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache;
+    private final Cache remoteCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RedisLoadLock loadLock;
+    private final RedisCacheBatchOperations batchOperations;
+    private final RefreshAheadPolicy refreshAheadPolicy;
+    private final Cache versionCache;
+    private final Function<Object, String> versionFunction;
+    /** Ключи, перезагружаемые в фоне; значение {@code true} — ключ изменился во время перезагрузки. */
+    private final ConcurrentMap<String, Boolean> refreshingKeys = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    /** Поколения инвалидации по полосам ключей и общее поколение очисток; см. {@link #generation(String)}. */
+    private final AtomicLongArray keyGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong clearGeneration = new AtomicLong();
+    private final Counter loadCounter;
+    private final Counter coalescedCounter;
+    private final Counter refreshAheadCounter;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache,
+                         Cache remoteCache,
+                         CacheInvalidationPublisher invalidationPublisher,
+                         RedisLoadLock loadLock,
+                         RedisCacheBatchOperations batchOperations,
+                         RefreshAheadPolicy refreshAheadPolicy,
+                         MeterRegistry meterRegistry) {
+        this(name, localCache, remoteCache, invalidationPublisher, loadLock, batchOperations, refreshAheadPolicy,
+                null, null, meterRegistry);
+    }
+
+    /**
+     * @param versionCache    кэш версий записей; {@code null} — версии не хранятся.
+     * @param versionFunction функция, вычисляющая версию значения; задаётся вместе с {@code versionCache}.
+     */
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache,
+                         Cache remoteCache,
+                         CacheInvalidationPublisher invalidationPublisher,
+                         RedisLoadLock loadLock,
+                         RedisCacheBatchOperations batchOperations,
+                         RefreshAheadPolicy refreshAheadPolicy,
+                         Cache versionCache,
+                         Function<Object, String> versionFunction,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.loadLock = loadLock;
+        this.batchOperations = batchOperations;
+        this.refreshAheadPolicy = refreshAheadPolicy;
+        this.versionCache = versionCache;
+        this.versionFunction = versionFunction;
+        this.loadCounter = Counter.builder("cache.load")
+                .description("Number of cache loads executed by this node")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("cache.load.coalesced")
+                .description("Number of callers that waited for an in-flight load instead of loading themselves")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.refreshAheadCounter = Counter.builder("cache.refresh.ahead")
+                .description("Number of background reloads started for entries close to expiry")
+                .tag("cache", name)
+                .register(meterRegistry);
+        meterRegistry.gauge("cache.load.in.flight", Tags.of("cache", name), inFlightLoads, ConcurrentMap::size);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            return local;
+        }
+        return getRemote(key, localKey);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            return (T) local.get();
+        }
+        ValueWrapper remote = getRemote(key, localKey);
+        if (remote != null) {
+            refreshAheadIfExpiring(key, localKey, remote);
+            return (T) remote.get();
+        }
+
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(localKey, loading);
+        if (inFlight != null) {
+            coalescedCounter.increment();
+            return (T) await(inFlight, key, valueLoader);
+        }
+
+        try {
+            Object value = loadOnce(key, localKey, valueLoader);
+            loading.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(localKey, loading);
+        }
+    }
+
+    /**
+     * Количество ключей, загрузка которых выполняется прямо сейчас.
+     */
+    public int getInFlightLoadCount() {
+        return inFlightLoads.size();
+    }
+
+    /**
+     * @return {@code true}, если рядом с записями хранятся их версии.
+     */
+    public boolean supportsVersions() {
+        return versionCache != null;
+    }
+
+    /**
+     * Возвращает версию записи, не вычисляя её: из L1, если запись там есть, иначе из кэша версий в Redis.
+     *
+     * @return версия или {@code null}, если записи нет в кэше или она сохранена без версии.
+     */
+    public String getVersion(Object key) {
+        if (versionCache == null) {
+            throw new IllegalStateException("Cache <<" + name + ">> does not store versions.");
+        }
+        if (localCache.getIfPresent(localKey(key)) instanceof VersionedValueWrapper local) {
+            return local.getVersion();
+        }
+        ValueWrapper remote = versionCache.get(key);
+        return remote != null ? (String) remote.get() : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        markChanged(localKey);
+        ValueWrapper entry = localEntry(value);
+        if (versionCache == null) {
+            remoteCache.put(key, value);
+        } else {
+            Map<Object, Object> entries = new LinkedHashMap<>();
+            entries.put(key, value);
+            putRemote(entries, versions(Map.of(localKey, entry)));
+        }
+        localCache.put(localKey, entry);
+        invalidationPublisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        ValueWrapper entry = localEntry(existing != null ? existing.get() : value);
+        localCache.put(localKey(key), entry);
+        if (existing == null) {
+            if (versionCache != null) {
+                putVersions(List.of(key), versions(Map.of(localKey(key), entry)));
+            }
+            markChanged(localKey(key));
+            invalidationPublisher.publishEvict(name, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        markChanged(localKey(key));
+        if (versionCache == null) {
+            remoteCache.evict(key);
+        } else {
+            evictRemote(List.of(key));
+        }
+        localCache.invalidate(localKey(key));
+        invalidationPublisher.publishEvict(name, localKey(key));
+    }
+
+    /**
+     * Читает несколько записей: сначала из L1, оставшиеся — из L2. Если L2 — {@link RedisCache},
+     * промахи L1 читаются одной командой {@code MGET}. Найденные в L2 значения поднимаются в L1.
+     *
+     * @param keys ключи записей.
+     * @return найденные значения по строковому ключу; отсутствующие ключи в результат не попадают.
+     */
+    public Map<String, Object> getAll(Collection<?> keys) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (String localKey : keys.stream().map(TwoLevelCache::localKey).distinct().toList()) {
+            ValueWrapper local = localCache.getIfPresent(localKey);
+            if (local != null) {
+                result.put(localKey, local.get());
+            } else {
+                remoteKeys.add(localKey);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Long> generations = new LinkedHashMap<>();
+        remoteKeys.forEach(key -> generations.put(key, generation(key)));
+        Map<String, Object> remote = batch(redisCache -> batchOperations.getAll(redisCache, remoteKeys), () -> {
+            Map<String, Object> found = new LinkedHashMap<>();
+            remoteKeys.forEach(key -> {
+                ValueWrapper wrapper = remoteCache.get(key);
+                if (wrapper != null) {
+                    found.put(key, wrapper.get());
+                }
+            });
+            return found;
+        });
+        remote.forEach((key, value) -> promote(key, localEntry(value), generations.get(key)));
+        result.putAll(remote);
+        return result;
+    }
+
+    /**
+     * Записывает несколько значений в оба уровня. Если L2 — {@link RedisCache}, запись выполняется
+     * одним конвейером, а сообщения об инвалидации отправляются вторым конвейером.
+     *
+     * @param entries значения по ключу.
+     */
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<String, Object> localEntries = new LinkedHashMap<>();
+        entries.forEach((key, value) -> localEntries.put(localKey(key), value));
+        localEntries.keySet().forEach(this::markChanged);
+        Map<String, ValueWrapper> wrappers = new LinkedHashMap<>();
+        localEntries.forEach((key, value) -> wrappers.put(key, localEntry(value)));
+        putRemote(entries, versions(wrappers));
+        localCache.putAll(wrappers);
+        invalidationPublisher.publishEvictAll(name, localEntries.keySet());
+    }
+
+    /**
+     * Удаляет несколько записей из обоих уровней. Если L2 — {@link RedisCache}, записи удаляются
+     * одной командой {@code DEL}, а сообщения об инвалидации отправляются одним конвейером.
+     *
+     * @param keys ключи удаляемых записей.
+     */
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> localKeys = keys.stream().map(TwoLevelCache::localKey).distinct().toList();
+        localKeys.forEach(this::markChanged);
+        evictRemote(keys);
+        localCache.invalidateAll(localKeys);
+        invalidationPublisher.publishEvictAll(name, localKeys);
+    }
+
+    @Override
+    public void clear() {
+        markAllChanged();
+        clearRemoteLevel();
+        localCache.invalidateAll();
+        invalidationPublisher.publishClear(name);
+    }
+
+    /**
+     * Удаляет запись только из локального уровня. Вызывается при получении
+     * сообщения об инвалидации от другого узла.
+     *
+     * @param key строковый ключ записи.
+     */
+    public void evictLocal(String key) {
+        markChanged(key);
+        localCache.invalidate(key);
+    }
+
+    /**
+     * Полностью очищает локальный уровень, не затрагивая Redis.
+     */
+    public void clearLocal() {
+        markAllChanged();
+        localCache.invalidateAll();
+    }
+
+    /**
+     * Удаляет запись только из Redis, без публикации сообщения об инвалидации.
+     *
+     * @param key строковый ключ записи.
+     */
+    public void evictRemote(String key) {
+        markChanged(key);
+        if (versionCache == null) {
+            remoteCache.evict(key);
+        } else {
+            evictRemote(List.of(key));
+        }
+    }
+
+    /**
+     * Очищает только Redis, без публикации сообщения об инвалидации.
+     */
+    public void clearRemote() {
+        markAllChanged();
+        clearRemoteLevel();
+    }
+
+    /**
+     * Записывает значения в Redis; если хранятся версии — вместе с ними, одной транзакцией.
+     *
+     * @param versions версии по строковому ключу.
+     */
+    private void putRemote(Map<?, ?> entries, Map<String, String> versions) {
+        RedisCache versionRedisCache = versionCache != null ? unwrapRedis(versionCache) : null;
+        batch(redisCache -> {
+            Map<String, Object> redisEntries = new LinkedHashMap<>();
+            entries.forEach((key, value) -> redisEntries.put(localKey(key), value));
+            if (versionRedisCache != null) {
+                batchOperations.putAll(redisCache, redisEntries, versionRedisCache, versions);
+            } else {
+                batchOperations.putAll(redisCache, redisEntries);
+                putVersions(entries.keySet(), versions);
+            }
+            return null;
+        }, () -> {
+            entries.forEach(remoteCache::put);
+            putVersions(entries.keySet(), versions);
+            return null;
+        });
+    }
+
+    private void putVersions(Collection<?> keys, Map<String, String> versions) {
+        if (versionCache == null) {
+            return;
+        }
+        keys.forEach(key -> {
+            String version = versions.get(localKey(key));
+            if (version != null) {
+                versionCache.put(key, version);
+            } else {
+                versionCache.evict(key);
+            }
+        });
+    }
+
+    /**
+     * Удаляет записи из Redis; если хранятся версии — вместе с ними, одной командой {@code DEL}.
+     */
+    private void evictRemote(Collection<?> keys) {
+        RedisCache versionRedisCache = versionCache != null ? unwrapRedis(versionCache) : null;
+        batch(redisCache -> {
+            List<String> redisKeys = keys.stream().map(TwoLevelCache::localKey).distinct().toList();
+            if (versionRedisCache != null) {
+                return batchOperations.evictAll(redisCache, versionRedisCache, redisKeys);
+            }
+            if (versionCache != null) {
+                keys.forEach(versionCache::evict);
+            }
+            return batchOperations.evictAll(redisCache, redisKeys);
+        }, () -> {
+            keys.forEach(remoteCache::evict);
+            if (versionCache != null) {
+                keys.forEach(versionCache::evict);
+            }
+            return null;
+        });
+    }
+
+    private void clearRemoteLevel() {
+        remoteCache.clear();
+        if (versionCache != null) {
+            versionCache.clear();
+        }
+    }
+
+    /**
+     * Выполняет пакетную операцию над Redis, если L2 — {@link RedisCache} (в том числе обёрнутый
+     * в {@link CircuitBreakingCache}); иначе, а также при разомкнутом выключателе, — поштучный запасной вариант.
+     */
+    private <T> T batch(Function<RedisCache, T> action, Supplier<T> fallback) {
+        Cache target = remoteCache;
+        RedisCircuitBreaker circuitBreaker = null;
+        if (target instanceof CircuitBreakingCache circuitBreakingCache) {
+            circuitBreaker = circuitBreakingCache.getCircuitBreaker();
+            target = circuitBreakingCache.getDelegate();
+        }
+        if (batchOperations == null || !(target instanceof RedisCache redisCache)) {
+            return fallback.get();
+        }
+        if (circuitBreaker == null) {
+            return action.apply(redisCache);
+        }
+        return circuitBreaker.call(() -> action.apply(redisCache), fallback);
+    }
+
+    private ValueWrapper getRemote(Object key, String localKey) {
+        long generation = generation(localKey);
+        ValueWrapper remote = remoteCache.get(key);
+        if (remote != null) {
+            promote(localKey, localEntry(remote.get()), generation);
+        }
+        return remote;
+    }
+
+    /**
+     * Поднимает прочитанное из L2 значение в L1, если поколение ключа не изменилось с начала чтения.
+     * Поколение сверяется и после записи: инвалидация сначала увеличивает поколение, а затем удаляет запись из L1,
+     * поэтому запись, сделанная между этими шагами, либо будет удалена инвалидацией, либо удаляется здесь.
+     */
+    private void promote(String localKey, ValueWrapper entry, long generation) {
+        if (generation(localKey) != generation) {
+            return;
+        }
+        localCache.put(localKey, entry);
+        if (generation(localKey) != generation) {
+            localCache.asMap().remove(localKey, entry);
+        }
+    }
+
+    private long generation(String localKey) {
+        return clearGeneration.get() + keyGenerations.get(stripe(localKey));
+    }
+
+    private static int stripe(String localKey) {
+        return Math.floorMod(localKey.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Обёртка значения для L1; если хранятся версии, версия вычисляется здесь — один раз на запись в L1.
+     */
+    private ValueWrapper localEntry(Object value) {
+        if (versionFunction == null || value == null) {
+            return new SimpleValueWrapper(value);
+        }
+        return new VersionedValueWrapper(value, versionFunction.apply(value));
+    }
+
+    private static Map<String, String> versions(Map<String, ValueWrapper> entries) {
+        Map<String, String> versions = new LinkedHashMap<>();
+        entries.forEach((key, entry) -> {
+            if (entry instanceof VersionedValueWrapper versioned) {
+                versions.put(key, versioned.getVersion());
+            }
+        });
+        return versions;
+    }
+
+    private void refreshAheadIfExpiring(Object key, String localKey, ValueWrapper current) {
+        if (refreshAheadPolicy == null) {
+            return;
+        }
+        if (inFlightLoads.containsKey(localKey) || refreshingKeys.putIfAbsent(localKey, Boolean.FALSE) != null) {
+            return;
+        }
+        try {
+            Duration remainingTtl = batch(redisCache -> batchOperations.remainingTtl(redisCache, localKey), () -> null);
+            if (!refreshAheadPolicy.shouldRefresh(remainingTtl)) {
+                refreshingKeys.remove(localKey);
+                return;
+            }
+            refreshAheadPolicy.getExecutor().execute(() -> {
+                try {
+                    refreshAheadCounter.increment();
+                    Object value = refreshAheadPolicy.load(key);
+                    if (changedDuringRefresh(key, localKey, current)) {
+                        log.debug("Refresh-ahead of {}::{} discarded: entry changed during refresh", name, localKey);
+                    } else if (value != null) {
+                        put(key, value);
+                    } else {
+                        evict(key);
+                    }
+                } catch (Exception e) {
+                    log.warn("Refresh-ahead of {}::{} failed: {}", name, localKey, e.getMessage());
+                } finally {
+                    refreshingKeys.remove(localKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Очередь исполнителя переполнена или Redis недоступен — отдаём текущее значение без обновления.
+            refreshingKeys.remove(localKey);
+            log.debug("Refresh-ahead of {}::{} skipped: {}", name, localKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Ключ записан или удалён после того, как перезагрузка прочитала {@code current}: об этом сообщил
+     * {@link #markChanged} либо в Redis уже лежит другое значение (сообщение об инвалидации ещё не дошло).
+     */
+    private boolean changedDuringRefresh(Object key, String localKey, ValueWrapper current) {
+        if (Boolean.TRUE.equals(refreshingKeys.get(localKey))) {
+            return true;
+        }
+        ValueWrapper stored = remoteCache.get(key);
+        return stored == null || !Objects.equals(stored.get(), current.get());
+    }
+
+    private void markChanged(String localKey) {
+        keyGenerations.incrementAndGet(stripe(localKey));
+        refreshingKeys.replace(localKey, Boolean.TRUE);
+    }
+
+    private void markAllChanged() {
+        clearGeneration.incrementAndGet();
+        refreshingKeys.replaceAll((key, changed) -> Boolean.TRUE);
+    }
+
+    private Object loadOnce(Object key, String localKey, Callable<?> valueLoader) {
+        // Значение могло быть загружено на этом узле между промахом и регистрацией загрузки.
+        ValueWrapper local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            return local.get();
+        }
+
+        if (loadLock == null) {
+            return loadAndPut(key, valueLoader);
+        }
+
+        if (loadLock.tryLock(name, localKey)) {
+            try {
+                return loadAndPut(key, valueLoader);
+            } finally {
+                loadLock.unlock(name, localKey);
+            }
+        }
+
+        // Другой узел уже загружает значение: ждём его появления в Redis не дольше времени жизни блокировки.
+        long deadline = System.nanoTime() + loadLock.getLockTtl().toNanos();
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(loadLock.getPollInterval().toNanos());
+            ValueWrapper remote = get(key);
+            if (remote != null) {
+                return remote.get();
+            }
+        }
+        return loadAndPut(key, valueLoader);
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        Object value;
+        try {
+            loadCounter.increment();
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    private static Object await(CompletableFuture<Object> inFlight, Object key, Callable<?> valueLoader) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ValueRetrievalException retrievalException) {
+                throw retrievalException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private static RedisCache unwrapRedis(Cache cache) {
+        Cache target = cache instanceof CircuitBreakingCache circuitBreakingCache ? circuitBreakingCache.getDelegate() : cache;
+        return target instanceof RedisCache redisCache ? redisCache : null;
+    }
+
+    /**
+     * Значение L1 вместе с его версией.
+     */
+    private static final class VersionedValueWrapper extends SimpleValueWrapper {
+
+        private final String version;
+
+        private VersionedValueWrapper(Object value, String version) {
+            super(value);
+            this.version = version;
+        }
+
+        private String getVersion() {
+            return version;
+        }
+
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.internship.deal_service.config.redis;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * {@link CacheManager}, который оборачивает кэши Redis в {@link TwoLevelCache}.
+ * <p>
+ * Для каждого кэша создаётся собственный ограниченный по размеру и времени жизни локальный кэш Caffeine.
+ * Менеджер также слушает канал инвалидации и сбрасывает L1 при изменениях, сделанных на других узлах.
+ * Если узел-отправитель работает с другой версией схемы кэша, запись удаляется и из Redis в пространстве
+ * ключей текущей версии: иначе после изменения на узле другой версии здесь оставалось бы устаревшее значение.
+ * </p>
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RedisLoadLock loadLock;
+    private final RedisCacheBatchOperations batchOperations;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final Map<String, Duration> localTtlOverrides = new ConcurrentHashMap<>();
+    private final Map<String, RefreshAheadPolicy> refreshAheadPolicies = new ConcurrentHashMap<>();
+    private final Map<String, String> versionCacheNames = new ConcurrentHashMap<>();
+    private final Map<String, Function<Object, String>> versionFunctions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param loadLock        распределённая блокировка загрузки; {@code null} — single-flight только в пределах узла.
+     * @param batchOperations пакетные операции над Redis; {@code null} — пакетное удаление выполняется поштучно.
+     */
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                CacheInvalidationPublisher invalidationPublisher,
+                                RedisLoadLock loadLock,
+                                RedisCacheBatchOperations batchOperations,
+                                MeterRegistry meterRegistry,
+                                long localMaxSize,
+                                Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.loadLock = loadLock;
+        this.batchOperations = batchOperations;
+        this.meterRegistry = meterRegistry;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+    }
+
+    /**
+     * Задаёт для отдельного кэша собственное время жизни записей в L1, например, чтобы
+     * короткоживущие записи не переживали в L1 свой TTL в Redis. Вызывается до первого обращения к кэшу.
+     */
+    public TwoLevelCacheManager withLocalTtl(String cacheName, Duration ttl) {
+        localTtlOverrides.put(cacheName, ttl);
+        return this;
+    }
+
+    /**
+     * Включает для отдельного кэша упреждающее обновление записей. Вызывается до первого обращения к кэшу.
+     */
+    public TwoLevelCacheManager withRefreshAhead(String cacheName, RefreshAheadPolicy policy) {
+        refreshAheadPolicies.put(cacheName, policy);
+        return this;
+    }
+
+    /**
+     * Включает для отдельного кэша хранение версий записей в кэше Redis {@code versionCacheName}
+     * (см. {@link TwoLevelCache#getVersion(Object)}). Вызывается до первого обращения к кэшу.
+     */
+    public TwoLevelCacheManager withVersions(String cacheName, String versionCacheName,
+                                             Function<Object, String> versionFunction) {
+        versionCacheNames.put(cacheName, versionCacheName);
+        versionFunctions.put(cacheName, versionFunction);
+        return this;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + CacheInvalidationPublisher.SEPARATOR, 3);
+        if (parts.length != 3) {
+            log.warn("Malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (parts[0].equals(invalidationPublisher.getNodeId())) {
+            return;
+        }
+
+        // Удаление из Redis выполнит каждый узел текущей версии; повторный DEL безвреден.
+        boolean otherSchema = !Objects.equals(CacheInvalidationPublisher.schemaVersionOf(parts[0]),
+                invalidationPublisher.getSchemaVersion());
+        TwoLevelCache cache = otherSchema ? remoteEvictionTarget(parts[1]) : caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CacheInvalidationPublisher.CLEAR_ALL.equals(parts[2])) {
+            cache.clearLocal();
+            if (otherSchema) {
+                cache.clearRemote();
+            }
+        } else {
+            cache.evictLocal(parts[2]);
+            if (otherSchema) {
+                cache.evictRemote(parts[2]);
+            }
+        }
+    }
+
+    /**
+     * Кэш для удаления записи из Redis по сообщению узла другой версии. Создаётся, даже если на этом узле
+     * к нему ещё не обращались: в L1 тогда пусто, но в Redis в пространстве ключей текущей версии запись может быть.
+     */
+    private TwoLevelCache remoteEvictionTarget(String name) {
+        try {
+            return caches.computeIfAbsent(name, this::createCache);
+        } catch (IllegalStateException e) {
+            log.warn("Cache invalidation for unknown cache <<{}>> ignored", name);
+            return null;
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null) {
+            throw new IllegalStateException("Remote cache <<" + name + ">> is not configured.");
+        }
+        String versionCacheName = versionCacheNames.get(name);
+        Cache versionCache = versionCacheName != null ? remoteCacheManager.getCache(versionCacheName) : null;
+        if (versionCacheName != null && versionCache == null) {
+            throw new IllegalStateException("Remote cache <<" + versionCacheName + ">> is not configured.");
+        }
+        return new TwoLevelCache(
+                name,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaxSize)
+                        .expireAfterWrite(localTtlOverrides.getOrDefault(name, localTtl))
+                        .build(),
+                remoteCache,
+                invalidationPublisher,
+                loadLock,
+                batchOperations,
+                refreshAheadPolicies.get(name),
+                versionCache,
+                versionFunctions.get(name),
+                meterRegistry);
+    }
+
+}
@@ -1,10 +1,15 @@
 package com.internship.deal_service.controller;
 
 import com.internship.deal_service.model.DealRequest;
+import com.internship.deal_service.model.dto.DealBatchResponse;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateRequest;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateResponse;
+import com.internship.deal_service.model.dto.DealCursorPage;
 import com.internship.deal_service.model.dto.DealSearchRequest;
 import com.internship.deal_service.model.dto.DealStatusUpdateRequest;
 import com.internship.deal_service.model.dto.DealDto;
 import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.service.cache.DealVersion;
 import com.internship.deal_service.model.Pagination;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +20,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,10 +28,12 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -40,16 +48,43 @@ public class DealController {
     private final DealService dealService;
 
     @GetMapping("/{id}")
-    @Operation(summary = "Получить сделку по ID", description = "Возвращает подробную информацию о сделке по её UUID.")
+    @Operation(summary = "Получить сделку по ID", description = "Возвращает подробную информацию о сделке по её UUID. " +
+            "Версия сделки передаётся в заголовке ETag; с заголовком If-None-Match неизменённая сделка возвращается как 304.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Сделка найдена",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = DealDto.class))}),
+            @ApiResponse(responseCode = "304", description = "Сделка не изменилась с версии из If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Сделка не найдена", content = @Content)
     })
-    public ResponseEntity<DealDto> getDealById(@PathVariable UUID id) {
+    public ResponseEntity<DealDto> getDealById(@PathVariable UUID id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch) {
+        // Версия хранится рядом с закэшированной сделкой: 304 отдаётся без обращения к БД и без вычисления версии
+        String cachedVersion = dealService.getDealVersion(id);
+        if (DealVersion.matches(ifNoneMatch, cachedVersion)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedVersion).build();
+        }
         DealDto deal = dealService.getDealById(id);
-        return ResponseEntity.ok(deal); // Возвращаем 200 OK с DTO сделки
+        // Версия, прочитанная до сделки, не новее её: если сделку успели изменить, клиент просто получит её ещё раз.
+        // Вычисляется версия только для сделки, которой не было в кэше
+        String version = cachedVersion != null ? cachedVersion : DealVersion.of(deal);
+        if (DealVersion.matches(ifNoneMatch, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version).build();
+        }
+        return ResponseEntity.ok().eTag(version).body(deal); // Возвращаем 200 OK с DTO сделки
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Получить сделки по списку ID", description = "Возвращает найденные активные сделки в порядке запроса " +
+            "и отдельный список ID, которые не найдены или неактивны.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Сделки получены",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = DealBatchResponse.class))})
+    })
+    public ResponseEntity<DealBatchResponse> getDealsByIds(@RequestBody List<UUID> ids) {
+        return ResponseEntity.ok(dealService.getDealsByIds(ids));
     }
 
     @PostMapping("/save")
@@ -73,15 +108,31 @@ public class DealController {
             @ApiResponse(responseCode = "200", description = "Статус успешно изменен",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = DealDto.class))}),
-            @ApiResponse(responseCode = "404", description = "Сделка или статус не найдены", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Сделка или статус не найдены", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Переход из текущего статуса сделки не разрешён или сделка находится не в ожидаемом статусе",
+                    content = @Content)
     })
     public ResponseEntity<DealDto> changeDealStatus(@RequestBody DealStatusUpdateRequest request) {
         DealDto updatedDeal = dealService.changeDealStatus(request.getDealId(), request);
         return ResponseEntity.ok(updatedDeal);
     }
 
+    @PatchMapping("/change/status/bulk")
+    @Operation(summary = "Массово изменить статус сделок", description = "Переводит в новый статус сделки из списка ID " +
+            "или найденные по фильтру. Сделки обрабатываются порциями, каждая порция фиксируется отдельно.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Статусы изменены",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = DealBulkStatusUpdateResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "Статус не найден или не переданы ни ID, ни фильтр", content = @Content)
+    })
+    public ResponseEntity<DealBulkStatusUpdateResponse> changeDealStatuses(@RequestBody DealBulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(dealService.changeDealStatuses(request));
+    }
+
     @PostMapping("/search")
-    @Operation(summary = "Поиск сделок", description = "Ищет сделки по различным критериям с поддержкой пагинации и сортировки.")
+    @Operation(summary = "Поиск сделок", description = "Ищет сделки по различным критериям с поддержкой пагинации. " +
+            "Сделки упорядочены от новых к старым: по дате создания, а при равной дате — по ID, оба по убыванию.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Поиск успешно выполнен",
                     content = @Content(mediaType = "application/json",
@@ -95,8 +146,26 @@ public class DealController {
         return ResponseEntity.ok(resultPage);
     }
 
+    @PostMapping("/search/cursor")
+    @Operation(summary = "Поиск сделок по курсору", description = "Ищет сделки по тем же критериям, что и /search, " +
+            "постранично по курсору: от новых к старым, без подсчета общего количества. " +
+            "Для следующей страницы передайте nextCursor из ответа; его отсутствие означает последнюю страницу.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поиск успешно выполнен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = DealCursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы меньше единицы", content = @Content)
+    })
+    public ResponseEntity<DealCursorPage> searchDealsByCursor(
+            @RequestBody DealSearchRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(dealService.searchDealsByCursor(request, cursor, size));
+    }
+
     @PostMapping("/search/export")
-    @Operation(summary = "Экспорт сделок в Excel", description = "Формирует и возвращает XLSX файл с данными сделок по заданным критериям поиска.")
+    @Operation(summary = "Экспорт сделок в Excel", description = "Формирует и возвращает XLSX файл с данными сделок по заданным критериям поиска. " +
+            "Сделки упорядочены так же, как в /search: от новых к старым.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Файл Excel успешно сформирован",
                     content = @Content(mediaType = "application/octet-stream",
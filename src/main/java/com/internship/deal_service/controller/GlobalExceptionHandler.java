@@ -3,6 +3,8 @@ package com.internship.deal_service.controller;
 import com.internship.deal_service.exception.ContractorRoleException;
 import com.internship.deal_service.exception.DealContractorException;
 import com.internship.deal_service.exception.DealException;
+import com.internship.deal_service.exception.DealSearchRequestException;
+import com.internship.deal_service.exception.DealStatusConflictException;
 import com.internship.deal_service.model.dto.ResponseException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -38,4 +40,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(DealSearchRequestException.class)
+    public ResponseEntity<ResponseException> handleDealSearchRequestException(DealSearchRequestException ex) {
+        log.info(ex.getMessage());
+        ResponseException response = new ResponseException(ex.getMessage(), HttpStatus.BAD_REQUEST.value());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(DealStatusConflictException.class)
+    public ResponseEntity<ResponseException> handleDealStatusConflictException(DealStatusConflictException ex) {
+        log.info(ex.getMessage());
+        ResponseException response = new ResponseException(ex.getMessage(), HttpStatus.CONFLICT.value());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
 }
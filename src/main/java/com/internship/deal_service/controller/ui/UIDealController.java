@@ -1,12 +1,16 @@
 package com.internship.deal_service.controller.ui;
 
 import com.internship.deal_service.model.DealRequest;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateRequest;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateResponse;
+import com.internship.deal_service.model.dto.DealCursorPage;
 import com.internship.deal_service.model.dto.DealDto;
 import com.internship.deal_service.model.dto.DealSearchRequest;
 import com.internship.deal_service.model.dto.DealStatusUpdateRequest;
 import com.internship.deal_service.model.security.TokenAuthentication;
 import com.internship.deal_service.model.security.TokenData;
 import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.service.cache.DealVersion;
 import com.internship.deal_service.util.UserRoleUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,6 +30,7 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -45,14 +51,28 @@ public class UIDealController {
             description = "Возвращает детали сделки по ее уникальному идентификатору. Требует роли SUPERUSER или DEAL_SUPERUSER.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Сделка успешно найдена"),
+            @ApiResponse(responseCode = "304", description = "Сделка не изменилась с версии из If-None-Match"),
             @ApiResponse(responseCode = "401", description = "Неавторизованный доступ"),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен (недостаточно прав)"),
             @ApiResponse(responseCode = "404", description = "Сделка не найдена")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<DealDto> getDealById(@PathVariable UUID id) {
+    public ResponseEntity<DealDto> getDealById(@PathVariable UUID id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch) {
+        // Версия хранится рядом с закэшированной сделкой: 304 отдаётся без обращения к БД и без вычисления версии
+        String cachedVersion = dealService.getDealVersion(id);
+        if (DealVersion.matches(ifNoneMatch, cachedVersion)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedVersion).build();
+        }
         DealDto deal = dealService.getDealById(id);
-        return ResponseEntity.ok(deal); // Возвращаем 200 OK с DTO сделки
+        // Версия, прочитанная до сделки, не новее её: если сделку успели изменить, клиент просто получит её ещё раз.
+        // Вычисляется версия только для сделки, которой не было в кэше
+        String version = cachedVersion != null ? cachedVersion : DealVersion.of(deal);
+        if (DealVersion.matches(ifNoneMatch, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version).build();
+        }
+        return ResponseEntity.ok().eTag(version).body(deal); // Возвращаем 200 OK с DTO сделки
     }
 
     @Operation(summary = "Сохранить или обновить сделку",
@@ -80,7 +100,8 @@ public class UIDealController {
             @ApiResponse(responseCode = "200", description = "Статус сделки успешно изменен"),
             @ApiResponse(responseCode = "401", description = "Неавторизованный доступ"),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен (недостаточно прав)"),
-            @ApiResponse(responseCode = "404", description = "Сделка не найдена")
+            @ApiResponse(responseCode = "404", description = "Сделка не найдена"),
+            @ApiResponse(responseCode = "409", description = "Переход из текущего статуса сделки не разрешён или сделка находится не в ожидаемом статусе")
     })
     @PatchMapping("/change/status")
     @PreAuthorize("hasAnyRole('SUPERUSER', 'DEAL_SUPERUSER')")
@@ -89,8 +110,23 @@ public class UIDealController {
         return ResponseEntity.ok(updatedDeal);
     }
 
+    @Operation(summary = "Массово изменить статус сделок",
+            description = "Переводит в новый статус сделки из списка ID или найденные по фильтру. Требует роли SUPERUSER или DEAL_SUPERUSER.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Статусы сделок изменены"),
+            @ApiResponse(responseCode = "401", description = "Неавторизованный доступ"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен (недостаточно прав)"),
+            @ApiResponse(responseCode = "404", description = "Статус не найден или не переданы ни ID, ни фильтр")
+    })
+    @PatchMapping("/change/status/bulk")
+    @PreAuthorize("hasAnyRole('SUPERUSER', 'DEAL_SUPERUSER')")
+    public ResponseEntity<DealBulkStatusUpdateResponse> changeDealStatuses(@RequestBody DealBulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(dealService.changeDealStatuses(request));
+    }
+
     @Operation(summary = "Поиск сделок",
-            description = "Выполняет поиск сделок с учетом фильтров и пагинации. Доступ зависит от ролей пользователя.")
+            description = "Выполняет поиск сделок с учетом фильтров и пагинации: от новых к старым (по дате создания, затем по ID, " +
+                    "оба по убыванию). Доступ зависит от ролей пользователя.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список сделок успешно получен"),
             @ApiResponse(responseCode = "401", description = "Неавторизованный доступ"),
@@ -109,8 +145,29 @@ public class UIDealController {
         return ResponseEntity.ok(resultPage);
     }
 
+    @Operation(summary = "Поиск сделок по курсору",
+            description = "Выполняет поиск сделок с учетом фильтров, постранично по курсору: от новых к старым, без подсчета общего количества. " +
+                    "Для следующей страницы передайте nextCursor из ответа. Доступ зависит от ролей пользователя.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница сделок успешно получена"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы меньше единицы"),
+            @ApiResponse(responseCode = "401", description = "Неавторизованный доступ"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен (недостаточно прав)")
+    })
+    @PostMapping("/search/cursor")
+    @PreAuthorize("hasAnyRole('SUPERUSER', 'DEAL_SUPERUSER', 'CREDIT_USER', 'OVERDRAFT_USER')")
+    public ResponseEntity<DealCursorPage> searchDealsByCursor(
+            @RequestBody DealSearchRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication) {
+        TokenAuthentication tokenAuthentication = (TokenAuthentication) authentication;
+        return ResponseEntity.ok(UserRoleUtil.searchDealByCursorConditionals(tokenAuthentication, dealService, request, cursor, size));
+    }
+
     @Operation(summary = "Экспорт сделок в Excel",
-            description = "Экспортирует сделки в формате Excel с учетом фильтров и пагинации. Доступ зависит от ролей пользователя.")
+            description = "Экспортирует сделки в формате Excel с учетом фильтров и пагинации, в том же порядке, что и /search: " +
+                    "от новых к старым. Доступ зависит от ролей пользователя.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Файл Excel успешно сгенерирован и отправлен"),
             @ApiResponse(responseCode = "401", description = "Неавторизованный доступ"),
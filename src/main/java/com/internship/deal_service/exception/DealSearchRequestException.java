@@ -0,0 +1,12 @@
+package com.internship.deal_service.exception;
+
+/**
+ * Некорректные параметры запроса поиска сделок, например, размер страницы меньше единицы.
+ */
+public class DealSearchRequestException extends RuntimeException {
+
+    public DealSearchRequestException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.internship.deal_service.exception;
+
+/**
+ * Сделка находится не в том статусе, из которого клиент ожидал переход.
+ */
+public class DealStatusConflictException extends RuntimeException {
+
+    public DealStatusConflictException(String message) {
+        super(message);
+    }
+
+}
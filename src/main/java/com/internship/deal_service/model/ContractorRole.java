@@ -1,11 +1,14 @@
 package com.internship.deal_service.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Справочная сущность для роли контрагента.
@@ -14,6 +17,8 @@ import lombok.Setter;
  * </p>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "contractorRole")
 @Table(name = "contractor_role")
 @Getter
 @Setter
@@ -7,9 +7,14 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MapsId;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 /**
  * Сущность, реализующая связь "многие-ко-многим" между контрагентом в сделке ({@link DealContractor})
@@ -19,7 +24,7 @@ import lombok.Setter;
 @Table(name = "contractor_to_role")
 @Getter
 @Setter
-public class ContractorToRole {
+public class ContractorToRole implements Persistable<ContractorToRoleId> {
 
     /**
      * Составной первичный ключ.
@@ -53,6 +58,16 @@ public class ContractorToRole {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    /**
+     * Признак новой, ещё не сохранённой связи. Составной ключ задаётся вручную, поэтому без него
+     * {@code save()} выполнял бы {@code merge} с лишним {@code SELECT} перед каждой вставкой,
+     * а вставки не попадали бы в JDBC-пакет.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
     /**
      * Конструктор по умолчанию, необходимый для JPA.
      */
@@ -73,4 +88,15 @@ public class ContractorToRole {
         this.id = new ContractorToRoleId(contractor.getId(), role.getId());
     }
 
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
 }
@@ -9,6 +9,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
@@ -27,9 +30,22 @@ import java.util.UUID;
 
 /**
  * Основная сущность, представляющая сделку.
+ * <p>
+ * {@link #FULL_GRAPH} — весь граф сделки для пакетного чтения в {@code DealRepository}.
+ * </p>
  */
 @Entity
 @Table(name = "deal")
+@NamedEntityGraph(name = Deal.FULL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("type"),
+        @NamedAttributeNode("status"),
+        @NamedAttributeNode(value = "dealSums", subgraph = "sums"),
+        @NamedAttributeNode(value = "dealContractors", subgraph = "contractors")
+}, subgraphs = {
+        @NamedSubgraph(name = "sums", attributeNodes = @NamedAttributeNode("currency")),
+        @NamedSubgraph(name = "contractors", attributeNodes = @NamedAttributeNode(value = "roles", subgraph = "roles")),
+        @NamedSubgraph(name = "roles", attributeNodes = @NamedAttributeNode("role"))
+})
 @Getter
 @Setter
 @Builder
@@ -37,6 +53,8 @@ import java.util.UUID;
 @NoArgsConstructor
 public class Deal {
 
+    public static final String FULL_GRAPH = "Deal.full";
+
     /**
      * Уникальный идентификатор сделки (UUID).
      */
@@ -0,0 +1,47 @@
+package com.internship.deal_service.model;
+
+import com.internship.deal_service.exception.DealSearchRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция в выдаче поиска сделок для постраничного обхода по ключу {@code (create_date, id)}.
+ * <p>
+ * Клиенту передаётся в виде непрозрачной строки (Base64 URL-safe); следующая страница начинается
+ * сразу после сделки, на которой закончилась предыдущая.
+ * </p>
+ *
+ * @param createDate дата создания последней сделки страницы.
+ * @param id         ID последней сделки страницы.
+ */
+public record DealSearchCursor(LocalDateTime createDate, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws DealSearchRequestException если строка не была получена из {@link #encode()}.
+     */
+    public static DealSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("No separator in cursor");
+            }
+            return new DealSearchCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new DealSearchRequestException("Некорректный курсор поиска <<" + cursor + ">>.");
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.internship.deal_service.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Результат смены статуса сделки одной командой {@code UPDATE ... RETURNING}.
+ */
+public interface DealStatusTransition {
+
+    UUID getId();
+
+    String getStatusId();
+
+    LocalDateTime getCloseDt();
+
+    LocalDateTime getModifyDate();
+
+}
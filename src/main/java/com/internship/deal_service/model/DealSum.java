@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,8 +30,14 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class DealSum {
 
+    /**
+     * Идентификаторы выделяются из последовательности блоками по {@code allocationSize} (оптимизатор pooled),
+     * поэтому вставки сумм не требуют отдельного обращения к БД и объединяются в JDBC-пакеты.
+     * Шаг последовательности {@code deal_sum_id_seq} в БД должен совпадать с {@code allocationSize}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deal_sum_id_seq")
+    @SequenceGenerator(name = "deal_sum_id_seq", sequenceName = "deal_sum_id_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
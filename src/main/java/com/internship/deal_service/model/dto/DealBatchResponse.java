@@ -0,0 +1,29 @@
+package com.internship.deal_service.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ответ на пакетный запрос сделок.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DealBatchResponse {
+
+    /** Найденные активные сделки в порядке запроса. */
+    @Schema(description = "Найденные активные сделки в порядке запроса.")
+    private List<DealDto> deals;
+
+    /** ID сделок, которые не найдены или неактивны. */
+    @Schema(description = "ID сделок, которые не найдены или неактивны.")
+    private List<UUID> notFound;
+
+}
@@ -0,0 +1,39 @@
+package com.internship.deal_service.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запрос на массовую смену статуса сделок.
+ * Сделки задаются списком ID либо фильтром поиска; если передан список, фильтр игнорируется.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DealBulkStatusUpdateRequest {
+
+    /** ID сделок, статус которых нужно изменить. */
+    @Schema(description = "ID сделок, статус которых нужно изменить. Если передан, filter игнорируется.")
+    private List<UUID> dealIds;
+
+    /** Фильтр, по которому выбираются сделки, если список ID не передан. */
+    @Schema(description = "Фильтр, по которому выбираются сделки, если dealIds не передан.")
+    private DealSearchRequest filter;
+
+    /** ID нового статуса. */
+    @Schema(description = "ID нового статуса.", example = "CLOSED")
+    private String newStatusId;
+
+    /** ID статуса, из которого ожидается переход. Если не задан, достаточно, чтобы переход из текущего статуса был разрешён. */
+    @Schema(description = "ID статуса, из которого ожидается переход. Если не задан, достаточно, чтобы переход из текущего статуса был разрешён.",
+            example = "ACTIVE")
+    private String expectedStatusId;
+
+}
@@ -0,0 +1,37 @@
+package com.internship.deal_service.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Итог массовой смены статуса сделок.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DealBulkStatusUpdateResponse {
+
+    /** Число сделок, переведённых в новый статус. */
+    @Schema(description = "Число сделок, переведённых в новый статус.")
+    private int succeeded;
+
+    /** Число сделок, которые не найдены, неактивны или уже находятся в новом статусе. */
+    @Schema(description = "Число сделок, которые не найдены, неактивны или уже находятся в новом статусе.")
+    private int skipped;
+
+    /** Число активных сделок, текущий статус которых не допускает переход. */
+    @Schema(description = "Число активных сделок, текущий статус которых не допускает переход.")
+    private int conflicted;
+
+    /** ID сделок, текущий статус которых не допускает переход. */
+    @Schema(description = "ID сделок, текущий статус которых не допускает переход.")
+    private List<UUID> conflictedIds;
+
+}
@@ -0,0 +1,28 @@
+package com.internship.deal_service.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница поиска сделок при постраничном обходе по курсору.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DealCursorPage {
+
+    /** Сделки страницы, от новых к старым. */
+    @Schema(description = "Сделки страницы, от новых к старым.")
+    private List<DealDto> deals;
+
+    /** Курсор следующей страницы или {@code null}, если страница последняя. */
+    @Schema(description = "Курсор следующей страницы; отсутствует, если страница последняя.")
+    private String nextCursor;
+
+}
@@ -15,7 +15,7 @@ import java.util.UUID;
  * DTO для сделки.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class DealDto {
@@ -25,4 +25,13 @@ public class DealStatusUpdateRequest {
     @Schema(description = "ID нового статуса.", example = "ACTIVE")
     private String newStatusId;
 
+    /** ID статуса, из которого ожидается переход. Если не задан, достаточно, чтобы переход из текущего статуса был разрешён. */
+    @Schema(description = "ID статуса, из которого ожидается переход. Если не задан, достаточно, чтобы переход из текущего статуса был разрешён.",
+            example = "DRAFT")
+    private String expectedStatusId;
+
+    public DealStatusUpdateRequest(UUID dealId, String newStatusId) {
+        this(dealId, newStatusId, null);
+    }
+
 }
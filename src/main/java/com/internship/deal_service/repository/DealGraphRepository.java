@@ -0,0 +1,26 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.model.Deal;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Загрузка полного графа сделки без декартова произведения коллекций.
+ */
+public interface DealGraphRepository {
+
+    /**
+     * Загружает активную сделку вместе с типом, статусом, суммами (с валютами) и контрагентами (с ролями).
+     * <p>
+     * Каждая коллекция читается отдельным запросом в рамках текущего persistence context, поэтому
+     * объём выборки растёт как сумма размеров коллекций, а не как их произведение.
+     * Должен вызываться внутри транзакции.
+     * </p>
+     *
+     * @param id идентификатор сделки.
+     * @return сделка с инициализированными коллекциями или {@link Optional#empty()}, если она не найдена или неактивна.
+     */
+    Optional<Deal> findGraphByIdAndIsActiveTrue(UUID id);
+
+}
@@ -0,0 +1,64 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.model.Deal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Реализация {@link DealGraphRepository}.
+ * <p>
+ * Вместо одного запроса с {@code JOIN FETCH} всех коллекций (суммы × контрагенты × роли строк на сделку)
+ * выполняются три запроса: сделка с типом и статусом, суммы с валютами, контрагенты с ролями.
+ * Тип присоединяется внешним соединением: {@code deal.type_id} допускает {@code NULL}, и сделка без типа
+ * не должна пропадать из выборки ({@code status_id} объявлен {@code NOT NULL}).
+ * Второй и третий запросы возвращают уже управляемый экземпляр сделки, и Hibernate инициализирует
+ * в нём соответствующую коллекцию.
+ * </p>
+ */
+public class DealGraphRepositoryImpl implements DealGraphRepository {
+
+    private static final String DEAL_QUERY = """
+            SELECT d FROM Deal d
+            LEFT JOIN FETCH d.type
+            JOIN FETCH d.status
+            WHERE d.id = :id AND d.isActive = true""";
+
+    private static final String SUMS_QUERY = """
+            SELECT d FROM Deal d
+            LEFT JOIN FETCH d.dealSums s
+            LEFT JOIN FETCH s.currency
+            WHERE d = :deal""";
+
+    private static final String CONTRACTORS_QUERY = """
+            SELECT d FROM Deal d
+            LEFT JOIN FETCH d.dealContractors c
+            LEFT JOIN FETCH c.roles r
+            LEFT JOIN FETCH r.role
+            WHERE d = :deal""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Deal> findGraphByIdAndIsActiveTrue(UUID id) {
+        List<Deal> deals = entityManager.createQuery(DEAL_QUERY, Deal.class)
+                .setParameter("id", id)
+                .getResultList();
+        if (deals.isEmpty()) {
+            return Optional.empty();
+        }
+        Deal deal = deals.get(0);
+        entityManager.createQuery(SUMS_QUERY, Deal.class)
+                .setParameter("deal", deal)
+                .getResultList();
+        entityManager.createQuery(CONTRACTORS_QUERY, Deal.class)
+                .setParameter("deal", deal)
+                .getResultList();
+        return Optional.of(deal);
+    }
+
+}
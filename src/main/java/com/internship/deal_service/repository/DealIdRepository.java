@@ -0,0 +1,47 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.model.Deal;
+import com.internship.deal_service.model.DealSearchCursor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Выборка только идентификаторов сделок по {@link Specification}, без загрузки самих сделок.
+ */
+public interface DealIdRepository {
+
+    /**
+     * @param spec условия отбора сделок.
+     * @return различные ID сделок, удовлетворяющих условиям.
+     */
+    List<UUID> findIds(Specification<Deal> spec);
+
+    /**
+     * Страница ID сделок в порядке сортировки {@code pageable}, без запроса общего количества.
+     *
+     * @param spec     условия отбора сделок.
+     * @param pageable смещение, размер и сортировка страницы.
+     * @return различные ID сделок страницы в порядке сортировки.
+     */
+    List<UUID> findIds(Specification<Deal> spec, Pageable pageable);
+
+    /**
+     * То же, что {@link #findIds(Specification, Pageable)}, но вместе с ID возвращает дату создания:
+     * по ключу последней выбранной строки строится курсор следующей страницы.
+     *
+     * @param spec     условия отбора сделок.
+     * @param pageable смещение, размер и сортировка страницы.
+     * @return ключи {@code (createDate, id)} различных сделок страницы в порядке сортировки.
+     */
+    List<DealSearchCursor> findKeys(Specification<Deal> spec, Pageable pageable);
+
+    /**
+     * @param spec условия отбора сделок.
+     * @return число различных сделок, удовлетворяющих условиям.
+     */
+    long countIds(Specification<Deal> spec);
+
+}
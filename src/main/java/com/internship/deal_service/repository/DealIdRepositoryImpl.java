@@ -0,0 +1,110 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.model.Deal;
+import com.internship.deal_service.model.DealSearchCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Реализация {@link DealIdRepository}.
+ * <p>
+ * Условия спецификации могут соединять коллекции сделки (контрагентов, суммы), поэтому выборка
+ * выполняется с {@code DISTINCT}. PostgreSQL требует, чтобы при {@code DISTINCT} все колонки
+ * {@code ORDER BY} входили в список выборки, поэтому поля сортировки выбираются вместе с ID.
+ * </p>
+ */
+public class DealIdRepositoryImpl implements DealIdRepository {
+
+    private static final String ID = "id";
+    private static final String CREATE_DATE = "createDate";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UUID> findIds(Specification<Deal> spec) {
+        return findIds(spec, Pageable.unpaged());
+    }
+
+    @Override
+    public List<UUID> findIds(Specification<Deal> spec, Pageable pageable) {
+        return findTuples(spec, pageable).stream()
+                .map(tuple -> tuple.get(ID, UUID.class))
+                .toList();
+    }
+
+    @Override
+    public List<DealSearchCursor> findKeys(Specification<Deal> spec, Pageable pageable) {
+        return findTuples(spec, pageable).stream()
+                .map(tuple -> new DealSearchCursor(tuple.get(CREATE_DATE, LocalDateTime.class), tuple.get(ID, UUID.class)))
+                .toList();
+    }
+
+    /**
+     * ID и поля сортировки сделок страницы; поля выбираются под своими именами.
+     * Дата создания выбирается всегда, даже если по ней не сортируют.
+     */
+    private List<Tuple> findTuples(Specification<Deal> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Deal> root = query.from(Deal.class);
+
+        Path<UUID> id = root.get(ID);
+        List<Selection<?>> selections = new ArrayList<>(List.of(id.alias(ID)));
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            Path<?> property = root.get(order.getProperty());
+            if (!ID.equals(order.getProperty())) {
+                selections.add(property.alias(order.getProperty()));
+            }
+            orders.add(order.isAscending() ? cb.asc(property) : cb.desc(property));
+        }
+        if (pageable.getSort().getOrderFor(CREATE_DATE) == null) {
+            selections.add(root.get(CREATE_DATE).alias(CREATE_DATE));
+        }
+        query.multiselect(selections).distinct(true).orderBy(orders);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public long countIds(Specification<Deal> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Deal> root = query.from(Deal.class);
+
+        query.select(cb.countDistinct(root));
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+}
@@ -1,43 +1,137 @@
 package com.internship.deal_service.repository;
 
 import com.internship.deal_service.model.Deal;
-import org.springframework.data.domain.Page;
+import com.internship.deal_service.model.DealStatusTransition;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Репозиторий для сущности {@link Deal}.
+ * <p>
+ * Одна сделка читается либо без связей ({@link #findReferenceByIdAndIsActiveTrue(UUID)}), либо целиком через
+ * {@link DealGraphRepository#findGraphByIdAndIsActiveTrue(UUID)}: {@link Deal#FULL_GRAPH} выбирает все коллекции
+ * одним запросом и возвращает их декартово произведение, поэтому используется только для пакетного чтения.
+ * </p>
  */
-public interface DealRepository extends JpaRepository<Deal, UUID>, JpaSpecificationExecutor<Deal> {
-
-    @EntityGraph(attributePaths = {
-            "type",
-            "status",
-            "dealSums",
-            "dealSums.currency",
-            "dealContractors",
-            "dealContractors.roles",
-            "dealContractors.roles.role"
-
-    })
-    Optional<Deal> findByIdAndIsActiveTrue(UUID id);
-
-    @EntityGraph(attributePaths = {
-            "type",
-            "status",
-            "dealSums",
-            "dealSums.currency",
-            "dealContractors",
-            "dealContractors.roles",
-            "dealContractors.roles.role"
-
-    })
-    Page<Deal> findAll(Specification<Deal> spec, Pageable pageable);
+public interface DealRepository extends JpaRepository<Deal, UUID>, JpaSpecificationExecutor<Deal>, DealGraphRepository,
+        DealIdRepository {
+
+    /**
+     * План «только сделка»: строка {@code deal} без связей, тип и статус остаются ленивыми.
+     * Для операций, которым нужна лишь ссылка на активную сделку.
+     */
+    Optional<Deal> findReferenceByIdAndIsActiveTrue(UUID id);
+
+    @EntityGraph(Deal.FULL_GRAPH)
+    List<Deal> findAllByIdInAndIsActiveTrue(Collection<UUID> ids);
+
+    boolean existsByIdAndIsActiveTrue(UUID id);
+
+    boolean existsByIdAndStatusIdAndIsActiveTrue(UUID id, String statusId);
+
+    /**
+     * Переводит активную сделку в статус {@code statusId}, если переход из её текущего статуса разрешён
+     * таблицей {@code deal_status_transition}.
+     * <p>
+     * Проверка и запись выполняются одной командой, связанные сущности не загружаются.
+     * При {@code closing = true} проставляется {@code close_dt}. Конкурентный переход ждёт блокировки строки
+     * и перепроверяет условие по уже изменённому статусу: если первый переход увёл сделку в статус, из которого
+     * переход в {@code statusId} не разрешён, второй вернёт пустой результат вместо того, чтобы его затереть.
+     * </p>
+     *
+     * @return новые значения изменённых колонок или {@link Optional#empty()}, если сделка не найдена,
+     * неактивна или переход из её текущего статуса не разрешён.
+     */
+    @Query(value = """
+            UPDATE deal
+            SET status_id = :statusId,
+                modify_date = now(),
+                close_dt = CASE WHEN :closing THEN now() ELSE close_dt END
+            WHERE id = :id AND is_active
+              AND status_id IN (SELECT from_status_id FROM deal_status_transition WHERE to_status_id = :statusId)
+            RETURNING id, status_id AS "statusId", close_dt AS "closeDt", modify_date AS "modifyDate"
+            """, nativeQuery = true)
+    Optional<DealStatusTransition> changeStatus(@Param("id") UUID id,
+                                                @Param("statusId") String statusId,
+                                                @Param("closing") boolean closing);
+
+    /**
+     * Вариант {@link #changeStatus(UUID, String, boolean)}, который дополнительно требует, чтобы текущий статус
+     * сделки был равен {@code expectedStatusId}.
+     *
+     * @return новые значения изменённых колонок или {@link Optional#empty()}, если сделка не найдена,
+     * неактивна, находится в другом статусе или переход из {@code expectedStatusId} не разрешён.
+     */
+    @Query(value = """
+            UPDATE deal
+            SET status_id = :statusId,
+                modify_date = now(),
+                close_dt = CASE WHEN :closing THEN now() ELSE close_dt END
+            WHERE id = :id AND is_active AND status_id = :expectedStatusId
+              AND status_id IN (SELECT from_status_id FROM deal_status_transition WHERE to_status_id = :statusId)
+            RETURNING id, status_id AS "statusId", close_dt AS "closeDt", modify_date AS "modifyDate"
+            """, nativeQuery = true)
+    Optional<DealStatusTransition> transitionStatus(@Param("id") UUID id,
+                                                    @Param("statusId") String statusId,
+                                                    @Param("closing") boolean closing,
+                                                    @Param("expectedStatusId") String expectedStatusId);
+
+    /**
+     * Пакетный вариант {@link #changeStatus(UUID, String, boolean)}: переводит в статус {@code statusId}
+     * все активные сделки из {@code ids}, переход из текущего статуса которых разрешён.
+     *
+     * @return ID изменённых сделок.
+     */
+    @Query(value = """
+            UPDATE deal
+            SET status_id = :statusId,
+                modify_date = now(),
+                close_dt = CASE WHEN :closing THEN now() ELSE close_dt END
+            WHERE id IN (:ids) AND is_active
+              AND status_id IN (SELECT from_status_id FROM deal_status_transition WHERE to_status_id = :statusId)
+            RETURNING id
+            """, nativeQuery = true)
+    List<UUID> changeStatuses(@Param("ids") Collection<UUID> ids,
+                              @Param("statusId") String statusId,
+                              @Param("closing") boolean closing);
+
+    /**
+     * Пакетный вариант {@link #transitionStatus(UUID, String, boolean, String)}: переводит в статус
+     * {@code statusId} все активные сделки из {@code ids}, текущий статус которых равен {@code expectedStatusId}
+     * и переход из него разрешён.
+     *
+     * @return ID изменённых сделок.
+     */
+    @Query(value = """
+            UPDATE deal
+            SET status_id = :statusId,
+                modify_date = now(),
+                close_dt = CASE WHEN :closing THEN now() ELSE close_dt END
+            WHERE id IN (:ids) AND is_active AND status_id = :expectedStatusId
+              AND status_id IN (SELECT from_status_id FROM deal_status_transition WHERE to_status_id = :statusId)
+            RETURNING id
+            """, nativeQuery = true)
+    List<UUID> transitionStatuses(@Param("ids") Collection<UUID> ids,
+                                  @Param("statusId") String statusId,
+                                  @Param("closing") boolean closing,
+                                  @Param("expectedStatusId") String expectedStatusId);
+
+    /**
+     * @return ID активных сделок из {@code ids}, статус которых отличается от {@code statusId}.
+     */
+    @Query("SELECT d.id FROM Deal d WHERE d.id IN :ids AND d.isActive = true AND d.status.id <> :statusId")
+    List<UUID> findActiveIdsNotInStatus(@Param("ids") Collection<UUID> ids, @Param("statusId") String statusId);
+
+    @Query("SELECT d.id FROM Deal d WHERE d.isActive = true ORDER BY COALESCE(d.modifyDate, d.createDate) DESC, d.id")
+    List<UUID> findRecentlyModifiedActiveIds(Pageable pageable);
 
 }
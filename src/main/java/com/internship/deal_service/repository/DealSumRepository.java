@@ -3,6 +3,10 @@ package com.internship.deal_service.repository;
 import com.internship.deal_service.model.Deal;
 import com.internship.deal_service.model.DealSum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,4 +25,17 @@ public interface DealSumRepository extends JpaRepository<DealSum, Long> {
 
     Optional<DealSum> findByDealIdAndIsMainTrueAndIsActiveTrue(UUID dealId);
 
+    /**
+     * Снимает флаг основной со всех сумм сделки, кроме {@code currentSumId}, одной командой {@code UPDATE}.
+     * Несохранённые изменения контекста сбрасываются в БД до выполнения команды; уже загруженные суммы
+     * при этом не обновляются и сохраняют прежний флаг.
+     *
+     * @param currentSumId ID суммы, которая остаётся основной, или {@code null}, если основной суммы нет.
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE DealSum ds SET ds.isMain = false WHERE ds.deal.id = :dealId AND ds.isMain = true " +
+            "AND (:currentSumId IS NULL OR ds.id <> :currentSumId)")
+    void updateAllOthersMainToFalseForDeal(@Param("dealId") UUID dealId, @Param("currentSumId") Long currentSumId);
+
 }
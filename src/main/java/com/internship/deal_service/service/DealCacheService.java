@@ -0,0 +1,99 @@
+package com.internship.deal_service.service;
+
+import com.internship.deal_service.model.dto.DealDto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Сервис записи в кэш сделок {@code deals}.
+ * <p>
+ * Все изменения кэша применяются только после успешного коммита текущей транзакции,
+ * поэтому в кэш никогда не попадает незафиксированное состояние.
+ * </p>
+ */
+public interface DealCacheService {
+
+    /**
+     * Проверяет, есть ли для сделки tombstone — отметка о недавнем промахе в БД.
+     *
+     * @param dealId идентификатор сделки.
+     * @return {@code true}, если сделка недавно не была найдена или была неактивна.
+     */
+    boolean isKnownMissing(UUID dealId);
+
+    /**
+     * Запоминает, что сделка не найдена или неактивна. Запись живёт {@code deal-cache.tombstone-ttl}
+     * и снимается при любой записи сделки с этим ID.
+     *
+     * @param dealId идентификатор сделки.
+     */
+    void markMissing(UUID dealId);
+
+    /**
+     * Обновляет запись сделки после коммита: в режиме {@code write-through} кладёт актуальный DTO,
+     * в режиме {@code evict} — удаляет запись.
+     *
+     * @param dealDto актуальное состояние сделки.
+     */
+    void refreshAfterCommit(DealDto dealDto);
+
+    /**
+     * Изменяет закэшированную сделку после коммита, не читая её из БД: в режиме {@code write-through}
+     * применяет {@code update} к записи, которая лежит в кэше в момент коммита, в режиме {@code evict} —
+     * удаляет запись. Если записи в кэше нет, ничего не делает.
+     *
+     * @param dealId идентификатор сделки.
+     * @param update изменение закэшированного DTO; возвращает новый DTO, исходный не меняет.
+     */
+    void updateAfterCommit(UUID dealId, UnaryOperator<DealDto> update);
+
+    /**
+     * Удаляет запись сделки после коммита.
+     *
+     * @param dealId идентификатор сделки.
+     */
+    void evictAfterCommit(UUID dealId);
+
+    /**
+     * Удаляет записи нескольких сделок после коммита одной пакетной операцией.
+     *
+     * @param dealIds идентификаторы сделок.
+     */
+    void evictAllAfterCommit(Collection<UUID> dealIds);
+
+    /**
+     * Читает сделку из кэша.
+     *
+     * @param dealId идентификатор сделки.
+     * @return закэшированная сделка или {@code null}, если её нет в кэше или кэш недоступен.
+     */
+    DealDto get(UUID dealId);
+
+    /**
+     * Читает из кэша несколько сделок одной пакетной операцией.
+     *
+     * @param dealIds идентификаторы сделок.
+     * @return найденные в кэше сделки; промахи в результат не попадают.
+     */
+    Map<UUID, DealDto> getAll(Collection<UUID> dealIds);
+
+    /**
+     * Сразу записывает в кэш сделки, загруженные из БД при чтении, одной пакетной операцией.
+     *
+     * @param dealDtos загруженные сделки.
+     */
+    void putAll(Collection<DealDto> dealDtos);
+
+    /**
+     * Возвращает версию (ETag) закэшированной сделки, не обращаясь к БД.
+     *
+     * @param dealId идентификатор сделки.
+     * @return версия ({@link com.internship.deal_service.service.cache.DealVersion}), сохранённая вместе с
+     * закэшированным DTO, или {@code null}, если сделки нет в кэше.
+     */
+    String getVersion(UUID dealId);
+
+}
@@ -1,9 +1,15 @@
 package com.internship.deal_service.service;
 
 import com.internship.deal_service.exception.DealException;
+import com.internship.deal_service.exception.DealSearchRequestException;
+import com.internship.deal_service.exception.DealStatusConflictException;
 import com.internship.deal_service.model.Deal;
 import com.internship.deal_service.model.DealRequest;
 import com.internship.deal_service.model.DealSum;
+import com.internship.deal_service.model.dto.DealBatchResponse;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateRequest;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateResponse;
+import com.internship.deal_service.model.dto.DealCursorPage;
 import com.internship.deal_service.model.dto.DealSearchRequest;
 import com.internship.deal_service.model.dto.DealStatusUpdateRequest;
 import com.internship.deal_service.model.dto.DealDto;
@@ -12,6 +18,7 @@ import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface DealService {
@@ -23,6 +30,29 @@ public interface DealService {
      */
     DealDto getDealById(UUID id);
 
+    /**
+     * Читает активную сделку из БД в отдельной транзакции, минуя кэш, для фоновой перезагрузки записи кэша
+     * (refresh-ahead). В отличие от {@link #getDealById(UUID)}, не записывает tombstone для отсутствующей сделки.
+     * @return сделка или {@code null}, если она не найдена или неактивна.
+     */
+    DealDto loadDealForCache(UUID id);
+
+    /**
+     * Возвращает версию (ETag) закэшированной сделки, не обращаясь к БД.
+     * @return версия или {@code null}, если сделки нет в кэше.
+     */
+    String getDealVersion(UUID id);
+
+    /**
+     * Пакетное получение сделок по списку ID.
+     * <p>
+     * Все ключи читаются из кэша одной операцией, промахи загружаются из БД одним запросом
+     * {@code IN (...)} и записываются в кэш одним конвейером.
+     * </p>
+     * @return найденные сделки в порядке запроса и список ID, которые не найдены или неактивны.
+     */
+    DealBatchResponse getDealsByIds(List<UUID> ids);
+
     /**
      * {@inheritDoc}
      * <p>
@@ -42,11 +72,32 @@ public interface DealService {
      * <p>
      * При изменении статуса на "CLOSED", метод также автоматически устанавливает
      * дату закрытия сделки ({@code closeDt}) на текущее время.
+     * Статус меняется, только если переход из текущего статуса сделки разрешён таблицей
+     * {@code deal_status_transition}, а если в запросе передан {@code expectedStatusId} — ещё и пока сделка
+     * находится в нём; сделка, уже находящаяся в новом статусе, считается успешно переведённой.
+     * Ответ строится по закэшированной сделке с применёнными изменениями, из БД сделка читается только
+     * при промахе кэша.
      * </p>
      * @throws DealException если сделка или новый статус не найдены или неактивны.
+     * @throws DealStatusConflictException если переход из текущего статуса не разрешён или сделка находится
+     * не в ожидаемом статусе.
      */
     DealDto changeDealStatus(UUID dealId, DealStatusUpdateRequest request);
 
+    /**
+     * Массовая смена статуса сделок, заданных списком ID или фильтром поиска.
+     * <p>
+     * Сделки обрабатываются порциями по {@code deal-status.bulk.chunk-size}: каждая порция переводится одной
+     * командой {@code UPDATE} с теми же условиями, что и в {@link #changeDealStatus(UUID, DealStatusUpdateRequest)},
+     * и фиксируется отдельной транзакцией, после чего записи изменённых сделок удаляются из кэша одной
+     * пакетной операцией. Ошибка в порции не откатывает уже зафиксированные порции.
+     * </p>
+     * @return число изменённых, пропущенных (не найдены, неактивны или уже в новом статусе)
+     * и конфликтных (находятся в статусе, переход из которого не разрешён, или не в ожидаемом статусе) сделок.
+     * @throws DealException если новый статус не найден или неактивен либо не переданы ни ID, ни фильтр.
+     */
+    DealBulkStatusUpdateResponse changeDealStatuses(DealBulkStatusUpdateRequest request);
+
     /**
      * {@inheritDoc}
      * Поиск сделки по фильтрации.
@@ -54,12 +105,30 @@ public interface DealService {
      * Использует {@link Specification} для построения динамического запроса
      * на основе предоставленных фильтров.
      * </p>
+     * <p>
+     * Сделки упорядочены по {@code createDate} и {@code id} по убыванию, чтобы страницы по смещению не пересекались.
+     * </p>
      */
     Page<DealDto> searchDeals(DealSearchRequest request, Pagination pagination);
 
+    /**
+     * Поиск сделок по тем же фильтрам, что и {@link #searchDeals(DealSearchRequest, Pagination)},
+     * с постраничным обходом по курсору.
+     * <p>
+     * Сделки упорядочены от новых к старым по {@code (create_date, id)}; следующая страница выбирается условием
+     * «после последней сделки предыдущей», а не смещением, поэтому стоимость страницы не зависит от её номера.
+     * Общее количество не считается.
+     * </p>
+     * @param cursor курсор из предыдущей страницы или {@code null} для первой страницы.
+     * @param size   количество сделок на странице; больше {@code deal-search.cursor.max-size} не выдаётся.
+     * @throws DealSearchRequestException если курсор некорректен или {@code size} меньше единицы.
+     */
+    DealCursorPage searchDealsByCursor(DealSearchRequest request, String cursor, int size);
+
     /**
      * {@inheritDoc}
      * Поиск сделки по фильтрации для создания XLSX файла.
+     * Порядок сделок тот же, что в {@link #searchDeals(DealSearchRequest, Pagination)}.
      */
     byte[] exportDealsToExcel(DealSearchRequest searchRequest, Pagination pagination);
 
@@ -0,0 +1,123 @@
+package com.internship.deal_service.service.cache;
+
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.model.mapper.DealMapper;
+import com.internship.deal_service.repository.DealRepository;
+import com.internship.deal_service.service.DealCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прогрев кэша сделок при старте приложения.
+ * <p>
+ * Выбирает {@code deal-cache.warm-up.size} последних изменённых активных сделок
+ * (по {@code modify_date}, а для ни разу не изменённых — по {@code create_date}), загружает их пакетами
+ * по {@code batch-size} запросами с entity graph в {@code concurrency} потоков и кладёт в кэш.
+ * Выполняется как {@link ApplicationRunner}, то есть до того, как приложение сообщит о готовности.
+ * Прогрев ограничен {@code time-budget}: незавершённые пакеты отменяются, и старт продолжается.
+ * Ошибки прогрева только логируются.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DealCacheWarmUp implements ApplicationRunner {
+
+    private final DealRepository dealRepository;
+    private final DealCacheService dealCacheService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${deal-cache.warm-up.enabled:false}")
+    private boolean enabled;
+
+    @Value("${deal-cache.warm-up.size:1000}")
+    private int size;
+
+    @Value("${deal-cache.warm-up.batch-size:100}")
+    private int batchSize;
+
+    @Value("${deal-cache.warm-up.concurrency:4}")
+    private int concurrency;
+
+    @Value("${deal-cache.warm-up.time-budget:20s}")
+    private Duration timeBudget;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || size <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int warmed = warmUp();
+            log.info("Deal cache warm-up finished: {} deals in {} ms", warmed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.warn("Deal cache warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    int warmUp() throws InterruptedException {
+        List<UUID> ids = dealRepository.findRecentlyModifiedActiveIds(PageRequest.of(0, size));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<Callable<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<UUID> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            batches.add(() -> warmUpBatch(batch));
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("deal-cache-warm-up-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency), threadFactory);
+        try {
+            int warmed = 0;
+            for (Future<Integer> future : executor.invokeAll(batches, timeBudget.toMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    warmed += future.get();
+                } catch (CancellationException e) {
+                    log.warn("Deal cache warm-up batch cancelled: time budget of {} exceeded", timeBudget);
+                } catch (ExecutionException e) {
+                    log.warn("Deal cache warm-up batch failed: {}", e.getCause().getMessage());
+                }
+            }
+            return warmed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int warmUpBatch(List<UUID> ids) {
+        List<DealDto> deals = transactionTemplate.execute(status ->
+                dealRepository.findAllByIdInAndIsActiveTrue(ids).stream()
+                        .map(DealMapper::mapToDto)
+                        .toList());
+        if (deals == null || deals.isEmpty()) {
+            return 0;
+        }
+        dealCacheService.putAll(deals);
+        return deals.size();
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.internship.deal_service.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.internship.deal_service.model.dto.DealDto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Версия (ETag) сделки — хэш её содержимого.
+ * <p>
+ * Хэш считается по каноническому JSON {@link DealDto}: поля упорядочены по имени, а элементы упорядочиваются только
+ * в массивах из полей-{@code Set}, поэтому порядок контрагентов на версию не влияет, а порядок в списках
+ * (например, ролей контрагента) — влияет. Одинаковое содержимое на любом узле даёт одинаковую версию,
+ * любое изменение сделки, её сумм или контрагентов — новую.
+ * </p>
+ */
+public final class DealVersion {
+
+    private static final int LENGTH = 16;
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private DealVersion() {
+
+    }
+
+    /**
+     * @return первые {@value #LENGTH} шестнадцатеричных символов SHA-256 от канонического JSON сделки.
+     */
+    public static String of(DealDto dealDto) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(canonical(MAPPER.valueToTree(dealDto), MAPPER.constructType(DealDto.class)));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest).substring(0, LENGTH);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to compute version of deal " + dealDto.getId(), e);
+        }
+    }
+
+    /**
+     * Проверяет заголовок {@code If-None-Match}: список ETag через запятую, возможно слабых ({@code W/"..."}),
+     * или {@code *}.
+     */
+    public static boolean matches(String ifNoneMatch, String version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (candidate.length() >= 2 && candidate.startsWith("\"") && candidate.endsWith("\"")) {
+                candidate = candidate.substring(1, candidate.length() - 1);
+            }
+            if (candidate.equals(version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param type Java-тип, из которого получен {@code node}; по нему определяется, какие массивы пришли из {@code Set}.
+     */
+    private static JsonNode canonical(JsonNode node, JavaType type) {
+        if (node instanceof ObjectNode object) {
+            Map<String, JavaType> propertyTypes = propertyTypes(type);
+            Map<String, JsonNode> fields = new TreeMap<>();
+            object.properties().forEach(field -> fields.put(field.getKey(),
+                    canonical(field.getValue(), propertyTypes.get(field.getKey()))));
+            ObjectNode result = JsonNodeFactory.instance.objectNode();
+            fields.forEach(result::set);
+            return result;
+        }
+        if (node instanceof ArrayNode array) {
+            JavaType elementType = type != null ? type.getContentType() : null;
+            List<JsonNode> elements = new ArrayList<>();
+            array.forEach(element -> elements.add(canonical(element, elementType)));
+            if (type != null && Set.class.isAssignableFrom(type.getRawClass())) {
+                elements.sort(Comparator.comparing(JsonNode::toString));
+            }
+            ArrayNode result = JsonNodeFactory.instance.arrayNode();
+            elements.forEach(result::add);
+            return result;
+        }
+        return node;
+    }
+
+    private static Map<String, JavaType> propertyTypes(JavaType type) {
+        Map<String, JavaType> types = new HashMap<>();
+        if (type != null) {
+            MAPPER.getSerializationConfig().introspect(type).findProperties()
+                    .forEach(property -> types.put(property.getName(), property.getPrimaryType()));
+        }
+        return types;
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.internship.deal_service.service.cache;
+
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Сообщает Hibernate, что сущности из снимка {@link ReferenceDataRegistry} не являются новыми.
+ * <p>
+ * У справочников назначаемые идентификаторы и нет версии, поэтому для отсоединённого объекта в связи
+ * {@code @ManyToOne} Hibernate при flush выполняет {@code SELECT}, чтобы выяснить, сохранён ли он.
+ * Для объектов снимка это заведомо так, и проверка пропускается.
+ * </p>
+ */
+@Component
+public class ReferenceDataInterceptor implements Interceptor, HibernatePropertiesCustomizer {
+
+    // Реестр зависит от репозиториев, а те — от EntityManagerFactory, поэтому он получается лениво.
+    private final ObjectProvider<ReferenceDataRegistry> referenceDataRegistry;
+
+    public ReferenceDataInterceptor(ObjectProvider<ReferenceDataRegistry> referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
+    }
+
+    @Override
+    public Boolean isTransient(Object entity) {
+        ReferenceDataRegistry registry = referenceDataRegistry.getIfAvailable();
+        return registry != null && registry.isSnapshotInstance(entity) ? Boolean.FALSE : null;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, this);
+    }
+
+}
@@ -0,0 +1,299 @@
+package com.internship.deal_service.service.cache;
+
+import com.internship.deal_service.config.redis.RedisCircuitBreaker;
+import com.internship.deal_service.model.ContractorRole;
+import com.internship.deal_service.model.Currency;
+import com.internship.deal_service.model.DealStatus;
+import com.internship.deal_service.model.DealType;
+import com.internship.deal_service.repository.ContractorRoleRepository;
+import com.internship.deal_service.repository.CurrencyRepository;
+import com.internship.deal_service.repository.DealStatusRepository;
+import com.internship.deal_service.repository.DealTypeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Реестр справочников: валюты, типы и статусы сделок, роли контрагентов.
+ * <p>
+ * Держит в памяти неизменяемый снимок активных записей всех четырёх таблиц, поэтому поиск по id
+ * не обращается к БД. Снимок заменяется целиком (copy-on-write) после фиксации транзакций, изменяющих
+ * справочники, и по сигналу с других узлов: номер версии хранится в Redis под ключом {@link #VERSION_KEY}
+ * и рассылается в канал {@code reference-data.invalidation-channel}. Пропущенные сообщения догоняются
+ * периодической сверкой версии раз в {@code reference-data.version-check-interval} мс. При изменении на другом
+ * узле из кэша второго уровня Hibernate также удаляются типы и статусы сделок.
+ * </p>
+ * <p>
+ * Сущности снимка отсоединены от контекста персистентности и используются как ссылки в связях
+ * {@code @ManyToOne}; изменять их нельзя.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ReferenceDataRegistry implements ApplicationRunner, MessageListener {
+
+    public static final String VERSION_KEY = "reference-data:version";
+
+    private static final String SEPARATOR = "|";
+
+    private final DealTypeRepository dealTypeRepository;
+    private final DealStatusRepository dealStatusRepository;
+    private final CurrencyRepository currencyRepository;
+    private final ContractorRoleRepository contractorRoleRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private volatile String seenVersion;
+
+    public ReferenceDataRegistry(DealTypeRepository dealTypeRepository,
+                                 DealStatusRepository dealStatusRepository,
+                                 CurrencyRepository currencyRepository,
+                                 ContractorRoleRepository contractorRoleRepository,
+                                 EntityManagerFactory entityManagerFactory,
+                                 PlatformTransactionManager transactionManager,
+                                 StringRedisTemplate redisTemplate,
+                                 RedisCircuitBreaker circuitBreaker,
+                                 @Value("${reference-data.invalidation-channel:reference-data-invalidation}") String channel) {
+        this.dealTypeRepository = dealTypeRepository;
+        this.dealStatusRepository = dealStatusRepository;
+        this.currencyRepository = currencyRepository;
+        this.contractorRoleRepository = contractorRoleRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Снимок читается в отдельной транзакции: обновление запускается из afterCommit чужой транзакции.
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.channel = channel;
+    }
+
+    public Optional<DealType> findDealType(String id) {
+        return Optional.ofNullable(id).map(current().dealTypes()::get);
+    }
+
+    public Optional<DealStatus> findDealStatus(String id) {
+        return Optional.ofNullable(id).map(current().dealStatuses()::get);
+    }
+
+    public Optional<Currency> findCurrency(String id) {
+        return Optional.ofNullable(id).map(current().currencies()::get);
+    }
+
+    public Optional<ContractorRole> findContractorRole(String id) {
+        return Optional.ofNullable(id).map(current().contractorRoles()::get);
+    }
+
+    /**
+     * @return {@code true}, если объект взят из текущего снимка, то есть заведомо существует в БД.
+     */
+    public boolean isSnapshotInstance(Object entity) {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            return false;
+        }
+        return switch (entity) {
+            case DealType dealType -> current.dealTypes().get(dealType.getId()) == entity;
+            case DealStatus dealStatus -> current.dealStatuses().get(dealStatus.getId()) == entity;
+            case Currency currency -> current.currencies().get(currency.getId()) == entity;
+            case ContractorRole contractorRole -> current.contractorRoles().get(contractorRole.getId()) == entity;
+            default -> false;
+        };
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Перечитывает справочники и атомарно подменяет снимок. Читатели продолжают работать со старым
+     * снимком до момента подмены и никогда не блокируются.
+     */
+    public synchronized void refresh() {
+        Snapshot loaded = transactionTemplate.execute(status -> new Snapshot(
+                activeById(dealTypeRepository.findAll(), DealType::getId, DealType::getIsActive, ReferenceDataRegistry::copy),
+                activeById(dealStatusRepository.findAll(), DealStatus::getId, DealStatus::getIsActive, ReferenceDataRegistry::copy),
+                activeById(currencyRepository.findAll(), Currency::getId, Currency::getIsActive, ReferenceDataRegistry::copy),
+                activeById(contractorRoleRepository.findAll(), ContractorRole::getId, ContractorRole::getIsActive,
+                        ReferenceDataRegistry::copy)));
+        snapshot.set(loaded);
+        log.debug("Reference data snapshot refreshed: {} deal types, {} deal statuses, {} currencies, {} contractor roles",
+                loaded.dealTypes().size(), loaded.dealStatuses().size(), loaded.currencies().size(),
+                loaded.contractorRoles().size());
+    }
+
+    /**
+     * Обновляет снимок после фиксации текущей транзакции и сообщает об изменении остальным узлам.
+     */
+    public void refreshAfterCommit() {
+        Runnable action = () -> {
+            refresh();
+            publishChange();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            seenVersion = readVersion();
+            refresh();
+        } catch (Exception e) {
+            // Снимок будет загружен при первом обращении.
+            log.warn("Failed to load reference data on startup: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + SEPARATOR, 2);
+        if (parts.length != 2) {
+            log.warn("Malformed reference data change message: {}", body);
+            return;
+        }
+        seenVersion = parts[1];
+        if (!parts[0].equals(nodeId)) {
+            refreshAfterRemoteChange();
+        }
+    }
+
+    /**
+     * Сверяет версию справочников в Redis с последней известной и перечитывает снимок при расхождении.
+     */
+    @Scheduled(fixedDelayString = "${reference-data.version-check-interval:60000}")
+    public void checkVersion() {
+        String version = readVersion();
+        if (version != null && !version.equals(seenVersion)) {
+            seenVersion = version;
+            refreshAfterRemoteChange();
+        }
+    }
+
+    /**
+     * Изменения с другого узла не видны локальному кэшу второго уровня Hibernate, поэтому изменяемые
+     * справочники удаляются из него до перечитывания снимка.
+     */
+    private void refreshAfterRemoteChange() {
+        entityManagerFactory.getCache().evict(DealType.class);
+        entityManagerFactory.getCache().evict(DealStatus.class);
+        refresh();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private void publishChange() {
+        if (circuitBreaker.isOpen()) {
+            return;
+        }
+        try {
+            Long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+            seenVersion = String.valueOf(version);
+            redisTemplate.convertAndSend(channel, nodeId + SEPARATOR + version);
+        } catch (Exception e) {
+            // Остальные узлы подхватят изменение при следующей сверке версии.
+            log.warn("Failed to publish reference data change: {}", e.getMessage());
+        }
+    }
+
+    private String readVersion() {
+        if (circuitBreaker.isOpen()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("Failed to read reference data version: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static <T> Map<String, T> activeById(Collection<T> entities, Function<T, String> id,
+                                                 Function<T, Boolean> isActive, UnaryOperator<T> copy) {
+        return entities.stream()
+                .filter(entity -> Boolean.TRUE.equals(isActive.apply(entity)))
+                .collect(Collectors.toUnmodifiableMap(id, copy));
+    }
+
+    private static DealType copy(DealType source) {
+        DealType copy = new DealType();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setIsActive(source.getIsActive());
+        return copy;
+    }
+
+    private static DealStatus copy(DealStatus source) {
+        DealStatus copy = new DealStatus();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setIsActive(source.getIsActive());
+        return copy;
+    }
+
+    private static Currency copy(Currency source) {
+        Currency copy = new Currency();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setIsActive(source.getIsActive());
+        return copy;
+    }
+
+    private static ContractorRole copy(ContractorRole source) {
+        ContractorRole copy = new ContractorRole();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setCategory(source.getCategory());
+        copy.setIsActive(source.getIsActive());
+        return copy;
+    }
+
+    private record Snapshot(Map<String, DealType> dealTypes,
+                            Map<String, DealStatus> dealStatuses,
+                            Map<String, Currency> currencies,
+                            Map<String, ContractorRole> contractorRoles) {
+    }
+
+}
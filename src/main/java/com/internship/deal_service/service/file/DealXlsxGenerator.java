@@ -55,7 +55,10 @@ public final class DealXlsxGenerator {
             DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("d/M/yyyy");
 
             for (Deal deal : deals) {
-                List<DealSum> sums = new ArrayList<>(deal.getDealSums());
+                // Суммы, удалённые при редактировании сделки, остаются в БД неактивными
+                List<DealSum> sums = deal.getDealSums().stream()
+                        .filter(DealSum::getIsActive)
+                        .toList();
                 List<DealContractor> contractors = new ArrayList<>(deal.getDealContractors());
 
                 boolean hasSums = !sums.isEmpty();
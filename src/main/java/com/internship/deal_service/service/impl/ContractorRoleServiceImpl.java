@@ -8,10 +8,10 @@ import com.internship.deal_service.model.ContractorToRoleId;
 import com.internship.deal_service.model.DealContractor;
 import com.internship.deal_service.model.dto.ContractorRoleDto;
 import com.internship.deal_service.model.mapper.ContractorRoleMapper;
-import com.internship.deal_service.repository.ContractorRoleRepository;
 import com.internship.deal_service.repository.ContractorToRoleRepository;
 import com.internship.deal_service.repository.DealContractorRepository;
 import com.internship.deal_service.service.ContractorRoleService;
+import com.internship.deal_service.service.cache.ReferenceDataRegistry;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -30,7 +30,7 @@ import java.util.Optional;
 public class ContractorRoleServiceImpl implements ContractorRoleService {
 
     private final DealContractorRepository dealContractorRepository;
-    private final ContractorRoleRepository contractorRoleRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
     private final ContractorToRoleRepository contractorToRoleRepository;
 
     @Override
@@ -39,7 +39,7 @@ public class ContractorRoleServiceImpl implements ContractorRoleService {
         DealContractor dealContractor = dealContractorRepository.findByIdAndIsActiveTrue(request.getDealContractorId())
                 .orElseThrow(() -> new ContractorRoleException("DealContractor c id <<" + request.getDealContractorId() + ">> не найден или неактивен."));
 
-        ContractorRole contractorRole = contractorRoleRepository.findByIdAndIsActiveTrue(request.getRoleId())
+        ContractorRole contractorRole = referenceDataRegistry.findContractorRole(request.getRoleId())
                 .orElseThrow(() -> new ContractorRoleException("ContractorRole с id <<" + request.getRoleId() + ">> не найден или неактивен."));
 
         Optional<ContractorToRole> existingLink = contractorToRoleRepository.findByContractorIdAndRoleId(
@@ -74,7 +74,7 @@ public class ContractorRoleServiceImpl implements ContractorRoleService {
         DealContractor dealContractor = dealContractorRepository.findByIdAndIsActiveTrue(request.getDealContractorId())
                 .orElseThrow(() -> new ContractorRoleException("DealContractor c id <<" + request.getDealContractorId() + ">> не найден или неактивен."));
 
-        ContractorRole contractorRole = contractorRoleRepository.findByIdAndIsActiveTrue(request.getRoleId())
+        ContractorRole contractorRole = referenceDataRegistry.findContractorRole(request.getRoleId())
                 .orElseThrow(() -> new ContractorRoleException("ContractorRole с id <<" + request.getRoleId() + ">> не найдена ли неактивна."));
 
         ContractorToRole link = contractorToRoleRepository.findByContractorIdAndRoleId(dealContractor.getId(), contractorRole.getId())
@@ -0,0 +1,279 @@
+package com.internship.deal_service.service.impl;
+
+import com.internship.deal_service.config.redis.TwoLevelCache;
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.service.DealCacheService;
+import com.internship.deal_service.service.cache.DealVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Реализация {@link DealCacheService}.
+ * <p>
+ * Режим задаётся свойством {@code deal-cache.write-mode}: {@code write-through} (по умолчанию) кладёт
+ * свежий DTO в кэш, чтобы следующее чтение после редактирования не уходило в БД, {@code evict} — только
+ * удаляет запись. Если запись в кэш не удалась, запись удаляется, чтобы не оставить устаревшее значение.
+ * </p>
+ * <p>
+ * Отсутствующие и неактивные сделки запоминаются в отдельном кэше {@code dealTombstones} с коротким TTL.
+ * Любая запись сделки снимает её tombstone. Попадания в tombstone считаются метрикой {@code cache.tombstone.hits}.
+ * </p>
+ * <p>
+ * Версия сделки ({@link DealVersion}) для условного GET хранится рядом с записью в кэше {@code dealVersions}
+ * и вычисляется один раз при записи, поэтому проверка {@code If-None-Match} только читает короткую строку.
+ * Если кэш сделок не двухуровневый, версия вычисляется по закэшированному DTO.
+ * </p>
+ */
+@Slf4j
+@Service
+public class DealCacheServiceImpl implements DealCacheService {
+
+    public static final String DEALS_CACHE = "deals";
+    public static final String DEAL_TOMBSTONES_CACHE = "dealTombstones";
+    public static final String DEAL_VERSIONS_CACHE = "dealVersions";
+    public static final String WRITE_THROUGH = "write-through";
+    private static final String TOMBSTONE = "1";
+
+    private final CacheManager cacheManager;
+    private final boolean writeThrough;
+    private final Counter tombstoneHits;
+
+    public DealCacheServiceImpl(@Qualifier("dealCacheManager") CacheManager cacheManager,
+                                @Value("${deal-cache.write-mode:write-through}") String writeMode,
+                                MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.writeThrough = WRITE_THROUGH.equalsIgnoreCase(writeMode);
+        this.tombstoneHits = Counter.builder("cache.tombstone.hits")
+                .description("Number of reads answered by a negative (tombstone) cache entry")
+                .tag("cache", DEALS_CACHE)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isKnownMissing(UUID dealId) {
+        try {
+            if (cache(DEAL_TOMBSTONES_CACHE).get(dealId) != null) {
+                tombstoneHits.increment();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to read tombstone for deal {}: {}", dealId, e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public void markMissing(UUID dealId) {
+        try {
+            cache(DEAL_TOMBSTONES_CACHE).put(dealId, TOMBSTONE);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write tombstone for deal {}: {}", dealId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void refreshAfterCommit(DealDto dealDto) {
+        if (dealDto == null || dealDto.getId() == null) {
+            return;
+        }
+        if (!writeThrough) {
+            evictAfterCommit(dealDto.getId());
+            return;
+        }
+        afterCommit(() -> put(dealDto));
+    }
+
+    @Override
+    public void updateAfterCommit(UUID dealId, UnaryOperator<DealDto> update) {
+        if (dealId == null) {
+            return;
+        }
+        if (!writeThrough) {
+            evictAfterCommit(dealId);
+            return;
+        }
+        afterCommit(() -> update(dealId, update));
+    }
+
+    @Override
+    public void evictAfterCommit(UUID dealId) {
+        if (dealId == null) {
+            return;
+        }
+        afterCommit(() -> evict(dealId));
+    }
+
+    @Override
+    public void evictAllAfterCommit(Collection<UUID> dealIds) {
+        if (dealIds == null || dealIds.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(dealIds);
+        afterCommit(() -> evictAll(ids));
+    }
+
+    @Override
+    public DealDto get(UUID dealId) {
+        try {
+            return dealsCache().get(dealId, DealDto.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read deal {} from cache: {}", dealId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public Map<UUID, DealDto> getAll(Collection<UUID> dealIds) {
+        Map<UUID, DealDto> result = new HashMap<>();
+        if (dealIds == null || dealIds.isEmpty()) {
+            return result;
+        }
+        try {
+            Cache cache = dealsCache();
+            if (cache instanceof TwoLevelCache twoLevelCache) {
+                twoLevelCache.getAll(dealIds).forEach((key, value) -> result.put(UUID.fromString(key), (DealDto) value));
+            } else {
+                dealIds.forEach(id -> {
+                    DealDto cached = cache.get(id, DealDto.class);
+                    if (cached != null) {
+                        result.put(id, cached);
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            // Недоступный кэш не должен ломать чтение: все сделки будут загружены из БД.
+            log.warn("Failed to read {} deals from cache: {}", dealIds.size(), e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Collection<DealDto> dealDtos) {
+        if (dealDtos == null || dealDtos.isEmpty()) {
+            return;
+        }
+        Map<UUID, DealDto> entries = new LinkedHashMap<>();
+        dealDtos.forEach(dealDto -> entries.put(dealDto.getId(), dealDto));
+        try {
+            putAll(dealsCache(), entries);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} deals to cache: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public String getVersion(UUID dealId) {
+        try {
+            Cache cache = dealsCache();
+            if (cache instanceof TwoLevelCache twoLevelCache && twoLevelCache.supportsVersions()) {
+                return twoLevelCache.getVersion(dealId);
+            }
+            DealDto cached = cache.get(dealId, DealDto.class);
+            return cached != null ? DealVersion.of(cached) : null;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read version of deal {} from cache: {}", dealId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void putAll(Cache cache, Map<UUID, ?> entries) {
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.putAll(entries);
+        } else {
+            entries.forEach(cache::put);
+        }
+    }
+
+    private void put(DealDto dealDto) {
+        try {
+            dealsCache().put(dealDto.getId(), dealDto);
+            evictTombstone(dealDto.getId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to write deal {} to cache, evicting instead: {}", dealDto.getId(), e.getMessage());
+            evict(dealDto.getId());
+        }
+    }
+
+    private void update(UUID dealId, UnaryOperator<DealDto> update) {
+        try {
+            DealDto cached = dealsCache().get(dealId, DealDto.class);
+            if (cached != null) {
+                dealsCache().put(dealId, update.apply(cached));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update deal {} in cache, evicting instead: {}", dealId, e.getMessage());
+            evict(dealId);
+        }
+    }
+
+    private void evict(UUID dealId) {
+        try {
+            dealsCache().evict(dealId);
+            evictTombstone(dealId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict deal {} from cache: {}", dealId, e.getMessage());
+        }
+    }
+
+    private void evictTombstone(UUID dealId) {
+        cache(DEAL_TOMBSTONES_CACHE).evict(dealId);
+    }
+
+    private void evictAll(List<UUID> dealIds) {
+        try {
+            evictAll(dealsCache(), dealIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict {} deals from cache: {}", dealIds.size(), e.getMessage());
+        }
+    }
+
+    private static void evictAll(Cache cache, List<UUID> dealIds) {
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.evictAll(dealIds);
+        } else {
+            dealIds.forEach(cache::evict);
+        }
+    }
+
+    private Cache dealsCache() {
+        return cache(DEALS_CACHE);
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache <<" + name + ">> is not configured.");
+        }
+        return cache;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -37,7 +37,7 @@ public class DealContractorServiceImpl implements DealContractorService {
     @Override
     @Transactional
     public DealContractorDto saveDealContractor(DealContractorRequest request) {
-        Deal deal = dealRepository.findByIdAndIsActiveTrue(request.getDealId())
+        Deal deal = dealRepository.findReferenceByIdAndIsActiveTrue(request.getDealId())
                 .orElseThrow(() -> new DealContractorException("Deal с id <<" + request.getDealId() + ">> не найдена или неактивна."));
 
 
@@ -92,7 +92,7 @@ public class DealContractorServiceImpl implements DealContractorService {
     @Override
     @Transactional
     public DealContractorDto saveDealContractorWithUserId(DealContractorRequest request, String userId) {
-        Deal deal = dealRepository.findByIdAndIsActiveTrue(request.getDealId())
+        Deal deal = dealRepository.findReferenceByIdAndIsActiveTrue(request.getDealId())
                 .orElseThrow(() -> new DealContractorException("Deal с id <<" + request.getDealId() + ">> не найдена или неактивна."));
 
 
@@ -1,10 +1,14 @@
 package com.internship.deal_service.service.impl;
 
 import com.internship.deal_service.exception.DealException;
+import com.internship.deal_service.exception.DealSearchRequestException;
+import com.internship.deal_service.exception.DealStatusConflictException;
 import com.internship.deal_service.model.DealRequest;
 import com.internship.deal_service.model.Deal;
 import com.internship.deal_service.model.DealType;
 import com.internship.deal_service.model.DealStatus;
+import com.internship.deal_service.model.DealSearchCursor;
+import com.internship.deal_service.model.DealStatusTransition;
 import com.internship.deal_service.model.dto.DealSumRequest;
 import com.internship.deal_service.model.Currency;
 import com.internship.deal_service.model.DealSum;
@@ -12,39 +16,60 @@ import com.internship.deal_service.model.dto.DealStatusUpdateRequest;
 import com.internship.deal_service.model.dto.DealSearchRequest;
 import com.internship.deal_service.model.DealContractor;
 import com.internship.deal_service.model.ContractorToRole;
+import com.internship.deal_service.model.dto.DealBatchResponse;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateRequest;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateResponse;
+import com.internship.deal_service.model.dto.DealCursorPage;
 import com.internship.deal_service.model.dto.DealDto;
 import com.internship.deal_service.model.mapper.DealMapper;
+import com.internship.deal_service.model.mapper.DealStatusMapper;
 import com.internship.deal_service.model.mapper.DealSumMapper;
 import com.internship.deal_service.repository.DealRepository;
-import com.internship.deal_service.repository.DealTypeRepository;
-import com.internship.deal_service.repository.DealStatusRepository;
 import com.internship.deal_service.repository.DealSumRepository;
-import com.internship.deal_service.repository.CurrencyRepository;
 
+import com.internship.deal_service.service.DealCacheService;
 import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.service.cache.ReferenceDataRegistry;
 import com.internship.deal_service.service.file.DealXlsxGenerator;
 import com.internship.deal_service.model.Pagination;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * Реализация основного сервиса {@link DealService} для управления сделками.
@@ -58,41 +83,94 @@ import java.util.UUID;
 public class DealServiceImpl implements DealService {
 
     private final DealRepository dealRepository;
-    private final DealTypeRepository dealTypeRepository;
-    private final DealStatusRepository dealStatusRepository;
     private final DealSumRepository dealSumRepository;
-    private final CurrencyRepository currencyRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final DealCacheService dealCacheService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${deal-status.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${deal-search.cursor.max-size:100}")
+    private int cursorMaxSize;
 
     private static final String DEALS_PREFIX = "deals";
+    private static final String CLOSED_STATUS = "CLOSED";
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "createDate", "id");
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = DEALS_PREFIX, key = "#id", cacheManager = "dealCacheManager")
+    @Cacheable(value = DEALS_PREFIX, key = "#id", cacheManager = "dealCacheManager", sync = true)
     public DealDto getDealById(UUID id) {
-        Deal deal = dealRepository.findByIdAndIsActiveTrue(id)
-                .orElseThrow(() -> new EntityNotFoundException("Deal с id " + id + " не найдена или неактивна"));
+        if (dealCacheService.isKnownMissing(id)) {
+            throw dealNotFound(id);
+        }
+        Deal deal = dealRepository.findGraphByIdAndIsActiveTrue(id)
+                .orElseThrow(() -> {
+                    dealCacheService.markMissing(id);
+                    return dealNotFound(id);
+                });
         return DealMapper.mapToDto(deal);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public DealDto loadDealForCache(UUID id) {
+        return dealRepository.findGraphByIdAndIsActiveTrue(id)
+                .map(DealMapper::mapToDto)
+                .orElse(null);
+    }
+
+    @Override
+    public String getDealVersion(UUID id) {
+        return dealCacheService.getVersion(id);
+    }
+
+    private static EntityNotFoundException dealNotFound(UUID id) {
+        return new EntityNotFoundException("Deal с id " + id + " не найдена или неактивна");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DealBatchResponse getDealsByIds(List<UUID> ids) {
+        List<UUID> requestedIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<UUID, DealDto> found = new HashMap<>(dealCacheService.getAll(requestedIds));
+
+        List<UUID> misses = requestedIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            List<DealDto> loaded = dealRepository.findAllByIdInAndIsActiveTrue(misses).stream()
+                    .map(DealMapper::mapToDto)
+                    .toList();
+            loaded.forEach(dealDto -> found.put(dealDto.getId(), dealDto));
+            dealCacheService.putAll(loaded);
+        }
+
+        List<DealDto> deals = new ArrayList<>();
+        List<UUID> notFound = new ArrayList<>();
+        requestedIds.forEach(id -> {
+            DealDto dealDto = found.get(id);
+            if (dealDto != null) {
+                deals.add(dealDto);
+            } else {
+                notFound.add(id);
+            }
+        });
+        return new DealBatchResponse(deals, notFound);
+    }
+
     @Override
     @Transactional
-    @CacheEvict(
-            value = DEALS_PREFIX,
-            key = "#request.id",
-            condition = "#request.id != null",
-            cacheManager = "dealCacheManager"
-    )
     public DealDto saveDeal(DealRequest request) {
-        DealType dealType = dealTypeRepository.findByIdAndIsActiveTrue(request.getType().getId())
+        DealType dealType = referenceDataRegistry.findDealType(request.getType().getId())
                 .orElseThrow(() -> new EntityNotFoundException("DealType с id " + request.getType().getId() + " не был найден или неактивен."));
 
-        DealStatus dealStatusDraft = dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")
+        DealStatus dealStatusDraft = referenceDataRegistry.findDealStatus("DRAFT")
                 .orElseThrow(() -> new EntityNotFoundException("DealStatus \"DRAFT\" не был найден или неактивен."));
 
         Deal deal;
         // Если передаётся id из DealRequest, то обновляем существующего
         if (request.getId() != null) {
-            deal = dealRepository.findByIdAndIsActiveTrue(request.getId())
+            deal = dealRepository.findGraphByIdAndIsActiveTrue(request.getId())
                     .orElseThrow(() -> new EntityNotFoundException("Deal с id " + request.getId() + " не найдена или неактивна для обновления."));
             deal.setDescription(request.getDescription());
             deal.setAgreementNumber(request.getAgreementNumber());
@@ -105,32 +183,13 @@ public class DealServiceImpl implements DealService {
 
             if (request.getSum() != null && !deal.getDealSums().isEmpty()) {
 
-                deal.getDealSums().clear();
-
-                Set<DealSumRequest> sumsRequest = new HashSet<>(request.getSum());
-                sumsRequest.forEach(sumRequest -> {
-                    Currency currency = currencyRepository.findByIdAndIsActiveTrue(sumRequest.getCurrency())
-                            .orElseThrow(() -> new EntityNotFoundException("Currency с id " + sumRequest.getCurrency() + " не найдена или неактивна."));
-
-                    DealSum sum = DealSum.builder()
-                            .deal(deal)
-                            .sum(sumRequest.getValue())
-                            .currency(currency)
-                            .isMain(sumRequest.getIsMain())
-                            .build();
-
-                    DealSum savedDealSum = dealSumRepository.save(sum);
-                    deal.getDealSums().add(savedDealSum);
-                    if (savedDealSum.getIsMain()) {
-                        deal.getDealSums().forEach(dealSum ->  {
-                            if (!dealSum.getId().equals(savedDealSum.getId())) {
-                                dealSum.setIsMain(Boolean.FALSE);
-                            }
-                        });
-                    }
-                });
+                DealSum mainSum = updateDealSums(deal, request.getSum());
 
-                return DealMapper.mapToDto(deal);
+                // Флаг isMain у загруженных сумм устарел после массового UPDATE, основная сумма известна явно
+                DealDto updatedDealDto = DealMapper.mapToDto(deal);
+                updatedDealDto.setSum(DealSumMapper.toDto(mainSum));
+                dealCacheService.refreshAfterCommit(updatedDealDto);
+                return updatedDealDto;
             }
         } else {
             // иначе создаём нового
@@ -146,7 +205,7 @@ public class DealServiceImpl implements DealService {
 
             List<DealSumRequest> sumsRequest = request.getSum();
             sumsRequest.forEach(sumRequest -> {
-                Currency currency = currencyRepository.findByIdAndIsActiveTrue(sumRequest.getCurrency())
+                Currency currency = referenceDataRegistry.findCurrency(sumRequest.getCurrency())
                         .orElseThrow(() -> new EntityNotFoundException("Currency с id " + sumRequest.getCurrency() + " не найдена или неактивна."));
 
                 DealSum sum = DealSum.builder()
@@ -170,28 +229,23 @@ public class DealServiceImpl implements DealService {
             });
         }
 
+        dealCacheService.refreshAfterCommit(savedDealDto);
         return savedDealDto;
     }
 
     @Override
     @Transactional
-    @CacheEvict(
-            value = DEALS_PREFIX,
-            key = "#request.id",
-            condition = "#request.id != null",
-            cacheManager = "dealCacheManager"
-    )
     public DealDto saveDealWithUserId(DealRequest request, String userId) {
-        DealType dealType = dealTypeRepository.findByIdAndIsActiveTrue(request.getType().getId())
+        DealType dealType = referenceDataRegistry.findDealType(request.getType().getId())
                 .orElseThrow(() -> new EntityNotFoundException("DealType с id " + request.getType().getId() + " не был найден или неактивен."));
 
-        DealStatus dealStatusDraft = dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")
+        DealStatus dealStatusDraft = referenceDataRegistry.findDealStatus("DRAFT")
                 .orElseThrow(() -> new EntityNotFoundException("DealStatus \"DRAFT\" не был найден или неактивен."));
 
         Deal deal;
         // Если передаётся id из DealRequest, то обновляем существующего
         if (request.getId() != null) {
-            deal = dealRepository.findByIdAndIsActiveTrue(request.getId())
+            deal = dealRepository.findGraphByIdAndIsActiveTrue(request.getId())
                     .orElseThrow(() -> new EntityNotFoundException("Deal с id " + request.getId() + " не найдена или неактивна для обновления."));
             deal.setDescription(request.getDescription());
             deal.setAgreementNumber(request.getAgreementNumber());
@@ -205,32 +259,13 @@ public class DealServiceImpl implements DealService {
 
             if (request.getSum() != null && !deal.getDealSums().isEmpty()) {
 
-                deal.getDealSums().clear();
-
-                Set<DealSumRequest> sumsRequest = new HashSet<>(request.getSum());
-                sumsRequest.forEach(sumRequest -> {
-                    Currency currency = currencyRepository.findByIdAndIsActiveTrue(sumRequest.getCurrency())
-                            .orElseThrow(() -> new EntityNotFoundException("Currency с id " + sumRequest.getCurrency() + " не найдена или неактивна."));
-
-                    DealSum sum = DealSum.builder()
-                            .deal(deal)
-                            .sum(sumRequest.getValue())
-                            .currency(currency)
-                            .isMain(sumRequest.getIsMain())
-                            .build();
-
-                    DealSum savedDealSum = dealSumRepository.save(sum);
-                    deal.getDealSums().add(savedDealSum);
-                    if (savedDealSum.getIsMain()) {
-                        deal.getDealSums().forEach(dealSum ->  {
-                            if (!dealSum.getId().equals(savedDealSum.getId())) {
-                                dealSum.setIsMain(Boolean.FALSE);
-                            }
-                        });
-                    }
-                });
+                DealSum mainSum = updateDealSums(deal, request.getSum());
 
-                return DealMapper.mapToDto(deal);
+                // Флаг isMain у загруженных сумм устарел после массового UPDATE, основная сумма известна явно
+                DealDto updatedDealDto = DealMapper.mapToDto(deal);
+                updatedDealDto.setSum(DealSumMapper.toDto(mainSum));
+                dealCacheService.refreshAfterCommit(updatedDealDto);
+                return updatedDealDto;
             }
         } else {
             // иначе создаём нового
@@ -247,7 +282,7 @@ public class DealServiceImpl implements DealService {
 
             List<DealSumRequest> sumsRequest = request.getSum();
             sumsRequest.forEach(sumRequest -> {
-                Currency currency = currencyRepository.findByIdAndIsActiveTrue(sumRequest.getCurrency())
+                Currency currency = referenceDataRegistry.findCurrency(sumRequest.getCurrency())
                         .orElseThrow(() -> new EntityNotFoundException("Currency с id " + sumRequest.getCurrency() + " не найдена или неактивна."));
 
                 DealSum sum = DealSum.builder()
@@ -271,62 +306,269 @@ public class DealServiceImpl implements DealService {
             });
         }
 
+        dealCacheService.refreshAfterCommit(savedDealDto);
         return savedDealDto;
     }
 
+    /**
+     * Приводит суммы существующей сделки к переданным в запросе, изменяя только то, что действительно поменялось.
+     * <p>
+     * Каждая сумма запроса сопоставляется с активной суммой той же валюты и величины: совпавшие остаются как есть,
+     * для несовпавших вставляются новые суммы, а оставшиеся без пары деактивируются. Основной становится первая
+     * сумма запроса с {@code isMain = true}: флаг ставится только ей, а с остальных сумм сделки снимается одной
+     * командой {@code UPDATE}, которая не обновляет загруженные суммы, поэтому их флаг {@code isMain} устаревает.
+     * </p>
+     *
+     * @return основная сумма сделки или {@code null}, если в запросе её нет.
+     */
+    private DealSum updateDealSums(Deal deal, List<DealSumRequest> sumsRequest) {
+        // Основные суммы первыми, чтобы совпадение по валюте и величине по возможности сохраняло основную
+        Map<String, Deque<DealSum>> activeSums = new HashMap<>();
+        deal.getDealSums().stream()
+                .filter(DealSum::getIsActive)
+                .sorted(Comparator.comparing((DealSum sum) -> Boolean.TRUE.equals(sum.getIsMain())).reversed())
+                .forEach(sum -> activeSums.computeIfAbsent(dealSumKey(sum.getCurrency().getId(), sum.getSum()),
+                        key -> new ArrayDeque<>()).add(sum));
+
+        DealSum mainSum = null;
+        for (DealSumRequest sumRequest : sumsRequest) {
+            Currency currency = referenceDataRegistry.findCurrency(sumRequest.getCurrency())
+                    .orElseThrow(() -> new EntityNotFoundException("Currency с id " + sumRequest.getCurrency() + " не найдена или неактивна."));
+
+            Deque<DealSum> candidates = activeSums.get(dealSumKey(currency.getId(), sumRequest.getValue()));
+            DealSum sum = candidates != null ? candidates.poll() : null;
+            if (sum == null) {
+                sum = dealSumRepository.save(DealSum.builder()
+                        .deal(deal)
+                        .sum(sumRequest.getValue())
+                        .currency(currency)
+                        .build());
+                deal.getDealSums().add(sum);
+            }
+            if (mainSum == null && Boolean.TRUE.equals(sumRequest.getIsMain())) {
+                mainSum = sum;
+            }
+        }
+
+        activeSums.values().forEach(unmatched -> unmatched.forEach(sum -> sum.setIsActive(Boolean.FALSE)));
+        if (mainSum != null) {
+            mainSum.setIsMain(Boolean.TRUE);
+        }
+        dealSumRepository.updateAllOthersMainToFalseForDeal(deal.getId(), mainSum != null ? mainSum.getId() : null);
+        return mainSum;
+    }
+
+    private static String dealSumKey(String currencyId, BigDecimal value) {
+        return currencyId + ":" + (value != null ? value.stripTrailingZeros().toPlainString() : null);
+    }
+
     @Override
     @Transactional
-    @CacheEvict(
-            value = DEALS_PREFIX,
-            key = "#dealId",
-            condition = "#dealId != null",
-            cacheManager = "dealCacheManager"
-    )
     public DealDto changeDealStatus(UUID dealId, DealStatusUpdateRequest request) {
-        Deal deal = dealRepository.findByIdAndIsActiveTrue(dealId)
-                .orElseThrow(() -> new DealException("Deal с id <<" + dealId + ">> не найдена или неактивна."));
+        DealStatus newStatus = referenceDataRegistry.findDealStatus(request.getNewStatusId())
+                .orElseThrow(() -> new DealException("Новый DealStatus с id <<" + request.getNewStatusId() + ">> не найден или неактивен."));
+
+        String expectedStatusId = request.getExpectedStatusId();
+        boolean closing = CLOSED_STATUS.equals(newStatus.getId());
+        Optional<DealStatusTransition> transition = expectedStatusId == null
+                ? dealRepository.changeStatus(dealId, newStatus.getId(), closing)
+                : dealRepository.transitionStatus(dealId, newStatus.getId(), closing, expectedStatusId);
+        if (transition.isEmpty()) {
+            // Повтор уже выполненного перехода не считается конфликтом
+            if (!dealRepository.existsByIdAndStatusIdAndIsActiveTrue(dealId, newStatus.getId())) {
+                throw statusTransitionFailed(dealId, newStatus.getId());
+            }
+            DealDto cached = dealCacheService.get(dealId);
+            return cached != null && cached.getStatus() != null && newStatus.getId().equals(cached.getStatus().getId())
+                    ? cached
+                    : loadAndRefresh(dealId);
+        }
 
-        DealStatus newStatus = dealStatusRepository.findByIdAndIsActiveTrue(request.getNewStatusId())
+        // Команда UPDATE вернула всё, что изменилось, поэтому закэшированная сделка обновляется на месте,
+        // а граф читается из БД только при промахе кэша
+        DealStatusTransition changed = transition.get();
+        DealDto cached = dealCacheService.get(dealId);
+        if (cached == null) {
+            return loadAndRefresh(dealId);
+        }
+        dealCacheService.updateAfterCommit(dealId, dealDto -> applyTransition(dealDto, newStatus, changed));
+        return applyTransition(cached, newStatus, changed);
+    }
+
+    private static DealDto applyTransition(DealDto dealDto, DealStatus newStatus, DealStatusTransition transition) {
+        return dealDto.toBuilder()
+                .status(DealStatusMapper.toDto(newStatus))
+                .closeDt(transition.getCloseDt())
+                .build();
+    }
+
+    private DealDto loadAndRefresh(UUID dealId) {
+        DealDto dealDto = DealMapper.mapToDto(dealRepository.findGraphByIdAndIsActiveTrue(dealId)
+                .orElseThrow(() -> dealNotActive(dealId)));
+        dealCacheService.refreshAfterCommit(dealDto);
+        return dealDto;
+    }
+
+    @Override
+    public DealBulkStatusUpdateResponse changeDealStatuses(DealBulkStatusUpdateRequest request) {
+        DealStatus newStatus = referenceDataRegistry.findDealStatus(request.getNewStatusId())
                 .orElseThrow(() -> new DealException("Новый DealStatus с id <<" + request.getNewStatusId() + ">> не найден или неактивен."));
 
-        deal.setStatus(newStatus);
-        deal.setModifyDate(LocalDateTime.now());
-        if (newStatus.getId().equals("CLOSED")) {
-            deal.setCloseDt(LocalDateTime.now());
+        List<UUID> dealIds = bulkTargetIds(request);
+        boolean closing = CLOSED_STATUS.equals(newStatus.getId());
+
+        // Каждая порция фиксируется своей транзакцией: блокировки строк не копятся до конца всей операции
+        int chunkSize = Math.max(1, bulkChunkSize);
+        int succeeded = 0;
+        List<UUID> conflicted = new ArrayList<>();
+        for (int from = 0; from < dealIds.size(); from += chunkSize) {
+            List<UUID> chunk = dealIds.subList(from, Math.min(from + chunkSize, dealIds.size()));
+            Integer updated = transactionTemplate.execute(status ->
+                    transitionChunk(chunk, newStatus.getId(), closing, request.getExpectedStatusId(), conflicted));
+            succeeded += updated != null ? updated : 0;
+        }
+
+        return DealBulkStatusUpdateResponse.builder()
+                .succeeded(succeeded)
+                .skipped(dealIds.size() - succeeded - conflicted.size())
+                .conflicted(conflicted.size())
+                .conflictedIds(conflicted)
+                .build();
+    }
+
+    private List<UUID> bulkTargetIds(DealBulkStatusUpdateRequest request) {
+        if (request.getDealIds() != null) {
+            return request.getDealIds().stream().filter(Objects::nonNull).distinct().toList();
+        }
+        if (request.getFilter() != null) {
+            return dealRepository.findIds(searchFilters(request.getFilter()));
+        }
+        throw new DealException("Для массовой смены статуса нужно передать dealIds или filter.");
+    }
+
+    /**
+     * Переводит порцию сделок одной командой {@code UPDATE} и выясняет, почему остальные не изменились:
+     * активные сделки в другом статусе добавляются в {@code conflicted}, прочие считаются пропущенными.
+     * Записи изменённых сделок удаляются из кэша одной пакетной операцией после коммита порции.
+     *
+     * @return число изменённых сделок.
+     */
+    private int transitionChunk(List<UUID> chunk, String newStatusId, boolean closing, String expectedStatusId,
+                                List<UUID> conflicted) {
+        List<UUID> updated = expectedStatusId == null
+                ? dealRepository.changeStatuses(chunk, newStatusId, closing)
+                : dealRepository.transitionStatuses(chunk, newStatusId, closing, expectedStatusId);
+        if (updated.size() < chunk.size()) {
+            Set<UUID> updatedIds = new HashSet<>(updated);
+            List<UUID> notUpdated = chunk.stream().filter(id -> !updatedIds.contains(id)).toList();
+            conflicted.addAll(dealRepository.findActiveIdsNotInStatus(notUpdated, newStatusId));
+        }
+        dealCacheService.evictAllAfterCommit(updated);
+        return updated.size();
+    }
+
+    private RuntimeException statusTransitionFailed(UUID dealId, String newStatusId) {
+        if (!dealRepository.existsByIdAndIsActiveTrue(dealId)) {
+            return dealNotActive(dealId);
         }
+        return new DealStatusConflictException("Deal с id <<" + dealId + ">> находится в статусе, из которого переход в <<"
+                + newStatusId + ">> недопустим.");
+    }
 
-        Deal updatedDeal = dealRepository.save(deal);
-        return DealMapper.mapToDto(updatedDeal);
+    private static DealException dealNotActive(UUID dealId) {
+        return new DealException("Deal с id <<" + dealId + ">> не найдена или неактивна.");
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<DealDto> searchDeals(DealSearchRequest request, Pagination pagination) {
-        Page<Deal> dealPage = dealRepository.findAll(searchFilters(request), PageRequest.of(pagination.getPage(), pagination.getSize()));
-        return dealPage.map(DealMapper::mapToDto);
+        Specification<Deal> spec = searchFilters(request);
+        Pageable pageable = PageRequest.of(pagination.getPage(), pagination.getSize(), KEYSET_SORT);
+
+        List<DealDto> deals = loadInOrder(dealRepository.findIds(spec, pageable)).stream()
+                .map(DealMapper::mapToDto)
+                .toList();
+        return PageableExecutionUtils.getPage(deals, pageable, () -> dealRepository.countIds(spec));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DealCursorPage searchDealsByCursor(DealSearchRequest request, String cursor, int size) {
+        if (size < 1) {
+            throw new DealSearchRequestException("Размер страницы должен быть положительным, получено <<" + size + ">>.");
+        }
+        int pageSize = Math.min(size, cursorMaxSize);
+        Specification<Deal> spec = searchFilters(request);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(after(DealSearchCursor.decode(cursor)));
+        }
+
+        // Лишняя строка показывает, есть ли следующая страница, без запроса COUNT
+        List<DealSearchCursor> keys = dealRepository.findKeys(spec, PageRequest.of(0, pageSize + 1, KEYSET_SORT));
+        boolean hasNext = keys.size() > pageSize;
+        List<DealSearchCursor> pageKeys = hasNext ? keys.subList(0, pageSize) : keys;
+
+        List<Deal> deals = loadInOrder(pageKeys.stream().map(DealSearchCursor::id).toList());
+
+        // Курсор берётся из первой фазы: сделка, деактивированная до загрузки графов, не сдвигает его назад
+        String nextCursor = hasNext ? pageKeys.getLast().encode() : null;
+        return new DealCursorPage(deals.stream().map(DealMapper::mapToDto).toList(), nextCursor);
+    }
+
+    /**
+     * Вторая фаза поиска: полные графы сделок страницы одним запросом по уже выбранным ID.
+     * <p>
+     * {@code IN} по ID не сохраняет порядок, поэтому сделки раскладываются в порядке {@code ids}. Сделки,
+     * деактивированные между фазами, пропускаются.
+     * </p>
+     */
+    private List<Deal> loadInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Deal> loaded = new HashMap<>();
+        dealRepository.findAllByIdInAndIsActiveTrue(ids).forEach(deal -> loaded.put(deal.getId(), deal));
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Сделки, идущие в порядке {@link #KEYSET_SORT} после курсора. Условие {@code create_date <= :createDate}
+     * дублирует первую часть дизъюнкции, чтобы PostgreSQL начинал просмотр индекса сразу с позиции курсора.
+     */
+    private static Specification<Deal> after(DealSearchCursor cursor) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> createDate = root.get("createDate");
+            Path<UUID> id = root.get("id");
+            return cb.and(
+                    cb.lessThanOrEqualTo(createDate, cursor.createDate()),
+                    cb.or(
+                            cb.lessThan(createDate, cursor.createDate()),
+                            cb.lessThan(id, cursor.id())
+                    ));
+        };
     }
 
     @Override
     @Transactional(readOnly = true)
     public byte[] exportDealsToExcel(DealSearchRequest searchRequest, Pagination pagination) {
-        Pageable pageable = PageRequest.of(pagination.getPage(), pagination.getSize(), Sort.unsorted());
+        Pageable pageable = PageRequest.of(pagination.getPage(), pagination.getSize(), KEYSET_SORT);
         Specification<Deal> spec = searchFiltersForExport(searchRequest);
 
-        Page<Deal> dealsPage = dealRepository.findAll(spec, pageable);
-        List<Deal> deals = dealsPage.getContent();
+        List<Deal> deals = loadInOrder(dealRepository.findIds(spec, pageable));
 
         return DealXlsxGenerator.createAndFillDealXlsxTable(deals);
     }
 
     /**
-     * Приватный метод-помощник для построения объекта {@link Specification} для поиска сделок.
+     * Метод-помощник для построения объекта {@link Specification} для поиска сделок.
      * <p>
      * Трансформирует поля из {@link DealSearchRequest} в набор предикатов JPA Criteria API.
+     * Доступен в пакете, чтобы бенчмарки измеряли ту же спецификацию, что и поиск.
      * </p>
      * @param request Объект с критериями поиска.
      * @return {@link Specification} для использования в запросе репозитория.
      */
-    private Specification<Deal> searchFilters(DealSearchRequest request) {
+    static Specification<Deal> searchFilters(DealSearchRequest request) {
         Specification<Deal> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -341,7 +583,7 @@ public class DealServiceImpl implements DealService {
             }
 
             if (request.getAgreementNumber() != null && !request.getAgreementNumber().isEmpty()) {
-                predicates.add(cb.like(cb.lower(root.get("agreementNumber")), "%" + request.getAgreementNumber().toLowerCase() + "%"));
+                predicates.add(containsIgnoreCase(cb, root.get("agreementNumber"), request.getAgreementNumber()));
             }
 
             if (request.getAgreementDateFrom() != null) {
@@ -375,20 +617,12 @@ public class DealServiceImpl implements DealService {
 
             // Фильтр по заемщикам (borrower_search)
             if (request.getBorrowerSearch() != null && !request.getBorrowerSearch().isEmpty()) {
-                predicates.add(cb.or(
-                        cb.like(cb.lower(root.join("dealContractors").get("contractorId")), "%" + request.getBorrowerSearch().toLowerCase() + "%"),
-                        cb.like(cb.lower(root.join("dealContractors").get("name")), "%" + request.getBorrowerSearch().toLowerCase() + "%"),
-                        cb.like(cb.lower(root.join("dealContractors").get("inn")), "%" + request.getBorrowerSearch().toLowerCase() + "%")
-                ));
+                predicates.add(hasContractor(root, query, cb, contractor -> contractorMatches(cb, contractor, request.getBorrowerSearch())));
             }
 
             // Фильтр по поручителям (warranty_search)
             if (request.getWarrantySearch() != null && !request.getWarrantySearch().isEmpty()) {
-                predicates.add(cb.or(
-                        cb.like(cb.lower(root.join("dealContractors").get("contractorId")), "%" + request.getWarrantySearch().toLowerCase() + "%"),
-                        cb.like(cb.lower(root.join("dealContractors").get("name")), "%" + request.getWarrantySearch().toLowerCase() + "%"),
-                        cb.like(cb.lower(root.join("dealContractors").get("inn")), "%" + request.getWarrantySearch().toLowerCase() + "%")
-                ));
+                predicates.add(hasContractor(root, query, cb, contractor -> contractorMatches(cb, contractor, request.getWarrantySearch())));
             }
 
             // Фильтр по сумме (sum)
@@ -413,13 +647,52 @@ public class DealServiceImpl implements DealService {
     }
 
     /**
-     * Приватный метод-помощник для построения объекта {@link Specification} для экспорта сделок.
+     * {@code EXISTS (SELECT 1 FROM deal_contractor WHERE deal_id = deal.id AND ...)}.
+     * <p>
+     * В отличие от соединения с контрагентами, полусоединение не размножает строки сделки по числу контрагентов
+     * и не требует последующего устранения дублей.
+     * </p>
+     *
+     * @param condition условие на строку контрагента (и соединённые с ней роли).
+     */
+    private static Predicate hasContractor(Root<Deal> deal, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                           Function<Root<DealContractor>, Predicate> condition) {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<DealContractor> contractor = subquery.from(DealContractor.class);
+        subquery.select(cb.literal(1))
+                .where(cb.equal(contractor.get("deal"), deal), condition.apply(contractor));
+        return cb.exists(subquery);
+    }
+
+    /**
+     * Подстрока {@code search} в номере, названии или ИНН контрагента. Все три условия стоят на одной строке
+     * {@code deal_contractor}, поэтому PostgreSQL объединяет три триграммных индекса через {@code BitmapOr}.
+     */
+    private static Predicate contractorMatches(CriteriaBuilder cb, Root<DealContractor> contractor, String search) {
+        return cb.or(
+                containsIgnoreCase(cb, contractor.get("contractorId"), search),
+                containsIgnoreCase(cb, contractor.get("name"), search),
+                containsIgnoreCase(cb, contractor.get("inn"), search)
+        );
+    }
+
+    /**
+     * {@code lower(column) LIKE '%search%'}. Выражение совпадает с выражением триграммных GIN-индексов
+     * ({@code gin_trgm_ops} по {@code lower(...)}), поэтому поиск по подстроке идёт по индексу, а не перебором таблицы.
+     */
+    private static Predicate containsIgnoreCase(CriteriaBuilder cb, Path<String> column, String search) {
+        return cb.like(cb.lower(column), "%" + search.toLowerCase(Locale.ROOT) + "%");
+    }
+
+    /**
+     * Метод-помощник для построения объекта {@link Specification} для экспорта сделок.
      * Может содержать логику, отличающуюся от обычного поиска.
+     * Доступен в пакете, чтобы бенчмарки измеряли ту же спецификацию, что и экспорт.
      *
      * @param searchRequest Объект с критериями поиска.
      * @return {@link Specification} для использования в запросе репозитория.
      */
-    private Specification<Deal> searchFiltersForExport(DealSearchRequest searchRequest) {
+    static Specification<Deal> searchFiltersForExport(DealSearchRequest searchRequest) {
 
         Specification<Deal> spec = (root, query, cb) -> cb.isTrue(root.get("isActive"));
 
@@ -457,26 +730,12 @@ public class DealServiceImpl implements DealService {
             spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("closeDt"), searchRequest.getCloseDtTo()));
         }
         if (searchRequest.getBorrowerSearch() != null && !searchRequest.getBorrowerSearch().isEmpty()) {
-            spec = spec.and((root, query, cb) -> {
-                Join<Deal, DealContractor> contractors = root.join("dealContractors", JoinType.INNER);
-                Join<DealContractor, ContractorToRole> contractorRoles = contractors.join("roles", JoinType.INNER);
-                return cb.and(
-                        cb.like(contractors.get("name"), "%" + searchRequest.getBorrowerSearch() + "%"),
-                        cb.equal(contractorRoles.get("role").get("category"), "BORROWER"),
-                        cb.isTrue(contractorRoles.get("isActive"))
-                );
-            });
+            spec = spec.and((root, query, cb) -> hasContractor(root, query, cb,
+                    contractor -> contractorWithRole(cb, contractor, searchRequest.getBorrowerSearch(), "BORROWER")));
         }
         if (searchRequest.getWarrantySearch() != null && !searchRequest.getWarrantySearch().isEmpty()) {
-            spec = spec.and((root, query, cb) -> {
-                Join<Deal, DealContractor> contractors = root.join("dealContractors", JoinType.INNER);
-                Join<DealContractor, ContractorToRole> contractorRoles = contractors.join("roles", JoinType.INNER);
-                return cb.and(
-                        cb.like(contractors.get("name"), "%" + searchRequest.getWarrantySearch() + "%"),
-                        cb.equal(contractorRoles.get("role").get("category"), "WARRANTY"),
-                        cb.isTrue(contractorRoles.get("isActive"))
-                );
-            });
+            spec = spec.and((root, query, cb) -> hasContractor(root, query, cb,
+                    contractor -> contractorWithRole(cb, contractor, searchRequest.getWarrantySearch(), "WARRANTY")));
         }
         if (searchRequest.getSumValue() != null) {
             spec = spec.and((root, query, cb) -> {
@@ -493,4 +752,17 @@ public class DealServiceImpl implements DealService {
         return spec;
     }
 
+    /**
+     * Название контрагента содержит {@code name}, и у контрагента есть активная роль категории {@code category}.
+     */
+    private static Predicate contractorWithRole(CriteriaBuilder cb, Root<DealContractor> contractor, String name,
+                                                String category) {
+        Join<DealContractor, ContractorToRole> contractorRoles = contractor.join("roles", JoinType.INNER);
+        return cb.and(
+                cb.like(contractor.get("name"), "%" + name + "%"),
+                cb.equal(contractorRoles.get("role").get("category"), category),
+                cb.isTrue(contractorRoles.get("isActive"))
+        );
+    }
+
 }
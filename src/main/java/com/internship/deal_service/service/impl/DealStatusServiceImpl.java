@@ -5,6 +5,7 @@ import com.internship.deal_service.model.dto.DealStatusDto;
 import com.internship.deal_service.model.mapper.DealStatusMapper;
 import com.internship.deal_service.repository.DealStatusRepository;
 import com.internship.deal_service.service.DealStatusService;
+import com.internship.deal_service.service.cache.ReferenceDataRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -21,6 +22,7 @@ import java.util.Optional;
 public class DealStatusServiceImpl implements DealStatusService {
 
     private final DealStatusRepository dealStatusRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
     private static final String DEAL_STATUSES_PREFIX = "dealStatuses";
 
     @Override
@@ -31,6 +33,7 @@ public class DealStatusServiceImpl implements DealStatusService {
     })
     public void deleteById(String id) {
         dealStatusRepository.deleteById(id);
+        referenceDataRegistry.refreshAfterCommit();
     }
 
     @Override
@@ -61,6 +64,7 @@ public class DealStatusServiceImpl implements DealStatusService {
         dealStatus.setId(id);
         dealStatus.setName(name);
         DealStatus saved = dealStatusRepository.save(dealStatus);
+        referenceDataRegistry.refreshAfterCommit();
         return DealStatusMapper.toDto(saved);
     }
 
@@ -5,6 +5,7 @@ import com.internship.deal_service.model.dto.DealTypeDto;
 import com.internship.deal_service.model.mapper.DealTypeMapper;
 import com.internship.deal_service.repository.DealTypeRepository;
 import com.internship.deal_service.service.DealTypeService;
+import com.internship.deal_service.service.cache.ReferenceDataRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -21,6 +22,7 @@ import java.util.Optional;
 public class DealTypeServiceImpl implements DealTypeService {
 
     private final DealTypeRepository dealTypeRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
     private static final String DEAL_TYPES_PREFIX = "dealTypes";
 
     @Override
@@ -31,6 +33,7 @@ public class DealTypeServiceImpl implements DealTypeService {
     })
     public void deleteById(String id) {
         dealTypeRepository.deleteById(id);
+        referenceDataRegistry.refreshAfterCommit();
     }
 
     @Override
@@ -55,7 +58,9 @@ public class DealTypeServiceImpl implements DealTypeService {
         DealType dealType = new DealType();
         dealType.setName(name);
         dealType.setId(id);
-        return DealTypeMapper.toDto(dealTypeRepository.save(dealType));
+        DealTypeDto saved = DealTypeMapper.toDto(dealTypeRepository.save(dealType));
+        referenceDataRegistry.refreshAfterCommit();
+        return saved;
     }
 
     @Override
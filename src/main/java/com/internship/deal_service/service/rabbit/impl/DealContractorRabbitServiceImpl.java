@@ -5,14 +5,17 @@ import com.internship.deal_service.model.dto.ContractorRequestRabbit;
 import com.internship.deal_service.model.dto.DealContractorDto;
 import com.internship.deal_service.model.mapper.DealContractorMapper;
 import com.internship.deal_service.repository.DealContractorRepository;
+import com.internship.deal_service.service.DealCacheService;
 import com.internship.deal_service.service.rabbit.DealContractorRabbitService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -20,19 +23,28 @@ import java.util.Optional;
 public class DealContractorRabbitServiceImpl implements DealContractorRabbitService {
 
     private final DealContractorRepository dealContractorRepository;
+    private final DealCacheService dealCacheService;
 
+    /**
+     * Применяет обновление контрагента ко всем активным строкам {@code deal_contractor} с его contractorId
+     * и после коммита одним пакетом удаляет из кэша сделки, в которых он участвует.
+     * Загруженные строки одновременно служат обратным индексом contractorId → dealId.
+     */
     @Override
     @Transactional
     public DealContractorDto saveDealContractorWithUserId(ContractorRequestRabbit request) {
-        List<DealContractor> dealContractorList = dealContractorRepository.findByContractorIdAndIsActiveTrue(request.getContractorId());
-        Optional<DealContractor> existingDealContractor = dealContractorList
+        List<DealContractor> dealContractorList = dealContractorRepository.findByContractorIdAndIsActiveTrue(request.getContractorId())
                 .stream()
                 .filter(dc -> dc.getContractorId().equals(request.getContractorId()))
-                .findFirst();
+                .toList();
 
-        if (existingDealContractor.isPresent()) {
+        if (dealContractorList.isEmpty()) {
+            log.warn("DealContractor with contractorId <<{}>> doesn't exist or is not active.", request.getContractorId());
+            return null;
+        }
 
-            DealContractor updatedDealContractor = existingDealContractor.get();
+        Set<UUID> affectedDealIds = new LinkedHashSet<>();
+        dealContractorList.forEach(updatedDealContractor -> {
             updatedDealContractor.setContractorId(request.getContractorId());
             updatedDealContractor.setName(request.getName());
             updatedDealContractor.setModifyUserId(request.getModifyUserId());
@@ -40,12 +52,11 @@ public class DealContractorRabbitServiceImpl implements DealContractorRabbitServ
             if (request.getInn() != null) {
                 updatedDealContractor.setInn(request.getInn());
             }
-            return DealContractorMapper.toDto(updatedDealContractor);
+            affectedDealIds.add(updatedDealContractor.getDeal().getId());
+        });
+        dealCacheService.evictAllAfterCommit(affectedDealIds);
 
-        } else {
-            log.warn("DealContractor with contractorId <<{}>> doesn't exist or is not active.", request.getContractorId());
-            return null;
-        }
+        return DealContractorMapper.toDto(dealContractorList.getFirst());
     }
 
 }
@@ -1,6 +1,7 @@
 package com.internship.deal_service.util;
 
 import com.internship.deal_service.model.Pagination;
+import com.internship.deal_service.model.dto.DealCursorPage;
 import com.internship.deal_service.model.dto.DealDto;
 import com.internship.deal_service.model.dto.DealSearchRequest;
 import com.internship.deal_service.model.security.TokenAuthentication;
@@ -76,6 +77,41 @@ public final class UserRoleUtil {
         return resultPage;
     }
 
+    public static DealCursorPage searchDealByCursorConditionals(TokenAuthentication tokenAuthentication,
+                                                               DealService dealService,
+                                                               DealSearchRequest request,
+                                                               String cursor,
+                                                               int size) {
+        DealCursorPage resultPage = null;
+        TokenData tokenData = tokenAuthentication.getTokenData();
+
+        List<String> roles = tokenData.getAuthorities()
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        if (UserRoleUtil.isSuperuser(roles)) {
+            resultPage = dealService.searchDealsByCursor(request, cursor, size);
+        } else if (UserRoleUtil.isOverdraftAndCreditUser(roles)) {
+            DealSearchRequest filterRequest = DealSearchRequest.builder()
+                    .typeIds(List.of("OVERDRAFT", "CREDIT"))
+                    .build();
+            resultPage = dealService.searchDealsByCursor(filterRequest, cursor, size);
+        } else if (UserRoleUtil.isOnlyOverdraftUser(roles)) {
+            DealSearchRequest filterRequest = DealSearchRequest.builder()
+                    .typeIds(List.of("OVERDRAFT"))
+                    .build();
+            resultPage = dealService.searchDealsByCursor(filterRequest, cursor, size);
+        } else if (UserRoleUtil.isOnlyCreditUser(roles)) {
+            DealSearchRequest filterRequest = DealSearchRequest.builder()
+                    .typeIds(List.of("CREDIT"))
+                    .build();
+            resultPage = dealService.searchDealsByCursor(filterRequest, cursor, size);
+        }
+
+        return resultPage;
+    }
+
     public static byte[] exportDealConditionals(TokenAuthentication tokenAuthentication,
                                                 DealSearchRequest searchRequest,
                                                 DealService dealService,
@@ -0,0 +1 @@
+ALTER SEQUENCE deal_sum_id_seq INCREMENT BY 50;
\ No newline at end of file
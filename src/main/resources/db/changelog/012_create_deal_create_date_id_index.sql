@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_deal_active_create_date_id ON deal (create_date, id) WHERE is_active;
\ No newline at end of file
@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_deal_agreement_number_trgm ON deal USING gin (lower(agreement_number) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_deal_contractor_contractor_id_trgm ON deal_contractor USING gin (lower(contractor_id) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_deal_contractor_name_trgm ON deal_contractor USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_deal_contractor_inn_trgm ON deal_contractor USING gin (lower(inn) gin_trgm_ops);
\ No newline at end of file
@@ -0,0 +1,7 @@
+CREATE INDEX IF NOT EXISTS idx_deal_sum_deal_id ON deal_sum (deal_id);
+
+CREATE INDEX IF NOT EXISTS idx_deal_contractor_deal_id ON deal_contractor (deal_id);
+CREATE INDEX IF NOT EXISTS idx_deal_contractor_active_contractor_id ON deal_contractor (contractor_id) WHERE is_active;
+
+CREATE INDEX IF NOT EXISTS idx_deal_active_status_id ON deal (status_id) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_deal_active_type_id ON deal (type_id) WHERE is_active;
\ No newline at end of file
@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS deal_status_transition (
+    from_status_id VARCHAR(30) NOT NULL,
+    to_status_id VARCHAR(30) NOT NULL,
+
+    PRIMARY KEY (to_status_id, from_status_id),
+
+    CONSTRAINT fk_dst_from_status
+            FOREIGN KEY (from_status_id)
+            REFERENCES deal_status (id)
+            ON DELETE CASCADE,
+
+    CONSTRAINT fk_dst_to_status
+            FOREIGN KEY (to_status_id)
+            REFERENCES deal_status (id)
+            ON DELETE CASCADE,
+
+    CONSTRAINT chk_dst_distinct_statuses
+            CHECK (from_status_id <> to_status_id)
+);
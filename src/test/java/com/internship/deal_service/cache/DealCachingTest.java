@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.internship.deal_service.DealServiceApplication;
 import com.internship.deal_service.model.Deal;
 import com.internship.deal_service.model.DealRequest;
+import com.internship.deal_service.model.dto.DealDto;
 import com.internship.deal_service.model.dto.DealStatusUpdateRequest;
 import com.internship.deal_service.model.dto.DealTypeDto;
 import com.internship.deal_service.repository.DealRepository;
@@ -60,14 +61,14 @@ public class DealCachingTest extends TestContainer {
         request.setAvailabilityDate(LocalDate.now());
         request.setType(dealTypeDto);
 
-        // Инвалидация кэша при сохранении/изменении, кэширование при GET запросе
+        // Write-through: после коммита сохранения в кэше уже лежит актуальная сделка
         mockMvc.perform(post("/deal/save")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
         Deal deal = dealRepository.findAll().getFirst();
-        assertThat(cacheManager.getCache("deals").get(deal.getId().toString())).isNull();
+        assertThat(cacheManager.getCache("deals").get(deal.getId().toString())).isNotNull();
 
         mockMvc.perform(get("/deal/{id}", deal.getId()))
                 .andExpect(status().isOk())
@@ -77,18 +78,20 @@ public class DealCachingTest extends TestContainer {
         assertThat(cacheManager.getCache("deals").get(deal.getId().toString())).isNotNull();
 
         request.setId(deal.getId());
+        request.setDescription("Кэш сделка обновлена");
         mockMvc.perform(post("/deal/save")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
-        assertThat(cacheManager.getCache("deals").get(deal.getId().toString())).isNull();
+        assertThat(cacheManager.getCache("deals").get(deal.getId().toString(), DealDto.class).getDescription())
+                .isEqualTo("Кэш сделка обновлена");
 
-        // Инвалидация кэша при изменении статуса
+        // Обновление кэша при изменении статуса
         mockMvc.perform(get("/deal/{id}", deal.getId()))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(deal.getId().toString()))
-                .andExpect(jsonPath("$.description").value("Кэш сделка"));
+                .andExpect(jsonPath("$.description").value("Кэш сделка обновлена"));
         assertThat(cacheManager.getCache("deals").get(deal.getId().toString())).isNotNull();
 
         DealStatusUpdateRequest statusUpdate = new DealStatusUpdateRequest(deal.getId(), "ACTIVE");
@@ -99,6 +102,7 @@ public class DealCachingTest extends TestContainer {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(deal.getId().toString()))
                 .andExpect(jsonPath("$.status.id").value("ACTIVE"));
-        assertThat(cacheManager.getCache("deals").get(deal.getId().toString())).isNull();
+        assertThat(cacheManager.getCache("deals").get(deal.getId().toString(), DealDto.class).getStatus().getId())
+                .isEqualTo("ACTIVE");
     }
 }
@@ -0,0 +1,89 @@
+package com.internship.deal_service.config.hibernate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class HibernateCacheConfigTest {
+
+    private HibernateCacheConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new HibernateCacheConfig();
+        ReflectionTestUtils.setField(config, "maxSize", 100L);
+        ReflectionTestUtils.setField(config, "ttl", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void hibernateCacheManager_CreatesAllReferenceRegions() {
+        try (CacheManager cacheManager = config.hibernateCacheManager()) {
+            HibernateCacheConfig.REFERENCE_REGIONS.forEach(region -> assertNotNull(cacheManager.getCache(region), region));
+        }
+    }
+
+    @Test
+    void hibernateCacheManager_EachContextGetsOwnRegions() {
+        try (CacheManager first = config.hibernateCacheManager();
+             CacheManager second = config.hibernateCacheManager()) {
+            first.getCache("currency").put("RUB", "cached");
+
+            assertNull(second.getCache("currency").get("RUB"));
+        }
+    }
+
+    @Test
+    void hibernateCacheMetrics_ReportsHitsMissesAndRatioPerRegion() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Statistics statistics = mock(Statistics.class);
+        CacheRegionStatistics currency = mock(CacheRegionStatistics.class);
+        CacheRegionStatistics other = mock(CacheRegionStatistics.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        when(statistics.getDomainDataRegionStatistics(anyString())).thenReturn(other);
+        when(statistics.getDomainDataRegionStatistics("currency")).thenReturn(currency);
+        when(currency.getHitCount()).thenReturn(9L);
+        when(currency.getMissCount()).thenReturn(1L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        config.hibernateCacheMetrics(entityManagerFactory).bindTo(registry);
+
+        assertEquals(9, registry.get("cache.l2.requests").tag("region", "currency").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, registry.get("cache.l2.requests").tag("region", "currency").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(0.9, registry.get("cache.l2.hit.ratio").tag("region", "currency").gauge().value(), 1e-9);
+        assertEquals(0.0, registry.get("cache.l2.hit.ratio").tag("region", "dealType").gauge().value());
+    }
+
+    @Test
+    void hibernateCacheMetrics_StatisticsDisabled_RegistersNothing() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Statistics statistics = mock(Statistics.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        config.hibernateCacheMetrics(entityManagerFactory).bindTo(registry);
+
+        assertNull(registry.find("cache.l2.requests").meter());
+        assertNull(registry.find("cache.l2.hit.ratio").meter());
+        verify(statistics, never()).getDomainDataRegionStatistics(anyString());
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.internship.deal_service.config.redis;
+
+import com.internship.deal_service.model.dto.DealDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheSchemaFingerprintTest {
+
+    @Test
+    void of_SameClass_IsStable() {
+        assertEquals(CacheSchemaFingerprint.of(DealDto.class), CacheSchemaFingerprint.of(DealDto.class));
+        assertEquals(8, CacheSchemaFingerprint.of(DealDto.class).length());
+    }
+
+    @Test
+    void describe_IncludesNestedDtos() {
+        String schema = CacheSchemaFingerprint.describe(DealDto.class);
+
+        assertTrue(schema.contains("DealSumDto."));
+        assertTrue(schema.contains("DealContractorDto."));
+        assertTrue(schema.contains("ContractorRoleDto."));
+    }
+
+    @Test
+    void of_NestedFieldTypeChanged_ChangesFingerprint() {
+        assertNotEquals(CacheSchemaFingerprint.of(Outer.class), CacheSchemaFingerprint.of(OuterWithChangedInner.class));
+    }
+
+    @Test
+    void of_FieldRenamed_ChangesFingerprint() {
+        assertNotEquals(CacheSchemaFingerprint.of(Inner.class), CacheSchemaFingerprint.of(RenamedInner.class));
+    }
+
+    @Test
+    void of_StaticFieldsAreIgnored() {
+        assertEquals(CacheSchemaFingerprint.describe(Inner.class).replace("Inner", "X"),
+                CacheSchemaFingerprint.describe(InnerWithConstant.class).replace("InnerWithConstant", "X"));
+    }
+
+    static class Outer {
+        private List<Inner> items;
+    }
+
+    static class OuterWithChangedInner {
+        private List<ChangedInner> items;
+    }
+
+    static class Inner {
+        private String value;
+    }
+
+    static class ChangedInner {
+        private Long value;
+    }
+
+    static class RenamedInner {
+        private String amount;
+    }
+
+    static class InnerWithConstant {
+        static final String CONSTANT = "x";
+        private String value;
+    }
+
+}
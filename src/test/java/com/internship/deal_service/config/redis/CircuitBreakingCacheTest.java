@@ -0,0 +1,82 @@
+package com.internship.deal_service.config.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingCacheTest {
+
+    @Mock
+    private Cache redisCache;
+
+    private CircuitBreakingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(1, Duration.ofMinutes(1), 1, new SimpleMeterRegistry());
+        cache = new CircuitBreakingCache(redisCache, circuitBreaker, 100);
+    }
+
+    @Test
+    void get_RedisDown_ReturnsMissAndStopsCallingRedis() {
+        when(redisCache.get("key")).thenThrow(new RedisConnectionFailureException("Redis is down"));
+
+        assertNull(cache.get("key"));
+        assertNull(cache.get("key"));
+
+        verify(redisCache, times(1)).get("key");
+    }
+
+    @Test
+    void get_WithLoader_RedisDown_LoadsDirectly() {
+        when(redisCache.get(any(), any(Callable.class)))
+                .thenThrow(new RedisConnectionFailureException("Redis is down"));
+
+        assertEquals("db", cache.get("key", () -> "db"));
+        assertEquals("db", cache.get("key", () -> "db"));
+    }
+
+    @Test
+    void evict_SkippedWhileOpen_IsReplayedOnRecovery() {
+        doThrow(new RedisConnectionFailureException("Redis is down")).when(redisCache).get("other");
+        cache.get("other");
+
+        cache.evict("key");
+        verify(redisCache, never()).evict("key");
+
+        RedisCircuitBreaker closed = new RedisCircuitBreaker(1, Duration.ZERO, 1, new SimpleMeterRegistry());
+        CircuitBreakingCache recovering = new CircuitBreakingCache(redisCache, closed, 100);
+        recovering.markPending("key");
+        recovering.get("any");
+
+        verify(redisCache).evict("key");
+    }
+
+    @Test
+    void markPending_Overflow_ClearsWholeCacheOnRecovery() {
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(1, Duration.ZERO, 1, new SimpleMeterRegistry());
+        CircuitBreakingCache smallCache = new CircuitBreakingCache(redisCache, circuitBreaker, 2);
+        smallCache.markPending("a");
+        smallCache.markPending("b");
+        smallCache.markPending("c");
+
+        smallCache.get("any");
+
+        verify(redisCache).clear();
+        verify(redisCache, never()).evict(any());
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.internship.deal_service.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.deal_service.model.dto.ContractorRoleDto;
+import com.internship.deal_service.model.dto.DealContractorDto;
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.model.dto.DealStatusDto;
+import com.internship.deal_service.model.dto.DealSumDto;
+import com.internship.deal_service.model.dto.DealTypeDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealDtoBinaryRedisSerializerTest {
+
+    private final Jackson2JsonRedisSerializer<DealDto> jsonSerializer =
+            new Jackson2JsonRedisSerializer<>(new ObjectMapper().findAndRegisterModules(), DealDto.class);
+
+    static DealDto sampleDeal(int contractorCount) {
+        Set<DealContractorDto> contractors = new HashSet<>();
+        for (int i = 0; i < contractorCount; i++) {
+            contractors.add(DealContractorDto.builder()
+                    .id(UUID.randomUUID())
+                    .contractorId("C" + i)
+                    .name("Контрагент №" + i)
+                    .main(i == 0)
+                    .roles(List.of(
+                            new ContractorRoleDto("BORROWER", "Заемщик", "BORROWER"),
+                            new ContractorRoleDto("WARRANTY", "Поручитель", "WARRANTY")))
+                    .build());
+        }
+        return DealDto.builder()
+                .id(UUID.randomUUID())
+                .description("Сделка для проверки сериализации")
+                .agreementNumber("1234-12345")
+                .agreementDate(LocalDate.of(2025, 1, 1))
+                .agreementStartDt(LocalDateTime.of(2025, 2, 1, 10, 30, 15))
+                .availabilityDate(LocalDate.of(2026, 1, 1))
+                .type(new DealTypeDto("CREDIT", "Кредитная сделка"))
+                .status(new DealStatusDto("DRAFT", "Черновик"))
+                .sum(new DealSumDto(new BigDecimal("20000.00"), "RUB"))
+                .contractors(contractors)
+                .build();
+    }
+
+    @Test
+    void roundTrip_FullDeal_PreservesAllFields() {
+        DealDtoBinaryRedisSerializer serializer = new DealDtoBinaryRedisSerializer(0, null);
+        DealDto deal = sampleDeal(3);
+
+        byte[] bytes = serializer.serialize(deal);
+
+        assertEquals(DealDtoBinaryRedisSerializer.SCHEMA_VERSION, bytes[0]);
+        assertEquals(0, bytes[1]);
+        assertEquals(deal, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void roundTrip_EmptyDeal_PreservesNulls() {
+        DealDtoBinaryRedisSerializer serializer = new DealDtoBinaryRedisSerializer(0, null);
+        DealDto deal = new DealDto();
+
+        assertEquals(deal, serializer.deserialize(serializer.serialize(deal)));
+    }
+
+    @Test
+    void serialize_AboveThreshold_Compresses() {
+        DealDtoBinaryRedisSerializer serializer = new DealDtoBinaryRedisSerializer(256, null);
+        DealDto deal = sampleDeal(50);
+
+        byte[] bytes = serializer.serialize(deal);
+
+        assertEquals(DealDtoBinaryRedisSerializer.FLAG_GZIP, bytes[1]);
+        assertEquals(deal, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void deserialize_LegacyJson_DelegatesToJsonSerializer() {
+        DealDtoBinaryRedisSerializer serializer = new DealDtoBinaryRedisSerializer(0, jsonSerializer);
+        DealDto deal = sampleDeal(1);
+
+        assertEquals(deal, serializer.deserialize(jsonSerializer.serialize(deal)));
+    }
+
+    @Test
+    void deserialize_UnknownVersion_ReturnsNull() {
+        DealDtoBinaryRedisSerializer serializer = new DealDtoBinaryRedisSerializer(0, null);
+        byte[] bytes = serializer.serialize(sampleDeal(1));
+        bytes[0] = (byte) (DealDtoBinaryRedisSerializer.SCHEMA_VERSION + 1);
+
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    @Test
+    void deserialize_JsonWithoutLegacySerializer_ReturnsNull() {
+        DealDtoBinaryRedisSerializer serializer = new DealDtoBinaryRedisSerializer(0, null);
+
+        assertNull(serializer.deserialize(jsonSerializer.serialize(sampleDeal(1))));
+    }
+
+    @Test
+    void deserialize_TruncatedRecord_Throws() {
+        DealDtoBinaryRedisSerializer serializer = new DealDtoBinaryRedisSerializer(0, null);
+        byte[] bytes = serializer.serialize(sampleDeal(1));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+    }
+
+}
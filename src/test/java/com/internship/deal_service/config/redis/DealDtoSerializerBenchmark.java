@@ -0,0 +1,61 @@
+package com.internship.deal_service.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.deal_service.model.dto.DealDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Сравнение JSON и бинарного сериализатора кэша сделок: размер записи и время ser/de.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=DealDtoSerializerBenchmark} (без профиля бенчмарки не выполняются).
+ */
+@Tag("benchmark")
+class DealDtoSerializerBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+
+    @Test
+    void compareSerializers() {
+        Jackson2JsonRedisSerializer<DealDto> json =
+                new Jackson2JsonRedisSerializer<>(new ObjectMapper().findAndRegisterModules(), DealDto.class);
+        DealDtoBinaryRedisSerializer binary = new DealDtoBinaryRedisSerializer(0, json);
+        DealDtoBinaryRedisSerializer binaryGzip = new DealDtoBinaryRedisSerializer(1024, json);
+
+        System.out.printf("%-12s %-12s %10s %12s %12s%n", "contractors", "serializer", "bytes", "ser ns/op", "de ns/op");
+        for (int contractors : new int[]{0, 5, 20, 100}) {
+            DealDto deal = DealDtoBinaryRedisSerializerTest.sampleDeal(contractors);
+            report(contractors, "json", json, deal);
+            report(contractors, "binary", binary, deal);
+            report(contractors, "binary+gzip", binaryGzip, deal);
+        }
+    }
+
+    private static void report(int contractors, String name, RedisSerializer<DealDto> serializer, DealDto deal) {
+        byte[] bytes = serializer.serialize(deal);
+        long blackhole = 0;
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            blackhole += serializer.serialize(deal).length;
+            blackhole += serializer.deserialize(bytes).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            blackhole += serializer.serialize(deal).length;
+        }
+        long serNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            blackhole += serializer.deserialize(bytes).hashCode();
+        }
+        long deNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        System.out.printf("%-12d %-12s %10d %12d %12d%s%n", contractors, name, bytes.length, serNanos, deNanos,
+                blackhole == 42 ? " " : "");
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.internship.deal_service.config.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JitteredTtlFunctionTest {
+
+    @Test
+    void getTimeToLive_StaysWithinJitterBounds() {
+        JitteredTtlFunction ttlFunction = new JitteredTtlFunction(Duration.ofMinutes(30), 0.1);
+        Set<Duration> distinct = new HashSet<>();
+
+        for (int i = 0; i < 1_000; i++) {
+            Duration ttl = ttlFunction.getTimeToLive("key", "value");
+            assertTrue(ttl.compareTo(Duration.ofMinutes(27)) >= 0, ttl::toString);
+            assertTrue(ttl.compareTo(Duration.ofMinutes(33)) <= 0, ttl::toString);
+            distinct.add(ttl);
+        }
+        assertTrue(distinct.size() > 1);
+    }
+
+    @Test
+    void getTimeToLive_ZeroJitter_ReturnsBaseTtl() {
+        JitteredTtlFunction ttlFunction = new JitteredTtlFunction(Duration.ofMinutes(30), 0);
+
+        assertEquals(Duration.ofMinutes(30), ttlFunction.getTimeToLive("key", "value"));
+    }
+
+    @Test
+    void constructor_InvalidJitter_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new JitteredTtlFunction(Duration.ofMinutes(30), 1.5));
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.internship.deal_service.config.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCircuitBreakerTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private RedisCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new RedisCircuitBreaker(3, Duration.ofSeconds(10), 2, meterRegistry, clock);
+    }
+
+    @Test
+    void call_ConsecutiveFailures_OpensAndSkipsRedis() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("db", circuitBreaker.call(RedisCircuitBreakerTest::failingRedisCall, () -> "db"));
+        }
+
+        AtomicInteger redisCalls = new AtomicInteger();
+        String result = circuitBreaker.call(() -> {
+            redisCalls.incrementAndGet();
+            return "redis";
+        }, () -> "db");
+
+        assertEquals("db", result);
+        assertEquals(0, redisCalls.get());
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, meterRegistry.get("cache.circuit.state").gauge().value());
+    }
+
+    @Test
+    void call_SuccessResetsFailureCount() {
+        circuitBreaker.call(RedisCircuitBreakerTest::failingRedisCall, () -> "db");
+        circuitBreaker.call(RedisCircuitBreakerTest::failingRedisCall, () -> "db");
+        circuitBreaker.call(() -> "redis", () -> "db");
+        circuitBreaker.call(RedisCircuitBreakerTest::failingRedisCall, () -> "db");
+
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void call_HalfOpen_ClosesAfterSuccessfulProbes() {
+        open();
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(RedisCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        assertEquals("redis", circuitBreaker.call(() -> "redis", () -> "db"));
+        assertEquals(RedisCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals("redis", circuitBreaker.call(() -> "redis", () -> "db"));
+
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, meterRegistry.get("cache.circuit.state").gauge().value());
+    }
+
+    @Test
+    void call_HalfOpen_ProbeFailureReopens() {
+        open();
+        clock.advance(Duration.ofSeconds(10));
+
+        circuitBreaker.call(RedisCircuitBreakerTest::failingRedisCall, () -> "db");
+
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        clock.advance(Duration.ofSeconds(5));
+        assertEquals("db", circuitBreaker.call(() -> "redis", () -> "db"));
+    }
+
+    @Test
+    void call_NonRedisExceptionIsNotCountedAsFailure() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> {
+                throw new IllegalStateException("loader failed");
+            }, () -> "db"));
+        }
+
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.call(RedisCircuitBreakerTest::failingRedisCall, () -> "db");
+        }
+    }
+
+    private static String failingRedisCall() {
+        throw new RedisConnectionFailureException("Redis is down");
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+    }
+
+}
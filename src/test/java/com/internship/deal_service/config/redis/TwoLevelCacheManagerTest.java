@@ -0,0 +1,102 @@
+package com.internship.deal_service.config.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    private static final String KEY = "6f1c2a4e-0000-0000-0000-000000000001";
+
+    @Mock
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private TwoLevelCacheManager cacheManager;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("deals");
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, invalidationPublisher, null, null,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        lenient().when(invalidationPublisher.getNodeId()).thenReturn("self@b1-aaaa");
+        lenient().when(invalidationPublisher.getSchemaVersion()).thenReturn("b1-aaaa");
+        cache = (TwoLevelCache) cacheManager.getCache("deals");
+        cache.put(KEY, "deal");
+    }
+
+    @Test
+    void onMessage_SameSchemaVersion_EvictsOnlyLocalLevel() {
+        remoteCacheManager.getCache("deals").put(KEY, "updated");
+
+        cacheManager.onMessage(message("other@b1-aaaa|deals|" + KEY), null);
+
+        assertEquals("updated", cache.get(KEY).get());
+    }
+
+    @Test
+    void onMessage_OtherSchemaVersion_EvictsOwnRedisEntry() {
+        cacheManager.onMessage(message("other@b2-bbbb|deals|" + KEY), null);
+
+        assertNull(remoteCacheManager.getCache("deals").get(KEY));
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void onMessage_OtherSchemaVersion_CacheNotYetCreated_EvictsOwnRedisEntry() {
+        TwoLevelCacheManager freshManager = new TwoLevelCacheManager(remoteCacheManager, invalidationPublisher, null, null,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+        freshManager.onMessage(message("other@b2-bbbb|deals|" + KEY), null);
+
+        assertNull(remoteCacheManager.getCache("deals").get(KEY));
+    }
+
+    @Test
+    void onMessage_SameSchemaVersion_CacheNotYetCreated_LeavesRedisEntry() {
+        TwoLevelCacheManager freshManager = new TwoLevelCacheManager(remoteCacheManager, invalidationPublisher, null, null,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+        freshManager.onMessage(message("other@b1-aaaa|deals|" + KEY), null);
+
+        assertEquals("deal", remoteCacheManager.getCache("deals").get(KEY).get());
+    }
+
+    @Test
+    void onMessage_OtherSchemaVersion_UnknownCache_IsIgnored() {
+        assertDoesNotThrow(() -> cacheManager.onMessage(message("other@b2-bbbb|unknown|" + KEY), null));
+    }
+
+    @Test
+    void onMessage_NodeWithoutSchemaVersion_IsTreatedAsOtherVersion() {
+        cacheManager.onMessage(message("legacy-node|deals|*"), null);
+
+        assertNull(remoteCacheManager.getCache("deals").get(KEY));
+    }
+
+    @Test
+    void onMessage_OwnMessage_IsIgnored() {
+        cacheManager.onMessage(message("self@b1-aaaa|deals|" + KEY), null);
+
+        assertEquals("deal", cache.get(KEY).get());
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("deal-cache-invalidation".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
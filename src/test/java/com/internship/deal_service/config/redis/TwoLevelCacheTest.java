@@ -0,0 +1,458 @@
+package com.internship.deal_service.config.redis;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    private ConcurrentMapCache remoteCache;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new ConcurrentMapCache("deals");
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TwoLevelCache("deals", Caffeine.newBuilder().maximumSize(100).build(), remoteCache, invalidationPublisher,
+                null, null, null, meterRegistry);
+    }
+
+    @Test
+    void get_RemoteHit_PromotesToLocal() {
+        UUID id = UUID.randomUUID();
+        remoteCache.put(id, "deal");
+
+        assertEquals("deal", cache.get(id).get());
+
+        remoteCache.evict(id);
+        assertEquals("deal", cache.get(id).get());
+    }
+
+    @Test
+    void get_UuidAndStringKey_ShareLocalEntry() {
+        UUID id = UUID.randomUUID();
+        cache.put(id, "deal");
+        remoteCache.clear();
+
+        assertNotNull(cache.get(id.toString()));
+    }
+
+    @Test
+    void put_PublishesInvalidation() {
+        UUID id = UUID.randomUUID();
+
+        cache.put(id, "deal");
+
+        assertEquals("deal", remoteCache.get(id).get());
+        verify(invalidationPublisher).publishEvict("deals", id.toString());
+    }
+
+    @Test
+    void evict_RemovesBothLevelsAndPublishes() {
+        UUID id = UUID.randomUUID();
+        cache.put(id, "deal");
+
+        cache.evict(id);
+
+        assertNull(cache.get(id));
+        verify(invalidationPublisher, times(2)).publishEvict("deals", id.toString());
+    }
+
+    @Test
+    void evictLocal_KeepsRemoteEntry() {
+        UUID id = UUID.randomUUID();
+        cache.put(id, "deal");
+        remoteCache.put(id, "updated");
+
+        cache.evictLocal(id.toString());
+
+        assertEquals("updated", cache.get(id).get());
+    }
+
+    @Test
+    void get_InvalidatedDuringRemoteRead_DoesNotPromoteStaleValue() {
+        UUID id = UUID.randomUUID();
+        TwoLevelCache[] racing = new TwoLevelCache[1];
+        ConcurrentMapCache remote = racingRemote(key -> racing[0].evictLocal(String.valueOf(key)));
+        remote.put(id, "stale");
+        racing[0] = new TwoLevelCache("deals", Caffeine.newBuilder().maximumSize(100).build(), remote, invalidationPublisher,
+                null, null, null, meterRegistry);
+
+        assertEquals("stale", racing[0].get(id).get());
+
+        assertEquals("updated", racing[0].get(id).get());
+    }
+
+    @Test
+    void getAll_ClearedDuringRemoteRead_DoesNotPromoteStaleValues() {
+        UUID id = UUID.randomUUID();
+        TwoLevelCache[] racing = new TwoLevelCache[1];
+        ConcurrentMapCache remote = racingRemote(key -> racing[0].clearLocal());
+        remote.put(id.toString(), "stale");
+        racing[0] = new TwoLevelCache("deals", Caffeine.newBuilder().maximumSize(100).build(), remote, invalidationPublisher,
+                null, null, null, meterRegistry);
+
+        assertEquals(Map.of(id.toString(), "stale"), racing[0].getAll(List.of(id)));
+
+        assertEquals("updated", racing[0].get(id.toString()).get());
+    }
+
+    @Test
+    void get_WithLoader_LoadsOnceAndCaches() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        String first = cache.get(id, () -> "loaded");
+        String second = cache.get(id, () -> {
+            throw new IllegalStateException("loader must not be called");
+        });
+
+        assertEquals("loaded", first);
+        assertEquals("loaded", second);
+    }
+
+    @Test
+    void get_WithLoader_ConcurrentMisses_LoadOnce() throws Exception {
+        UUID id = UUID.randomUUID();
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            Future<String> first = executor.submit(() -> cache.get(id, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                releaseLoader.await();
+                return "loaded";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            Future<?>[] waiters = new Future<?>[callers - 1];
+            for (int i = 0; i < waiters.length; i++) {
+                waiters[i] = executor.submit(() -> cache.get(id, () -> {
+                    loads.incrementAndGet();
+                    return "duplicate";
+                }));
+            }
+            while (meterRegistry.get("cache.load.coalesced").counter().count() < waiters.length) {
+                Thread.sleep(5);
+            }
+            releaseLoader.countDown();
+
+            assertEquals("loaded", first.get(5, TimeUnit.SECONDS));
+            for (Future<?> waiter : waiters) {
+                assertEquals("loaded", waiter.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, cache.getInFlightLoadCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_WithLoader_FailurePropagatesToWaiters() {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(org.springframework.cache.Cache.ValueRetrievalException.class,
+                () -> cache.get(id, () -> {
+                    throw new IllegalStateException("db down");
+                }));
+        assertNull(cache.get(id));
+        assertEquals(0, cache.getInFlightLoadCount());
+    }
+
+    @Test
+    void evictAll_RemovesBothLevelsAndPublishesOnce() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        cache.put(first, "first");
+        cache.put(second, "second");
+
+        cache.evictAll(List.of(first, second));
+
+        assertNull(cache.get(first));
+        assertNull(cache.get(second));
+        verify(invalidationPublisher).publishEvictAll("deals", List.of(first.toString(), second.toString()));
+    }
+
+    @Test
+    void getAll_ReadsLocalThenRemoteAndPromotes() {
+        UUID local = UUID.randomUUID();
+        UUID remote = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        cache.put(local, "local");
+        remoteCache.put(remote.toString(), "remote");
+
+        Map<String, Object> result = cache.getAll(List.of(local, remote, missing));
+
+        assertEquals(Map.of(local.toString(), "local", remote.toString(), "remote"), result);
+        remoteCache.clear();
+        assertEquals("remote", cache.get(remote).get());
+    }
+
+    @Test
+    void putAll_WritesBothLevelsAndPublishesOnce() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        cache.putAll(Map.of(first, "first", second, "second"));
+
+        assertEquals("first", remoteCache.get(first).get());
+        assertEquals("second", cache.get(second).get());
+        verify(invalidationPublisher).publishEvictAll(eq("deals"), argThat(keys -> keys.size() == 2));
+    }
+
+    @Test
+    void put_WithVersions_StoresVersionOnceNextToValue() {
+        ConcurrentMapCache versionCache = new ConcurrentMapCache("dealVersions");
+        AtomicInteger computed = new AtomicInteger();
+        TwoLevelCache versionedCache = versionedCache(versionCache, value -> "v-" + value + "-" + computed.incrementAndGet());
+        UUID id = UUID.randomUUID();
+
+        versionedCache.put(id, "deal");
+
+        assertEquals("v-deal-1", versionCache.get(id).get());
+        assertEquals("v-deal-1", versionedCache.getVersion(id));
+        assertEquals("v-deal-1", versionedCache.getVersion(id));
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    void getVersion_LocalMiss_ReadsOnlyRemoteVersion() {
+        ConcurrentMapCache versionCache = new ConcurrentMapCache("dealVersions");
+        AtomicInteger computed = new AtomicInteger();
+        TwoLevelCache versionedCache = versionedCache(versionCache, value -> "v" + computed.incrementAndGet());
+        UUID id = UUID.randomUUID();
+        versionedCache.put(id, "deal");
+        versionedCache.evictLocal(id.toString());
+
+        assertEquals("v1", versionedCache.getVersion(id));
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    void get_WithVersions_RemoteHitComputesVersionOnceOnPromotion() {
+        ConcurrentMapCache versionCache = new ConcurrentMapCache("dealVersions");
+        AtomicInteger computed = new AtomicInteger();
+        TwoLevelCache versionedCache = versionedCache(versionCache, value -> "v" + computed.incrementAndGet());
+        UUID id = UUID.randomUUID();
+        remoteCache.put(id, "deal");
+
+        versionedCache.get(id);
+
+        assertEquals("v1", versionedCache.getVersion(id));
+        assertEquals("v1", versionedCache.getVersion(id));
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    void evictAll_WithVersions_RemovesVersions() {
+        ConcurrentMapCache versionCache = new ConcurrentMapCache("dealVersions");
+        TwoLevelCache versionedCache = versionedCache(versionCache, value -> "v-" + value);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        versionedCache.putAll(Map.of(first, "first", second, "second"));
+        assertEquals("v-second", versionCache.get(second).get());
+
+        versionedCache.evict(first);
+        versionedCache.evictAll(List.of(second));
+
+        assertNull(versionedCache.getVersion(first));
+        assertNull(versionedCache.getVersion(second));
+        assertNull(versionCache.get(first));
+        assertNull(versionCache.get(second));
+    }
+
+    @Test
+    void put_WithVersionsAndRedis_WritesValueAndVersionInOneTransaction() {
+        UUID id = UUID.randomUUID();
+        RedisCache redisCache = mock(RedisCache.class);
+        RedisCache redisVersionCache = mock(RedisCache.class);
+        RedisCacheBatchOperations batchOperations = mock(RedisCacheBatchOperations.class);
+        TwoLevelCache versionedCache = new TwoLevelCache("deals", Caffeine.newBuilder().maximumSize(100).build(),
+                redisCache, invalidationPublisher, null, batchOperations, null, redisVersionCache,
+                value -> "v-" + value, meterRegistry);
+
+        versionedCache.put(id, "deal");
+        versionedCache.evict(id);
+
+        verify(batchOperations).putAll(redisCache, Map.of(id.toString(), "deal"), redisVersionCache,
+                Map.of(id.toString(), "v-deal"));
+        verify(batchOperations).evictAll(redisCache, redisVersionCache, List.of(id.toString()));
+        verify(redisCache, never()).put(any(), any());
+        verify(redisVersionCache, never()).put(any(), any());
+    }
+
+    @Test
+    void get_WithLoader_RemoteHitCloseToExpiry_RefreshesInBackground() throws Exception {
+        UUID id = UUID.randomUUID();
+        RedisCache redisCache = mock(RedisCache.class);
+        RedisCacheBatchOperations batchOperations = mock(RedisCacheBatchOperations.class);
+        when(redisCache.get(id)).thenReturn(new SimpleValueWrapper("stale"));
+        when(batchOperations.remainingTtl(redisCache, id.toString())).thenReturn(Duration.ofSeconds(5));
+        TwoLevelCache refreshingCache = refreshingCache(redisCache, batchOperations, key -> "fresh");
+
+        String value = refreshingCache.get(id, () -> {
+            throw new IllegalStateException("caller's loader must not be reused for refresh");
+        });
+
+        assertEquals("stale", value);
+        verify(redisCache).put(id, "fresh");
+        assertEquals("fresh", refreshingCache.get(id).get());
+        assertEquals(1, meterRegistry.get("cache.refresh.ahead").counter().count());
+    }
+
+    @Test
+    void get_WithLoader_RemoteHitFarFromExpiry_DoesNotRefresh() throws Exception {
+        UUID id = UUID.randomUUID();
+        RedisCache redisCache = mock(RedisCache.class);
+        RedisCacheBatchOperations batchOperations = mock(RedisCacheBatchOperations.class);
+        when(redisCache.get(id)).thenReturn(new SimpleValueWrapper("cached"));
+        when(batchOperations.remainingTtl(redisCache, id.toString())).thenReturn(Duration.ofMinutes(20));
+        TwoLevelCache refreshingCache = refreshingCache(redisCache, batchOperations, key -> {
+            throw new IllegalStateException("loader must not be called");
+        });
+
+        String value = refreshingCache.get(id, () -> {
+            throw new IllegalStateException("loader must not be called");
+        });
+
+        assertEquals("cached", value);
+        verify(redisCache, never()).put(any(), any());
+    }
+
+    @Test
+    void get_WithLoader_EntryWrittenDuringRefresh_DiscardsRefreshedValue() {
+        UUID id = UUID.randomUUID();
+        RedisCache redisCache = mock(RedisCache.class);
+        RedisCacheBatchOperations batchOperations = mock(RedisCacheBatchOperations.class);
+        when(redisCache.get(id)).thenReturn(new SimpleValueWrapper("stale"));
+        when(batchOperations.remainingTtl(redisCache, id.toString())).thenReturn(Duration.ofSeconds(5));
+        TwoLevelCache[] holder = new TwoLevelCache[1];
+        holder[0] = refreshingCache(redisCache, batchOperations, key -> {
+            // Запись сделки закоммитилась, пока перезагрузка читала старое состояние
+            holder[0].put(id, "saved");
+            return "refreshed";
+        });
+
+        holder[0].get(id, () -> "loaded");
+
+        verify(redisCache).put(id, "saved");
+        verify(redisCache, never()).put(id, "refreshed");
+        assertEquals("saved", holder[0].get(id).get());
+    }
+
+    @Test
+    void get_WithLoader_EntryInvalidatedByOtherNodeDuringRefresh_DiscardsRefreshedValue() {
+        UUID id = UUID.randomUUID();
+        RedisCache redisCache = mock(RedisCache.class);
+        RedisCacheBatchOperations batchOperations = mock(RedisCacheBatchOperations.class);
+        when(redisCache.get(id)).thenReturn(new SimpleValueWrapper("stale"));
+        when(batchOperations.remainingTtl(redisCache, id.toString())).thenReturn(Duration.ofSeconds(5));
+        TwoLevelCache[] holder = new TwoLevelCache[1];
+        holder[0] = refreshingCache(redisCache, batchOperations, key -> {
+            holder[0].evictLocal(id.toString());
+            return "refreshed";
+        });
+
+        holder[0].get(id, () -> "loaded");
+
+        verify(redisCache, never()).put(any(), any());
+    }
+
+    @Test
+    void get_WithLoader_RedisValueChangedDuringRefresh_DiscardsRefreshedValue() {
+        UUID id = UUID.randomUUID();
+        RedisCache redisCache = mock(RedisCache.class);
+        RedisCacheBatchOperations batchOperations = mock(RedisCacheBatchOperations.class);
+        when(redisCache.get(id)).thenReturn(new SimpleValueWrapper("stale"), new SimpleValueWrapper("saved"));
+        when(batchOperations.remainingTtl(redisCache, id.toString())).thenReturn(Duration.ofSeconds(5));
+        TwoLevelCache refreshingCache = refreshingCache(redisCache, batchOperations, key -> "refreshed");
+
+        refreshingCache.get(id, () -> "loaded");
+
+        verify(redisCache, never()).put(any(), any());
+    }
+
+    @Test
+    void get_WithLoader_RefreshFindsNothing_EvictsEntry() {
+        UUID id = UUID.randomUUID();
+        RedisCache redisCache = mock(RedisCache.class);
+        RedisCacheBatchOperations batchOperations = mock(RedisCacheBatchOperations.class);
+        when(redisCache.get(id)).thenReturn(new SimpleValueWrapper("stale"));
+        when(batchOperations.remainingTtl(redisCache, id.toString())).thenReturn(Duration.ofSeconds(5));
+        TwoLevelCache refreshingCache = refreshingCache(redisCache, batchOperations, key -> null);
+
+        refreshingCache.get(id, () -> "loaded");
+
+        verify(redisCache).evict(id);
+        verify(redisCache, never()).put(any(), any());
+    }
+
+    private TwoLevelCache versionedCache(ConcurrentMapCache versionCache, Function<Object, String> versionFunction) {
+        return new TwoLevelCache("deals", Caffeine.newBuilder().maximumSize(100).build(), remoteCache,
+                invalidationPublisher, null, null, null, versionCache, versionFunction, meterRegistry);
+    }
+
+    private TwoLevelCache refreshingCache(RedisCache redisCache, RedisCacheBatchOperations batchOperations,
+                                          Function<Object, ?> loader) {
+        return new TwoLevelCache("deals", Caffeine.newBuilder().maximumSize(100).build(),
+                redisCache, invalidationPublisher, null, batchOperations,
+                new RefreshAheadPolicy(Duration.ofMinutes(30), 0.2, Runnable::run, loader), meterRegistry);
+    }
+
+    /**
+     * L2, первое чтение из которого возвращает прежнее значение, а тем временем другой узел записывает новое
+     * и присылает инвалидацию ({@code invalidation}).
+     */
+    private static ConcurrentMapCache racingRemote(Consumer<Object> invalidation) {
+        AtomicBoolean raced = new AtomicBoolean();
+        return new ConcurrentMapCache("deals") {
+            @Override
+            public Cache.ValueWrapper get(Object key) {
+                Cache.ValueWrapper value = super.get(key);
+                if (raced.compareAndSet(false, true)) {
+                    put(key, "updated");
+                    invalidation.accept(key);
+                }
+                return value;
+            }
+        };
+    }
+
+}
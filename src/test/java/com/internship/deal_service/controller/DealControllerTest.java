@@ -3,7 +3,10 @@ package com.internship.deal_service.controller;
 import com.internship.deal_service.testcontainer.TestContainer;
 import com.internship.deal_service.DealServiceApplication;
 import com.internship.deal_service.exception.DealException;
+import com.internship.deal_service.exception.DealSearchRequestException;
 import com.internship.deal_service.model.DealRequest;
+import com.internship.deal_service.model.DealSearchCursor;
+import com.internship.deal_service.model.dto.DealBatchResponse;
 import com.internship.deal_service.model.dto.DealSearchRequest;
 import com.internship.deal_service.model.dto.DealStatusUpdateRequest;
 import com.internship.deal_service.model.Pagination;
@@ -11,6 +14,7 @@ import com.internship.deal_service.model.dto.DealDto;
 import com.internship.deal_service.model.dto.DealStatusDto;
 import com.internship.deal_service.model.dto.DealTypeDto;
 import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.service.cache.DealVersion;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +24,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -27,11 +32,16 @@ import org.springframework.test.web.servlet.MockMvc;
 
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -68,6 +78,61 @@ class DealControllerTest extends TestContainer {
                 .andExpect(jsonPath("$.description").value("Тестовая сделка"));
     }
 
+    @Test
+    void getDealById_shouldReturnNotModifiedFromCachedVersion_whenIfNoneMatchIsCurrent() throws Exception {
+        UUID dealId = UUID.randomUUID();
+        when(dealService.getDealVersion(dealId)).thenReturn("0123456789abcdef");
+
+        mockMvc.perform(get("/deal/{id}", dealId).header(HttpHeaders.IF_NONE_MATCH, "\"0123456789abcdef\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0123456789abcdef\""))
+                .andExpect(content().string(""));
+
+        verify(dealService, never()).getDealById(dealId);
+    }
+
+    @Test
+    void getDealById_shouldReturnDealWithETag_whenIfNoneMatchIsStale() throws Exception {
+        UUID dealId = UUID.randomUUID();
+        DealDto dealDto = DealDto.builder().id(dealId).description("Тестовая сделка").build();
+        when(dealService.getDealById(dealId)).thenReturn(dealDto);
+
+        mockMvc.perform(get("/deal/{id}", dealId).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + DealVersion.of(dealDto) + "\""))
+                .andExpect(jsonPath("$.id").value(dealId.toString()));
+    }
+
+    @Test
+    void getDealById_shouldUseCachedVersionAsETag_whenIfNoneMatchIsStale() throws Exception {
+        UUID dealId = UUID.randomUUID();
+        DealDto dealDto = DealDto.builder().id(dealId).description("Тестовая сделка").build();
+        when(dealService.getDealVersion(dealId)).thenReturn("0123456789abcdef");
+        when(dealService.getDealById(dealId)).thenReturn(dealDto);
+
+        mockMvc.perform(get("/deal/{id}", dealId).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0123456789abcdef\""))
+                .andExpect(jsonPath("$.id").value(dealId.toString()));
+    }
+
+    @Test
+    void getDealsByIds_shouldReturnDealsAndNotFoundIds() throws Exception {
+        UUID foundId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        DealDto dealDto = DealDto.builder().id(foundId).description("Тестовая сделка").build();
+
+        when(dealService.getDealsByIds(List.of(foundId, missingId)))
+                .thenReturn(new DealBatchResponse(List.of(dealDto), List.of(missingId)));
+
+        mockMvc.perform(post("/deal/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(foundId, missingId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deals[0].id").value(foundId.toString()))
+                .andExpect(jsonPath("$.notFound[0]").value(missingId.toString()));
+    }
+
     @Test
     void saveDeal_shouldReturnSavedDealDto() throws Exception {
         DealRequest request = DealRequest.builder().description("Новая сделка").build();
@@ -211,4 +276,30 @@ class DealControllerTest extends TestContainer {
                 .andExpect(jsonPath("$.message").value("Новый DealStatus не найден"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void searchDealsByCursor_shouldReturn400_whenSizeIsNotPositive() throws Exception {
+        when(dealService.searchDealsByCursor(any(), any(), eq(0)))
+                .thenThrow(new DealSearchRequestException("Размер страницы должен быть положительным"));
+
+        mockMvc.perform(post("/deal/search/cursor")
+                        .param("size", "0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DealSearchRequest())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Размер страницы должен быть положительным"));
+    }
+
+    @Test
+    void searchDealsByCursor_shouldReturn400_whenCursorIsMalformed() throws Exception {
+        when(dealService.searchDealsByCursor(any(), eq("not a cursor"), anyInt()))
+                .thenAnswer(invocation -> DealSearchCursor.decode(invocation.getArgument(1)));
+
+        mockMvc.perform(post("/deal/search/cursor")
+                        .param("cursor", "not a cursor")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DealSearchRequest())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректный курсор поиска <<not a cursor>>."));
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.internship.deal_service.model;
+
+import com.internship.deal_service.exception.DealSearchRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealSearchCursorTest {
+
+    @Test
+    void encode_DecodeRoundTrip_PreservesMicroseconds() {
+        DealSearchCursor cursor = new DealSearchCursor(LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123_456_000),
+                UUID.fromString("7f1c6b0a-3b4e-4a51-9d5e-0c8f2a6b1e11"));
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("="));
+        assertEquals(cursor, DealSearchCursor.decode(encoded));
+    }
+
+    @Test
+    void decode_MalformedCursor_ThrowsDealSearchRequestException() {
+        assertThrows(DealSearchRequestException.class, () -> DealSearchCursor.decode("not a cursor"));
+        assertThrows(DealSearchRequestException.class, () -> DealSearchCursor.decode("MjAyNS0wMy0wMQ"));
+    }
+
+}
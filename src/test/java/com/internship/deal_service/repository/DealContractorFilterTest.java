@@ -0,0 +1,153 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.DealServiceApplication;
+import com.internship.deal_service.model.Pagination;
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.model.dto.DealSearchRequest;
+import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.testcontainer.TestContainer;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Фильтры по контрагентам ({@code borrowerSearch}, {@code warrantySearch}) в поиске и экспорте сделок
+ * на реальной спецификации и реальной БД.
+ * <p>
+ * Сделки каждого теста помечены уникальным описанием, а название контрагентов содержит уникальную подстроку,
+ * поэтому данные других тестов в выборку не попадают.
+ * </p>
+ */
+@SpringBootTest(classes = DealServiceApplication.class)
+@ActiveProfiles("test")
+class DealContractorFilterTest extends TestContainer {
+
+    @Autowired
+    private DealService dealService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String label;
+    private String search;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        label = "contractor filter " + suffix;
+        search = "romashka-" + suffix;
+    }
+
+    @Test
+    void searchDeals_BorrowerSearch_DealWithSeveralMatchingContractorsReturnedOnce() {
+        UUID matching = insertDeal();
+        insertContractor(matching, "OOO " + search + " 1", "BORROWER", true);
+        insertContractor(matching, "OOO " + search + " 2", "BORROWER", true);
+        insertContractor(matching, "OOO " + search + " 3", "WARRANTY", true);
+        UUID other = insertDeal();
+        insertContractor(other, "OOO Other", "BORROWER", true);
+
+        Page<DealDto> page = dealService.searchDeals(
+                DealSearchRequest.builder().description(label).borrowerSearch(search).build(), new Pagination(0, 10));
+
+        assertEquals(List.of(matching), page.getContent().stream().map(DealDto::getId).toList());
+        assertEquals(1, page.getTotalElements());
+    }
+
+    @Test
+    void searchDeals_WarrantySearch_MatchesContractorIdNameOrInn() {
+        UUID byName = insertDeal();
+        insertContractor(byName, "OOO " + search, "WARRANTY", true);
+        UUID byInn = insertDeal();
+        jdbcTemplate.update("INSERT INTO deal_contractor (id, deal_id, contractor_id, name, inn) VALUES (?, ?, ?, ?, ?)",
+                UUID.randomUUID(), byInn, "C1", "OOO Other", search.toUpperCase());
+        UUID none = insertDeal();
+        insertContractor(none, "OOO Other", "WARRANTY", true);
+
+        Page<DealDto> page = dealService.searchDeals(
+                DealSearchRequest.builder().description(label).warrantySearch(search).build(), new Pagination(0, 10));
+
+        assertEquals(2, page.getTotalElements());
+        assertTrue(page.getContent().stream().map(DealDto::getId).toList().containsAll(List.of(byName, byInn)));
+    }
+
+    @Test
+    void exportDealsToExcel_BorrowerSearch_MatchesOnlyContractorsWithActiveBorrowerRole() throws IOException {
+        UUID borrower = insertDeal();
+        insertContractor(borrower, "OOO " + search + " 1", "BORROWER", true);
+        insertContractor(borrower, "OOO " + search + " 2", "DRAWER", true);
+        UUID warranty = insertDeal();
+        insertContractor(warranty, "OOO " + search, "WARRANTY", true);
+        UUID inactiveRole = insertDeal();
+        insertContractor(inactiveRole, "OOO " + search, "BORROWER", false);
+
+        byte[] file = dealService.exportDealsToExcel(
+                DealSearchRequest.builder().description(label).borrowerSearch(search).build(), new Pagination(0, 10));
+
+        assertEquals(List.of(borrower), exportedDealIds(file));
+    }
+
+    @Test
+    void exportDealsToExcel_WarrantySearch_MatchesOnlyContractorsWithWarrantyRole() throws IOException {
+        UUID borrower = insertDeal();
+        insertContractor(borrower, "OOO " + search, "BORROWER", true);
+        UUID warranty = insertDeal();
+        insertContractor(warranty, "OOO " + search + " 1", "WARRANTY", true);
+        insertContractor(warranty, "OOO " + search + " 2", "GARANT", true);
+
+        byte[] file = dealService.exportDealsToExcel(
+                DealSearchRequest.builder().description(label).warrantySearch(search).build(), new Pagination(0, 10));
+
+        assertEquals(List.of(warranty), exportedDealIds(file));
+    }
+
+    /**
+     * @return ID сделок из первой колонки строк сделок; строки сумм и контрагентов её не заполняют.
+     */
+    private static List<UUID> exportedDealIds(byte[] file) throws IOException {
+        List<UUID> ids = new ArrayList<>();
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(file))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                Cell cell = row.getCell(0);
+                if (row.getRowNum() > 0 && cell != null && !cell.getStringCellValue().isBlank()) {
+                    ids.add(UUID.fromString(cell.getStringCellValue()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private UUID insertDeal() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO deal (id, description, type_id, status_id) VALUES (?, ?, 'CREDIT', 'DRAFT')",
+                id, label);
+        return id;
+    }
+
+    private void insertContractor(UUID dealId, String name, String roleId, boolean roleActive) {
+        UUID contractorId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO deal_contractor (id, deal_id, contractor_id, name) VALUES (?, ?, ?, ?)",
+                contractorId, dealId, "C1", name);
+        jdbcTemplate.update("INSERT INTO contractor_to_role (contractor_id, role_id, is_active) VALUES (?, ?, ?)",
+                contractorId, roleId, roleActive);
+    }
+
+}
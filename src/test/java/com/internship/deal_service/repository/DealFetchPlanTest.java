@@ -0,0 +1,371 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.DealServiceApplication;
+import com.internship.deal_service.exception.DealStatusConflictException;
+import com.internship.deal_service.model.Deal;
+import com.internship.deal_service.model.DealRequest;
+import com.internship.deal_service.model.Pagination;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateRequest;
+import com.internship.deal_service.model.dto.DealBulkStatusUpdateResponse;
+import com.internship.deal_service.model.dto.DealContractorRequest;
+import com.internship.deal_service.model.dto.DealCursorPage;
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.model.dto.DealSearchRequest;
+import com.internship.deal_service.model.dto.DealStatusUpdateRequest;
+import com.internship.deal_service.model.dto.DealSumRequest;
+import com.internship.deal_service.model.dto.DealTypeDto;
+import com.internship.deal_service.service.DealContractorService;
+import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.testcontainer.TestContainer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Число SQL-запросов для каждого плана загрузки сделки и для операций, которые их используют.
+ */
+@SpringBootTest(classes = DealServiceApplication.class)
+@ActiveProfiles("test")
+class DealFetchPlanTest extends TestContainer {
+
+    @Autowired
+    private DealRepository dealRepository;
+
+    @Autowired
+    private DealService dealService;
+
+    @Autowired
+    private DealContractorService dealContractorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UUID dealId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        dealId = insertDeal(2, 3, 2);
+    }
+
+    @Test
+    void referencePlan_LoadsOnlyDealRow() {
+        assertStatements(1, () -> dealRepository.findReferenceByIdAndIsActiveTrue(dealId), deal -> {
+            assertFalse(Hibernate.isInitialized(deal.getStatus()));
+            assertFalse(Hibernate.isInitialized(deal.getDealSums()));
+        });
+    }
+
+    @Test
+    void fullPlan_SplitLoaderUsesOneStatementPerCollection() {
+        assertStatements(3, () -> dealRepository.findGraphByIdAndIsActiveTrue(dealId), deal -> {
+            assertEquals(2, deal.getDealSums().size());
+            assertEquals(3, deal.getDealContractors().size());
+            deal.getDealContractors().forEach(contractor -> assertEquals(2, contractor.getRoles().size()));
+        });
+    }
+
+    @Test
+    void fullPlan_DealWithoutType_IsFound() {
+        jdbcTemplate.update("UPDATE deal SET type_id = NULL WHERE id = ?", dealId);
+
+        assertStatements(3, () -> dealRepository.findGraphByIdAndIsActiveTrue(dealId), deal -> {
+            assertNull(deal.getType());
+            assertEquals(2, deal.getDealSums().size());
+        });
+    }
+
+    @Test
+    void getDealById_DealWithoutType_IsReturned() {
+        jdbcTemplate.update("UPDATE deal SET type_id = NULL WHERE id = ?", dealId);
+
+        DealDto deal = dealService.getDealById(dealId);
+
+        assertEquals(dealId, deal.getId());
+        assertNull(deal.getType());
+        assertEquals("DRAFT", deal.getStatus().getId());
+    }
+
+    @Test
+    void saveDealContractor_UsesReferencePlan() {
+        DealContractorRequest request = DealContractorRequest.builder()
+                .dealId(dealId)
+                .contractorId("NEW")
+                .name("New contractor")
+                .main(false)
+                .build();
+
+        statistics.clear();
+        dealContractorService.saveDealContractor(request);
+
+        // SELECT сделки + INSERT контрагента
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void saveDeal_InsertsSumsInOneBatch() {
+        DealTypeDto type = new DealTypeDto();
+        type.setId("CREDIT");
+        DealRequest request = DealRequest.builder()
+                .description("batched sums")
+                .type(type)
+                .sum(IntStream.range(0, 10)
+                        .mapToObj(i -> new DealSumRequest(BigDecimal.valueOf(100L * (i + 1)), "RUB", i == 0))
+                        .toList())
+                .build();
+
+        statistics.clear();
+        UUID savedId = dealService.saveDeal(request).getId();
+
+        // INSERT сделки + один пакет INSERT сумм + не больше двух обращений к последовательности
+        assertTrue(statistics.getPrepareStatementCount() <= 4);
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT count(*) FROM deal_sum WHERE deal_id = ?", Integer.class, savedId));
+    }
+
+    @Test
+    void saveDeal_UnchangedSums_WritesDealRowAndOneMainFlagStatement() {
+        DealTypeDto type = new DealTypeDto();
+        type.setId("CREDIT");
+        DealRequest request = DealRequest.builder()
+                .id(dealId)
+                .description("edited")
+                .type(type)
+                .sum(List.of(new DealSumRequest(new BigDecimal("200"), "RUB", false),
+                        new DealSumRequest(new BigDecimal("100.00"), "RUB", true)))
+                .build();
+
+        statistics.clear();
+        dealService.saveDeal(request);
+
+        // 3 запроса графа + UPDATE сделки + массовое снятие флага основной с остальных сумм; суммы не меняются
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void changeDealStatus_NotCached_UpdatesInOneStatementAndLoadsGraphForResponse() {
+        statistics.clear();
+        dealService.changeDealStatus(dealId, statusUpdate("ACTIVE"));
+
+        // UPDATE ... RETURNING + 3 запроса графа для ответа
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void changeDealStatus_Cached_UpdatesCachedDealWithoutReadingGraph() {
+        dealService.getDealById(dealId);
+
+        statistics.clear();
+        DealDto updated = dealService.changeDealStatus(dealId, statusUpdate("CLOSED"));
+
+        // Только UPDATE ... RETURNING: ответ и запись в кэше строятся по закэшированной сделке
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("CLOSED", updated.getStatus().getId());
+        assertNotNull(updated.getCloseDt());
+        assertEquals(3, updated.getContractors().size());
+        DealDto cached = dealService.getDealById(dealId);
+        assertEquals("CLOSED", cached.getStatus().getId());
+        assertEquals(updated.getCloseDt(), cached.getCloseDt());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void changeDealStatus_RepeatedRequest_Succeeds() {
+        dealService.changeDealStatus(dealId, statusUpdate("ACTIVE"));
+
+        DealDto repeated = assertDoesNotThrow(() -> dealService.changeDealStatus(dealId, statusUpdate("ACTIVE")));
+
+        assertEquals("ACTIVE", repeated.getStatus().getId());
+    }
+
+    @Test
+    void changeDealStatus_FromInactiveStatus_Succeeds() {
+        jdbcTemplate.update("INSERT INTO deal_status (id, name, is_active) VALUES ('ARCHIVED', 'Архивная', false) "
+                + "ON CONFLICT (id) DO NOTHING");
+        jdbcTemplate.update("INSERT INTO deal_status_transition (from_status_id, to_status_id) VALUES ('ARCHIVED', 'ACTIVE') "
+                + "ON CONFLICT DO NOTHING");
+        jdbcTemplate.update("UPDATE deal SET status_id = 'ARCHIVED' WHERE id = ?", dealId);
+
+        DealDto updated = dealService.changeDealStatus(dealId, statusUpdate("ACTIVE"));
+
+        assertEquals("ACTIVE", updated.getStatus().getId());
+    }
+
+    @Test
+    void changeDealStatus_ExpectedStatusAlreadyLeftForTarget_Succeeds() {
+        jdbcTemplate.update("UPDATE deal SET status_id = 'ACTIVE' WHERE id = ?", dealId);
+        DealStatusUpdateRequest request = statusUpdate("ACTIVE");
+        request.setExpectedStatusId("DRAFT");
+
+        DealDto updated = dealService.changeDealStatus(dealId, request);
+
+        assertEquals("ACTIVE", updated.getStatus().getId());
+    }
+
+    @Test
+    void changeDealStatus_UnexpectedCurrentStatus_Conflicts() {
+        DealStatusUpdateRequest request = statusUpdate("CLOSED");
+        request.setExpectedStatusId("ACTIVE");
+
+        assertThrows(DealStatusConflictException.class, () -> dealService.changeDealStatus(dealId, request));
+        assertEquals("DRAFT", jdbcTemplate.queryForObject("SELECT status_id FROM deal WHERE id = ?", String.class, dealId));
+    }
+
+    @Test
+    void changeDealStatus_TransitionNotAllowed_Conflicts() {
+        jdbcTemplate.update("UPDATE deal SET status_id = 'CLOSED' WHERE id = ?", dealId);
+
+        assertThrows(DealStatusConflictException.class, () -> dealService.changeDealStatus(dealId, statusUpdate("DRAFT")));
+        assertEquals("CLOSED", jdbcTemplate.queryForObject("SELECT status_id FROM deal WHERE id = ?", String.class, dealId));
+    }
+
+    @Test
+    void changeDealStatuses_UpdatesChunkInOneStatementAndClassifiesTheRest() {
+        UUID secondDealId = insertDeal(1, 0, 0);
+        UUID closedDealId = insertDeal(1, 0, 0);
+        jdbcTemplate.update("UPDATE deal SET status_id = 'CLOSED' WHERE id = ?", closedDealId);
+        DealBulkStatusUpdateRequest request = DealBulkStatusUpdateRequest.builder()
+                .dealIds(List.of(dealId, secondDealId, closedDealId, UUID.randomUUID()))
+                .newStatusId("CLOSED")
+                .build();
+
+        statistics.clear();
+        DealBulkStatusUpdateResponse response = dealService.changeDealStatuses(request);
+
+        // UPDATE ... RETURNING + SELECT неизменённых
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(2, response.getSkipped());
+        assertEquals(0, response.getConflicted());
+        assertEquals("CLOSED", jdbcTemplate.queryForObject("SELECT status_id FROM deal WHERE id = ?", String.class, secondDealId));
+    }
+
+    @Test
+    void changeDealStatuses_UnexpectedCurrentStatus_ReportsConflict() {
+        DealBulkStatusUpdateRequest request = DealBulkStatusUpdateRequest.builder()
+                .dealIds(List.of(dealId))
+                .newStatusId("CLOSED")
+                .expectedStatusId("ACTIVE")
+                .build();
+
+        DealBulkStatusUpdateResponse response = dealService.changeDealStatuses(request);
+
+        assertEquals(List.of(dealId), response.getConflictedIds());
+        assertEquals("DRAFT", jdbcTemplate.queryForObject("SELECT status_id FROM deal WHERE id = ?", String.class, dealId));
+    }
+
+    @Test
+    void searchDealsByCursor_WalksAllDealsWithTwoStatementsPerPageAndNoCount() {
+        for (int i = 0; i < 4; i++) {
+            insertDeal(1, 1, 1);
+        }
+        jdbcTemplate.update("UPDATE deal SET create_date = TIMESTAMP '2025-01-01 00:00:00'");
+        DealSearchRequest request = DealSearchRequest.builder().typeIds(List.of("CREDIT")).build();
+        List<UUID> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM deal WHERE is_active AND type_id = 'CREDIT' ORDER BY create_date DESC, id DESC", UUID.class);
+
+        List<UUID> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            DealCursorPage page = dealService.searchDealsByCursor(request, cursor, 2);
+
+            // страница ID + графы сделок страницы, без COUNT
+            assertEquals(2, statistics.getPrepareStatementCount());
+            page.getDeals().forEach(deal -> walked.add(deal.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void searchDeals_LoadsGraphsOnlyForPageIds() {
+        for (int i = 0; i < 4; i++) {
+            insertDeal(2, 3, 2);
+        }
+        DealSearchRequest request = DealSearchRequest.builder().borrowerSearch("contractor").build();
+        List<UUID> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM deal WHERE is_active ORDER BY create_date DESC, id DESC LIMIT 2 OFFSET 2", UUID.class);
+
+        statistics.clear();
+        Page<DealDto> page = dealService.searchDeals(request, new Pagination(1, 2));
+
+        // страница ID + графы сделок страницы + COUNT
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityStatistics(Deal.class.getName()).getLoadCount());
+        assertEquals(5, page.getTotalElements());
+        assertEquals(expected, page.getContent().stream().map(DealDto::getId).toList());
+    }
+
+    private DealStatusUpdateRequest statusUpdate(String newStatusId) {
+        return DealStatusUpdateRequest.builder()
+                .dealId(dealId)
+                .newStatusId(newStatusId)
+                .build();
+    }
+
+    private void assertStatements(long expected, Supplier<Optional<Deal>> plan,
+                                  Consumer<Deal> usage) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            statistics.clear();
+            Deal deal = plan.get().orElseThrow();
+            usage.accept(deal);
+            assertEquals(expected, statistics.getPrepareStatementCount());
+        });
+    }
+
+    private UUID insertDeal(int sums, int contractors, int rolesPerContractor) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO deal (id, description, type_id, status_id) VALUES (?, ?, 'CREDIT', 'DRAFT')",
+                id, "fetch plan");
+        for (int i = 0; i < sums; i++) {
+            jdbcTemplate.update("INSERT INTO deal_sum (deal_id, sum, currency_id, is_main) VALUES (?, ?, 'RUB', ?)",
+                    id, BigDecimal.valueOf(100L * (i + 1)), i == 0);
+        }
+        String[] roles = {"BORROWER", "WARRANTY", "GARANT"};
+        for (int i = 0; i < contractors; i++) {
+            UUID contractorId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO deal_contractor (id, deal_id, contractor_id, name) VALUES (?, ?, ?, ?)",
+                    contractorId, id, "C" + i, "Contractor " + i);
+            for (int r = 0; r < rolesPerContractor; r++) {
+                jdbcTemplate.update("INSERT INTO contractor_to_role (contractor_id, role_id) VALUES (?, ?)",
+                        contractorId, roles[r]);
+            }
+        }
+        return id;
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.DealServiceApplication;
+import com.internship.deal_service.model.Deal;
+import com.internship.deal_service.model.mapper.DealMapper;
+import com.internship.deal_service.testcontainer.TestContainer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Сравнение загрузки полного графа сделки: один запрос с {@code @EntityGraph} против отдельного запроса на коллекцию.
+ * Для каждого размера графа печатается число строк, которые возвращает БД, и время загрузки с маппингом в DTO.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=DealGraphLoadingBenchmark} (без профиля бенчмарки не выполняются).
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = DealServiceApplication.class)
+@ActiveProfiles("test")
+class DealGraphLoadingBenchmark extends TestContainer {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1_000;
+    private static final List<String> ROLES = List.of("BORROWER", "DRAWER", "ISSUER", "WARRANTY", "GARANT", "PLEDGER");
+
+    /** Размеры графа: суммы, контрагенты, роли на контрагента. */
+    private static final int[][] GRAPH_SIZES = {{1, 1, 1}, {3, 5, 2}, {10, 20, 3}, {20, 50, 3}};
+
+    private static final String ENTITY_GRAPH_ROWS = """
+            SELECT count(*) FROM deal d
+            LEFT JOIN deal_sum s ON s.deal_id = d.id
+            LEFT JOIN deal_contractor c ON c.deal_id = d.id
+            LEFT JOIN contractor_to_role r ON r.contractor_id = c.id
+            WHERE d.id = ?""";
+
+    private static final String SUMS_ROWS = """
+            SELECT count(*) FROM deal d
+            LEFT JOIN deal_sum s ON s.deal_id = d.id
+            WHERE d.id = ?""";
+
+    private static final String CONTRACTORS_ROWS = """
+            SELECT count(*) FROM deal d
+            LEFT JOIN deal_contractor c ON c.deal_id = d.id
+            LEFT JOIN contractor_to_role r ON r.contractor_id = c.id
+            WHERE d.id = ?""";
+
+    @Autowired
+    private DealRepository dealRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareLoadingStrategies() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        System.out.printf("%-10s %-12s %-10s %10s %12s%n", "sums", "contractors", "strategy", "rows", "us/op");
+        for (int[] size : GRAPH_SIZES) {
+            UUID dealId = insertDeal(size[0], size[1], size[2]);
+            String label = size[1] + "x" + size[2];
+
+            long graphRows = count(ENTITY_GRAPH_ROWS, dealId);
+            long splitRows = 1 + count(SUMS_ROWS, dealId) + count(CONTRACTORS_ROWS, dealId);
+
+            report(size[0], label, "graph", graphRows, readOnly, dealId, id -> dealRepository.findAllByIdInAndIsActiveTrue(List.of(id)).stream().findFirst());
+            report(size[0], label, "split", splitRows, readOnly, dealId, dealRepository::findGraphByIdAndIsActiveTrue);
+        }
+    }
+
+    private static void report(int sums, String contractors, String strategy, long rows, TransactionTemplate readOnly,
+                               UUID dealId, Function<UUID, Optional<Deal>> loader) {
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            blackhole += load(readOnly, dealId, loader);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            blackhole += load(readOnly, dealId, loader);
+        }
+        long micros = (System.nanoTime() - start) / MEASURED_ITERATIONS / 1_000;
+
+        System.out.printf("%-10d %-12s %-10s %10d %12d%s%n", sums, contractors, strategy, rows, micros,
+                blackhole == 42 ? " " : "");
+    }
+
+    private static int load(TransactionTemplate readOnly, UUID dealId, Function<UUID, Optional<Deal>> loader) {
+        return readOnly.execute(status -> DealMapper.mapToDto(loader.apply(dealId).orElseThrow())).hashCode();
+    }
+
+    private long count(String sql, UUID dealId) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, dealId);
+        return count == null ? 0 : count;
+    }
+
+    private UUID insertDeal(int sums, int contractors, int rolesPerContractor) {
+        UUID dealId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO deal (id, description, type_id, status_id) VALUES (?, ?, 'CREDIT', 'DRAFT')",
+                dealId, "benchmark");
+        for (int i = 0; i < sums; i++) {
+            jdbcTemplate.update("INSERT INTO deal_sum (deal_id, sum, currency_id, is_main) VALUES (?, ?, 'RUB', ?)",
+                    dealId, BigDecimal.valueOf(1_000L * (i + 1)), i == 0);
+        }
+        for (int i = 0; i < contractors; i++) {
+            UUID contractorId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO deal_contractor (id, deal_id, contractor_id, name, main) VALUES (?, ?, ?, ?, ?)",
+                    contractorId, dealId, "C" + i, "Contractor " + i, i == 0);
+            for (int r = 0; r < rolesPerContractor; r++) {
+                jdbcTemplate.update("INSERT INTO contractor_to_role (contractor_id, role_id) VALUES (?, ?)",
+                        contractorId, ROLES.get(r));
+            }
+        }
+        return dealId;
+    }
+
+}
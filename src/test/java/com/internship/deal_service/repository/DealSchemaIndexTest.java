@@ -0,0 +1,75 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.DealServiceApplication;
+import com.internship.deal_service.testcontainer.TestContainer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Каждая колонка связи, по которой {@link DealRepository} и {@link DealContractorRepository} ищут строки,
+ * должна быть ведущей колонкой какого-либо индекса после применения changelog.
+ */
+@SpringBootTest(classes = DealServiceApplication.class)
+@ActiveProfiles("test")
+class DealSchemaIndexTest extends TestContainer {
+
+    private static final String ACTIVE_PREDICATE = "is_active";
+
+    private static final String INDEX_PREDICATES = """
+            SELECT pg_get_expr(i.indpred, i.indrelid)
+            FROM pg_index i
+            JOIN pg_class t ON t.oid = i.indrelid
+            JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+            WHERE t.relname = ? AND a.attname = ?""";
+
+    /**
+     * @param activeOnly все запросы по колонке фильтруют {@code is_active}, поэтому достаточно частичного индекса.
+     */
+    private record AccessPath(String table, String column, boolean activeOnly) {
+
+        @Override
+        public String toString() {
+            return table + "." + column + (activeOnly ? " WHERE " + ACTIVE_PREDICATE : "");
+        }
+
+    }
+
+    private static final List<AccessPath> ACCESS_PATHS = List.of(
+            // графы сделок, обновление сумм и контрагентов сделки: коллекции загружаются без фильтра is_active
+            new AccessPath("deal_sum", "deal_id", false),
+            new AccessPath("deal_contractor", "deal_id", false),
+            new AccessPath("contractor_to_role", "contractor_id", false),
+            // findByContractorIdAndIsActiveTrue
+            new AccessPath("deal_contractor", "contractor_id", true),
+            // фильтры поиска по статусу и типу
+            new AccessPath("deal", "status_id", true),
+            new AccessPath("deal", "type_id", true)
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyRepositoryAccessPathHasSupportingIndex() {
+        List<AccessPath> missing = new ArrayList<>();
+        for (AccessPath path : ACCESS_PATHS) {
+            List<String> predicates = jdbcTemplate.queryForList(INDEX_PREDICATES, String.class, path.table(), path.column());
+            boolean supported = predicates.stream()
+                    .anyMatch(predicate -> predicate == null || path.activeOnly() && ACTIVE_PREDICATE.equals(predicate));
+            if (!supported) {
+                missing.add(path);
+            }
+        }
+
+        assertTrue(missing.isEmpty(), "No supporting index for " + missing);
+    }
+
+}
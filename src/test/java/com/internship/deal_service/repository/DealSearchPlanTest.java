@@ -0,0 +1,134 @@
+package com.internship.deal_service.repository;
+
+import com.internship.deal_service.DealServiceApplication;
+import com.internship.deal_service.model.Pagination;
+import com.internship.deal_service.model.dto.DealSearchRequest;
+import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.testcontainer.TestContainer;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы запросов поиска сделок по подстроке: условия {@code lower(...) LIKE} должны читаться через
+ * триграммные индексы, а не перебором таблиц.
+ * <p>
+ * SQL запроса страницы ID перехватывается у Hibernate и разбирается через {@code EXPLAIN (GENERIC_PLAN)}.
+ * Последовательное чтение и обычные индексные сканы отключены: на тестовых объёмах они всегда дешевле, а GIN-индекс
+ * читается только bitmap-сканом. Если выражение условия перестанет совпадать с выражением индекса, в плане останется
+ * {@code Seq Scan}.
+ * </p>
+ */
+@SpringBootTest(classes = DealServiceApplication.class)
+@ActiveProfiles("test")
+class DealSearchPlanTest extends TestContainer {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private DealService dealService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @BeforeEach
+    void setUp() {
+        sqlCapture.statements.clear();
+    }
+
+    @Test
+    void agreementNumberSearch_UsesTrigramIndex() {
+        String plan = explainIdQuery(DealSearchRequest.builder().agreementNumber("AGR-7").build());
+
+        assertTrue(plan.contains("idx_deal_agreement_number_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on deal "), plan);
+    }
+
+    @Test
+    void borrowerSearch_UsesTrigramIndexesOnContractorColumns() {
+        String plan = explainIdQuery(DealSearchRequest.builder().borrowerSearch("ромашка").build());
+
+        assertTrue(plan.contains("idx_deal_contractor_contractor_id_trgm"), plan);
+        assertTrue(plan.contains("idx_deal_contractor_name_trgm"), plan);
+        assertTrue(plan.contains("idx_deal_contractor_inn_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on deal_contractor"), plan);
+    }
+
+    private String explainIdQuery(DealSearchRequest request) {
+        dealService.searchDeals(request, new Pagination(0, 10));
+        String sql = sqlCapture.statements.stream()
+                .filter(statement -> statement.startsWith("select distinct") && statement.contains(" like "))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("ID query not captured: " + sqlCapture.statements));
+
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered(sql), String.class));
+        });
+    }
+
+    /**
+     * {@code EXPLAIN (GENERIC_PLAN)} принимает только нумерованные параметры {@code $n}.
+     */
+    private static String numbered(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder result = new StringBuilder();
+        int index = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(result, "\\$" + ++index);
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    static class SqlCapture implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureCustomizer(SqlCapture sqlCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlCapture);
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.internship.deal_service.service.cache;
+
+import com.internship.deal_service.model.Deal;
+import com.internship.deal_service.repository.DealRepository;
+import com.internship.deal_service.service.DealCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DealCacheWarmUpTest {
+
+    @Mock
+    private DealRepository dealRepository;
+    @Mock
+    private DealCacheService dealCacheService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DealCacheWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        warmUp = new DealCacheWarmUp(dealRepository, dealCacheService, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(warmUp, "enabled", true);
+        ReflectionTestUtils.setField(warmUp, "size", 250);
+        ReflectionTestUtils.setField(warmUp, "batchSize", 100);
+        ReflectionTestUtils.setField(warmUp, "concurrency", 2);
+        ReflectionTestUtils.setField(warmUp, "timeBudget", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void warmUp_LoadsRecentDealsInBatchesAndPutsThemIntoCache() throws Exception {
+        List<UUID> ids = IntStream.range(0, 250).mapToObj(i -> UUID.randomUUID()).toList();
+        when(dealRepository.findRecentlyModifiedActiveIds(any(Pageable.class))).thenReturn(ids);
+        when(dealRepository.findAllByIdInAndIsActiveTrue(anyCollection())).thenAnswer(invocation -> {
+            List<UUID> batch = invocation.getArgument(0);
+            return batch.stream().map(id -> Deal.builder().id(id).build()).toList();
+        });
+
+        // Пакеты загружаются в потоках прогрева, поэтому используется настоящий DealMapper.
+        int warmed = warmUp.warmUp();
+
+        assertEquals(250, warmed);
+        verify(dealRepository, times(3)).findAllByIdInAndIsActiveTrue(anyCollection());
+        verify(dealCacheService, times(3)).putAll(anyCollection());
+    }
+
+    @Test
+    void warmUp_TimeBudgetExceeded_ReturnsWithoutHanging() throws Exception {
+        ReflectionTestUtils.setField(warmUp, "timeBudget", Duration.ofMillis(100));
+        when(dealRepository.findRecentlyModifiedActiveIds(any(Pageable.class))).thenReturn(List.of(UUID.randomUUID()));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        int warmed = warmUp.warmUp();
+
+        assertEquals(0, warmed);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        verify(dealCacheService, never()).putAll(anyCollection());
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.internship.deal_service.service.cache;
+
+import com.internship.deal_service.model.dto.ContractorRoleDto;
+import com.internship.deal_service.model.dto.DealContractorDto;
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.model.dto.DealSumDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealVersionTest {
+
+    private static final UUID DEAL_ID = UUID.fromString("7f1c6b0a-3b4e-4a51-9d5e-0c8f2a6b1e11");
+
+    @Test
+    void of_SameContent_SameVersionRegardlessOfContractorOrder() {
+        DealContractorDto first = contractor("C-1", true);
+        DealContractorDto second = contractor("C-2", false);
+
+        String version = DealVersion.of(deal(first, second));
+
+        assertEquals(16, version.length());
+        assertEquals(version, DealVersion.of(deal(second, first)));
+    }
+
+    @Test
+    void of_ChangedContent_ChangesVersion() {
+        DealDto original = deal(contractor("C-1", true));
+        DealDto changedSum = deal(contractor("C-1", true));
+        changedSum.setSum(new DealSumDto(new BigDecimal("200.00"), "RUB"));
+        DealDto changedContractor = deal(contractor("C-1", false));
+
+        assertNotEquals(DealVersion.of(original), DealVersion.of(changedSum));
+        assertNotEquals(DealVersion.of(original), DealVersion.of(changedContractor));
+    }
+
+    @Test
+    void of_ReorderedRoleList_ChangesVersion() {
+        DealContractorDto borrowerFirst = contractor("C-1", true);
+        borrowerFirst.setRoles(List.of(
+                new ContractorRoleDto("BORROWER", "Заёмщик", "BORROWER"),
+                new ContractorRoleDto("WARRANTY", "Поручитель", "WARRANTY")));
+        DealContractorDto warrantyFirst = contractor("C-1", true);
+        warrantyFirst.setRoles(List.of(
+                new ContractorRoleDto("WARRANTY", "Поручитель", "WARRANTY"),
+                new ContractorRoleDto("BORROWER", "Заёмщик", "BORROWER")));
+
+        assertNotEquals(DealVersion.of(deal(borrowerFirst)), DealVersion.of(deal(warrantyFirst)));
+    }
+
+    @Test
+    void matches_HandlesQuotedWeakListAndWildcardTags() {
+        assertTrue(DealVersion.matches("\"abc\"", "abc"));
+        assertTrue(DealVersion.matches("W/\"abc\"", "abc"));
+        assertTrue(DealVersion.matches("\"old\", \"abc\"", "abc"));
+        assertTrue(DealVersion.matches("*", "abc"));
+        assertFalse(DealVersion.matches("\"old\"", "abc"));
+        assertFalse(DealVersion.matches(null, "abc"));
+        assertFalse(DealVersion.matches("*", null));
+    }
+
+    private static DealDto deal(DealContractorDto... contractors) {
+        DealDto dealDto = new DealDto();
+        dealDto.setId(DEAL_ID);
+        dealDto.setDescription("Deal");
+        dealDto.setAgreementStartDt(LocalDateTime.of(2024, 1, 15, 10, 30));
+        dealDto.setSum(new DealSumDto(new BigDecimal("100.00"), "RUB"));
+        dealDto.setContractors(new LinkedHashSet<>(List.of(contractors)));
+        return dealDto;
+    }
+
+    private static DealContractorDto contractor(String contractorId, boolean main) {
+        DealContractorDto contractor = new DealContractorDto();
+        contractor.setId(UUID.nameUUIDFromBytes(contractorId.getBytes()));
+        contractor.setContractorId(contractorId);
+        contractor.setName(contractorId);
+        contractor.setMain(main);
+        contractor.setRoles(List.of(new ContractorRoleDto("BORROWER", "Заёмщик", "BORROWER")));
+        return contractor;
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.internship.deal_service.service.cache;
+
+import com.internship.deal_service.config.redis.RedisCircuitBreaker;
+import com.internship.deal_service.model.ContractorRole;
+import com.internship.deal_service.model.Currency;
+import com.internship.deal_service.model.DealStatus;
+import com.internship.deal_service.model.DealType;
+import com.internship.deal_service.repository.ContractorRoleRepository;
+import com.internship.deal_service.repository.CurrencyRepository;
+import com.internship.deal_service.repository.DealStatusRepository;
+import com.internship.deal_service.repository.DealTypeRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataRegistryTest {
+
+    private static final String CHANNEL = "reference-data-invalidation";
+
+    @Mock
+    private DealTypeRepository dealTypeRepository;
+    @Mock
+    private DealStatusRepository dealStatusRepository;
+    @Mock
+    private CurrencyRepository currencyRepository;
+    @Mock
+    private ContractorRoleRepository contractorRoleRepository;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private Cache secondLevelCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private RedisCircuitBreaker circuitBreaker;
+
+    private ReferenceDataRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ReferenceDataRegistry(dealTypeRepository, dealStatusRepository, currencyRepository,
+                contractorRoleRepository, entityManagerFactory, transactionManager, redisTemplate, circuitBreaker, CHANNEL);
+        lenient().when(dealTypeRepository.findAll()).thenReturn(List.of(dealType("CREDIT", true), dealType("OLD", false)));
+        lenient().when(dealStatusRepository.findAll()).thenReturn(List.of(dealStatus("DRAFT")));
+        lenient().when(currencyRepository.findAll()).thenReturn(List.of(currency("RUB")));
+        lenient().when(contractorRoleRepository.findAll()).thenReturn(List.of(contractorRole("BORROWER")));
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void find_LoadsSnapshotOnceAndServesActiveEntriesFromMemory() {
+        assertEquals("CREDIT", registry.findDealType("CREDIT").orElseThrow().getId());
+        assertTrue(registry.findDealType("OLD").isEmpty());
+        assertTrue(registry.findDealType(null).isEmpty());
+        assertEquals("DRAFT", registry.findDealStatus("DRAFT").orElseThrow().getId());
+        assertEquals("RUB", registry.findCurrency("RUB").orElseThrow().getId());
+        assertEquals("BORROWER", registry.findContractorRole("BORROWER").orElseThrow().getId());
+        assertTrue(registry.findCurrency("USD").isEmpty());
+
+        verify(dealTypeRepository, times(1)).findAll();
+        verify(currencyRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refresh_ReplacesSnapshotWithoutTouchingIssuedEntities() {
+        DealType before = registry.findDealType("CREDIT").orElseThrow();
+        assertTrue(registry.isSnapshotInstance(before));
+        when(dealTypeRepository.findAll()).thenReturn(List.of(dealType("CREDIT", true), dealType("OVERDRAFT", true)));
+
+        registry.refresh();
+
+        DealType after = registry.findDealType("CREDIT").orElseThrow();
+        assertNotSame(before, after);
+        assertEquals("CREDIT", before.getId());
+        assertFalse(registry.isSnapshotInstance(before));
+        assertTrue(registry.isSnapshotInstance(after));
+        assertTrue(registry.findDealType("OVERDRAFT").isPresent());
+    }
+
+    @Test
+    void isSnapshotInstance_EntityLoadedElsewhere_ReturnsFalse() {
+        registry.refresh();
+
+        assertFalse(registry.isSnapshotInstance(dealType("CREDIT", true)));
+        assertFalse(registry.isSnapshotInstance("CREDIT"));
+    }
+
+    @Test
+    void refreshAfterCommit_WithoutTransaction_RefreshesAndPublishesNewVersion() {
+        when(valueOperations.increment(ReferenceDataRegistry.VERSION_KEY)).thenReturn(7L);
+
+        registry.refreshAfterCommit();
+
+        verify(dealTypeRepository, times(1)).findAll();
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), argThat((String message) -> message.endsWith("|7")));
+    }
+
+    @Test
+    void refreshAfterCommit_RedisCircuitOpen_RefreshesLocallyOnly() {
+        when(circuitBreaker.isOpen()).thenReturn(true);
+
+        registry.refreshAfterCommit();
+
+        verify(dealTypeRepository, times(1)).findAll();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void onMessage_FromOtherNode_EvictsSecondLevelCacheAndRefreshesSnapshot() {
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+        registry.refresh();
+
+        registry.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node|3".getBytes(StandardCharsets.UTF_8)), null);
+
+        verify(secondLevelCache).evict(DealType.class);
+        verify(secondLevelCache).evict(DealStatus.class);
+        verify(dealTypeRepository, times(2)).findAll();
+    }
+
+    @Test
+    void onMessage_FromThisNode_IsIgnored() {
+        when(valueOperations.increment(ReferenceDataRegistry.VERSION_KEY)).thenReturn(4L);
+        registry.refreshAfterCommit();
+        String ownMessage = captureSentMessage();
+
+        registry.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ownMessage.getBytes(StandardCharsets.UTF_8)), null);
+
+        verify(dealTypeRepository, times(1)).findAll();
+        verifyNoInteractions(entityManagerFactory);
+    }
+
+    @Test
+    void checkVersion_RefreshesOnlyWhenVersionChanged() {
+        when(valueOperations.get(ReferenceDataRegistry.VERSION_KEY)).thenReturn("1", "1", "2");
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+
+        registry.run(null);
+        registry.checkVersion();
+        registry.checkVersion();
+
+        verify(dealTypeRepository, times(2)).findAll();
+    }
+
+    private String captureSentMessage() {
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), message.capture());
+        return message.getValue();
+    }
+
+    private static DealType dealType(String id, boolean active) {
+        DealType dealType = new DealType();
+        dealType.setId(id);
+        dealType.setName(id);
+        dealType.setIsActive(active);
+        return dealType;
+    }
+
+    private static DealStatus dealStatus(String id) {
+        DealStatus dealStatus = new DealStatus();
+        dealStatus.setId(id);
+        dealStatus.setName(id);
+        return dealStatus;
+    }
+
+    private static Currency currency(String id) {
+        Currency currency = new Currency();
+        currency.setId(id);
+        currency.setName(id);
+        return currency;
+    }
+
+    private static ContractorRole contractorRole(String id) {
+        ContractorRole contractorRole = new ContractorRole();
+        contractorRole.setId(id);
+        contractorRole.setName(id);
+        contractorRole.setCategory("BORROWER");
+        return contractorRole;
+    }
+
+}
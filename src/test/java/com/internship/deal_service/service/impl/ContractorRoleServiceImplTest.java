@@ -8,9 +8,9 @@ import com.internship.deal_service.model.DealContractor;
 import com.internship.deal_service.model.dto.ContractorRoleDto;
 import com.internship.deal_service.model.dto.ContractorRoleRequest;
 import com.internship.deal_service.model.mapper.ContractorRoleMapper;
-import com.internship.deal_service.repository.ContractorRoleRepository;
 import com.internship.deal_service.repository.ContractorToRoleRepository;
 import com.internship.deal_service.repository.DealContractorRepository;
+import com.internship.deal_service.service.cache.ReferenceDataRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,7 +33,7 @@ class ContractorRoleServiceImplTest {
     @Mock
     private DealContractorRepository dealContractorRepository;
     @Mock
-    private ContractorRoleRepository contractorRoleRepository;
+    private ReferenceDataRegistry referenceDataRegistry;
     @Mock
     private ContractorToRoleRepository contractorToRoleRepository;
 
@@ -80,7 +80,7 @@ class ContractorRoleServiceImplTest {
         });
 
         assertEquals("DealContractor c id <<" + dealContractorId + ">> не найден или неактивен.", exception.getMessage());
-        verify(contractorRoleRepository, never()).findByIdAndIsActiveTrue(any());
+        verify(referenceDataRegistry, never()).findContractorRole(any());
         verify(contractorToRoleRepository, never()).findByContractorIdAndRoleId(any(), any());
         verify(contractorToRoleRepository, never()).save(any());
     }
@@ -88,7 +88,7 @@ class ContractorRoleServiceImplTest {
     @Test
     void addRoleToContractor_ContractorRoleNotFound_ThrowsException() {
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.empty());
 
         ContractorRoleException exception = assertThrows(ContractorRoleException.class, () -> {
             contractorRoleService.addRoleToContractor(testRequest);
@@ -108,7 +108,7 @@ class ContractorRoleServiceImplTest {
         existingLink.setId(new ContractorToRoleId(dealContractorId, roleId.toString()));
 
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.of(testContractorRole));
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.of(testContractorRole));
         when(contractorToRoleRepository.findByContractorIdAndRoleId(dealContractorId, roleId.toString())).thenReturn(Optional.of(existingLink));
 
         try (MockedStatic<ContractorRoleMapper> mockedMapper = Mockito.mockStatic(ContractorRoleMapper.class)) {
@@ -133,7 +133,7 @@ class ContractorRoleServiceImplTest {
         existingLink.setId(new ContractorToRoleId(dealContractorId, roleId.toString()));
 
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.of(testContractorRole));
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.of(testContractorRole));
         when(contractorToRoleRepository.findByContractorIdAndRoleId(dealContractorId, roleId.toString())).thenReturn(Optional.of(existingLink));
         when(contractorToRoleRepository.save(any(ContractorToRole.class))).thenReturn(existingLink);
 
@@ -154,7 +154,7 @@ class ContractorRoleServiceImplTest {
     @Test
     void addRoleToContractor_NewLink_CreatesAndSaves() {
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.of(testContractorRole));
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.of(testContractorRole));
         when(contractorToRoleRepository.findByContractorIdAndRoleId(dealContractorId, roleId.toString())).thenReturn(Optional.empty());
         when(contractorToRoleRepository.save(any(ContractorToRole.class))).thenAnswer(invocation -> {
             ContractorToRole savedLink = invocation.getArgument(0);
@@ -184,7 +184,7 @@ class ContractorRoleServiceImplTest {
         });
 
         assertEquals("DealContractor c id <<" + dealContractorId + ">> не найден или неактивен.", exception.getMessage());
-        verify(contractorRoleRepository, never()).findByIdAndIsActiveTrue(any());
+        verify(referenceDataRegistry, never()).findContractorRole(any());
         verify(contractorToRoleRepository, never()).findByContractorIdAndRoleId(any(), any());
         verify(contractorToRoleRepository, never()).save(any());
     }
@@ -192,7 +192,7 @@ class ContractorRoleServiceImplTest {
     @Test
     void deleteRoleFromContractor_ContractorRoleNotFound_ThrowsException() {
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.empty());
 
         ContractorRoleException exception = assertThrows(ContractorRoleException.class, () -> {
             contractorRoleService.deleteRoleFromContractor(testRequest);
@@ -206,7 +206,7 @@ class ContractorRoleServiceImplTest {
     @Test
     void deleteRoleFromContractor_LinkNotFound_ThrowsException() {
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.of(testContractorRole));
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.of(testContractorRole));
         when(contractorToRoleRepository.findByContractorIdAndRoleId(dealContractorId, roleId.toString())).thenReturn(Optional.empty());
 
         ContractorRoleException exception = assertThrows(ContractorRoleException.class, () -> {
@@ -226,7 +226,7 @@ class ContractorRoleServiceImplTest {
         existingLink.setId(new ContractorToRoleId(dealContractorId, roleId.toString()));
 
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.of(testContractorRole));
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.of(testContractorRole));
         when(contractorToRoleRepository.findByContractorIdAndRoleId(dealContractorId, roleId.toString())).thenReturn(Optional.of(existingLink));
 
         contractorRoleService.deleteRoleFromContractor(testRequest);
@@ -244,7 +244,7 @@ class ContractorRoleServiceImplTest {
         existingLink.setId(new ContractorToRoleId(dealContractorId, roleId.toString()));
 
         when(dealContractorRepository.findByIdAndIsActiveTrue(dealContractorId)).thenReturn(Optional.of(testDealContractor));
-        when(contractorRoleRepository.findByIdAndIsActiveTrue(roleId.toString())).thenReturn(Optional.of(testContractorRole));
+        when(referenceDataRegistry.findContractorRole(roleId.toString())).thenReturn(Optional.of(testContractorRole));
         when(contractorToRoleRepository.findByContractorIdAndRoleId(dealContractorId, roleId.toString())).thenReturn(Optional.of(existingLink));
 
         contractorRoleService.deleteRoleFromContractor(testRequest);
@@ -0,0 +1,169 @@
+package com.internship.deal_service.service.impl;
+
+import com.internship.deal_service.model.dto.DealDto;
+import com.internship.deal_service.service.cache.DealVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealCacheServiceImplTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private Cache dealsCache;
+    private DealDto dealDto;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(DealCacheServiceImpl.DEALS_CACHE, DealCacheServiceImpl.DEAL_TOMBSTONES_CACHE);
+        dealsCache = cacheManager.getCache(DealCacheServiceImpl.DEALS_CACHE);
+        dealDto = new DealDto();
+        dealDto.setId(UUID.randomUUID());
+        dealDto.setDescription("Deal");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void refreshAfterCommit_WriteThrough_PutsOnlyAfterCommit() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.refreshAfterCommit(dealDto);
+        assertNull(dealsCache.get(dealDto.getId()));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertSame(dealDto, dealsCache.get(dealDto.getId()).get());
+    }
+
+    @Test
+    void refreshAfterCommit_Rollback_LeavesCacheUntouched() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+        dealsCache.put(dealDto.getId(), "committed");
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.refreshAfterCommit(dealDto);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals("committed", dealsCache.get(dealDto.getId()).get());
+    }
+
+    @Test
+    void refreshAfterCommit_EvictMode_EvictsWithoutTransaction() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "evict", new SimpleMeterRegistry());
+        dealsCache.put(dealDto.getId(), "stale");
+
+        service.refreshAfterCommit(dealDto);
+
+        assertNull(dealsCache.get(dealDto.getId()));
+    }
+
+    @Test
+    void updateAfterCommit_WriteThrough_AppliesUpdateToEntryCachedAtCommit() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+        dealsCache.put(dealDto.getId(), dealDto);
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.updateAfterCommit(dealDto.getId(), cached -> cached.toBuilder().agreementNumber("A-1").build());
+        DealDto overwritten = dealDto.toBuilder().description("Overwritten").build();
+        dealsCache.put(dealDto.getId(), overwritten);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        DealDto updated = (DealDto) dealsCache.get(dealDto.getId()).get();
+        assertEquals("Overwritten", updated.getDescription());
+        assertEquals("A-1", updated.getAgreementNumber());
+        assertNull(overwritten.getAgreementNumber());
+    }
+
+    @Test
+    void updateAfterCommit_NotCached_LeavesCacheEmpty() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+
+        service.updateAfterCommit(dealDto.getId(), cached -> cached.toBuilder().agreementNumber("A-1").build());
+
+        assertNull(dealsCache.get(dealDto.getId()));
+    }
+
+    @Test
+    void updateAfterCommit_EvictMode_Evicts() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "evict", new SimpleMeterRegistry());
+        dealsCache.put(dealDto.getId(), dealDto);
+
+        service.updateAfterCommit(dealDto.getId(), cached -> cached.toBuilder().agreementNumber("A-1").build());
+
+        assertNull(dealsCache.get(dealDto.getId()));
+    }
+
+    @Test
+    void markMissing_IsCountedAndClearedByWrite() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", meterRegistry);
+
+        service.markMissing(dealDto.getId());
+        assertTrue(service.isKnownMissing(dealDto.getId()));
+        assertEquals(1, meterRegistry.get("cache.tombstone.hits").counter().count());
+
+        service.refreshAfterCommit(dealDto);
+        assertFalse(service.isKnownMissing(dealDto.getId()));
+        assertEquals(1, meterRegistry.get("cache.tombstone.hits").counter().count());
+    }
+
+    @Test
+    void refreshAfterCommit_WriteThrough_VersionMatchesWrittenDeal() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+
+        service.refreshAfterCommit(dealDto);
+
+        assertEquals(DealVersion.of(dealDto), service.getVersion(dealDto.getId()));
+    }
+
+    @Test
+    void getVersion_ComputedFromCachedDeal_FollowsConcurrentOverwrite() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+        service.putAll(List.of(dealDto));
+        DealDto newer = dealDto.toBuilder().description("Updated").build();
+
+        // Запись, сделанная в обход сервиса (например, загрузчиком @Cacheable), не оставляет старую версию
+        dealsCache.put(dealDto.getId(), newer);
+
+        assertEquals(DealVersion.of(newer), service.getVersion(dealDto.getId()));
+    }
+
+    @Test
+    void evictAfterCommit_RemovesVersionTogetherWithDeal() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+        service.putAll(List.of(dealDto));
+        assertNotNull(service.getVersion(dealDto.getId()));
+
+        service.evictAfterCommit(dealDto.getId());
+
+        assertNull(service.getVersion(dealDto.getId()));
+        assertNull(dealsCache.get(dealDto.getId()));
+    }
+
+    @Test
+    void evictAllAfterCommit_RemovesVersions() {
+        DealCacheServiceImpl service = new DealCacheServiceImpl(cacheManager, "write-through", new SimpleMeterRegistry());
+        service.putAll(List.of(dealDto));
+
+        service.evictAllAfterCommit(List.of(dealDto.getId()));
+
+        assertNull(service.getVersion(dealDto.getId()));
+    }
+
+}
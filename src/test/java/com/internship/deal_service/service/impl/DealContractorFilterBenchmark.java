@@ -0,0 +1,124 @@
+package com.internship.deal_service.service.impl;
+
+import com.internship.deal_service.DealServiceApplication;
+import com.internship.deal_service.model.Deal;
+import com.internship.deal_service.model.dto.DealSearchRequest;
+import com.internship.deal_service.repository.DealRepository;
+import com.internship.deal_service.testcontainer.TestContainer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Фильтр по контрагенту ({@code borrowerSearch}) на сделках с 1/5/20 контрагентами: прежняя форма с тремя
+ * соединениями {@code deal_contractor} внутри одного {@code OR} против спецификаций, которые строит
+ * {@code DealServiceImpl} для поиска и экспорта (полусоединение {@code EXISTS}). Спецификации выполняются через
+ * {@link DealRepository#findIds(Specification, Pageable)}, как в самом сервисе. Для каждого случая печатается число
+ * строк до {@code DISTINCT} (только для прежней формы), число ID страницы и время запроса страницы ID.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=DealContractorFilterBenchmark} (без профиля бенчмарки не выполняются).
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = DealServiceApplication.class)
+@ActiveProfiles("test")
+class DealContractorFilterBenchmark extends TestContainer {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+    private static final int DEALS = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final int[] CONTRACTOR_COUNTS = {1, 5, 20};
+    private static final String SEARCH = "contractor";
+
+    private static final String JOIN_FILTER = """
+            FROM deal d
+            JOIN deal_contractor c1 ON c1.deal_id = d.id
+            JOIN deal_contractor c2 ON c2.deal_id = d.id
+            JOIN deal_contractor c3 ON c3.deal_id = d.id
+            WHERE d.is_active AND d.description = ?
+              AND (lower(c1.contractor_id) LIKE ? OR lower(c2.name) LIKE ? OR lower(c3.inn) LIKE ?)""";
+
+    private static final String ROWS = "SELECT count(*) ";
+    private static final String PAGE = "SELECT DISTINCT d.id, d.create_date %s ORDER BY d.create_date DESC, d.id DESC LIMIT "
+            + PAGE_SIZE;
+    private static final Pageable PAGEABLE = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createDate", "id"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DealRepository dealRepository;
+
+    @Test
+    void compareJoinFilterWithSearchAndExportSpecifications() {
+        System.out.printf("%-12s %-8s %12s %8s %12s%n", "contractors", "filter", "rows", "ids", "us/op");
+        for (int contractors : CONTRACTOR_COUNTS) {
+            String label = insertDeals(contractors);
+            jdbcTemplate.execute("ANALYZE deal");
+            jdbcTemplate.execute("ANALYZE deal_contractor");
+            jdbcTemplate.execute("ANALYZE contractor_to_role");
+
+            String pattern = "%" + SEARCH + "%";
+            Object[] args = {label, pattern, pattern, pattern};
+            Long rows = jdbcTemplate.queryForObject(ROWS + JOIN_FILTER, Long.class, args);
+            String page = PAGE.formatted(JOIN_FILTER);
+            report(contractors, "join", rows, () -> jdbcTemplate.queryForList(page, args).size());
+
+            DealSearchRequest request = DealSearchRequest.builder().description(label).borrowerSearch(SEARCH).build();
+            Specification<Deal> search = DealServiceImpl.searchFilters(request);
+            report(contractors, "search", null, () -> dealRepository.findIds(search, PAGEABLE).size());
+
+            Specification<Deal> export = DealServiceImpl.searchFiltersForExport(request);
+            report(contractors, "export", null, () -> dealRepository.findIds(export, PAGEABLE).size());
+        }
+    }
+
+    private void report(int contractors, String filter, Long rows, IntSupplier pageQuery) {
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            blackhole += pageQuery.getAsInt();
+        }
+
+        int ids = pageQuery.getAsInt();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            blackhole += pageQuery.getAsInt();
+        }
+        long micros = (System.nanoTime() - start) / MEASURED_ITERATIONS / 1_000;
+
+        System.out.printf("%-12d %-8s %12s %8d %12d%s%n", contractors, filter, rows != null ? rows : "-", ids, micros,
+                blackhole == 42 ? " " : "");
+    }
+
+    /**
+     * Каждому контрагенту назначается роль заёмщика, чтобы спецификация экспорта отбирала те же сделки, что и поиск.
+     *
+     * @return описание вставленных сделок, по которому запросы отделяют их от сделок других размеров.
+     */
+    private String insertDeals(int contractors) {
+        String label = "benchmark-" + contractors;
+        jdbcTemplate.update("""
+                INSERT INTO deal (id, description, type_id, status_id)
+                SELECT gen_random_uuid(), ?, 'CREDIT', 'DRAFT' FROM generate_series(1, ?)""", label, DEALS);
+        jdbcTemplate.update("""
+                INSERT INTO deal_contractor (id, deal_id, contractor_id, name, inn)
+                SELECT gen_random_uuid(), d.id, 'C' || g, 'contractor ' || g, '77' || g
+                FROM deal d CROSS JOIN generate_series(1, ?) g
+                WHERE d.description = ?""", contractors, label);
+        jdbcTemplate.update("""
+                INSERT INTO contractor_to_role (contractor_id, role_id)
+                SELECT c.id, 'BORROWER'
+                FROM deal_contractor c JOIN deal d ON d.id = c.deal_id
+                WHERE d.description = ?""", label);
+        return label;
+    }
+
+}
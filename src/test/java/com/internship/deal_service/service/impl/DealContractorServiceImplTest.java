@@ -89,7 +89,7 @@ class DealContractorServiceImplTest {
 
     @Test
     void saveDealContractor_DealNotFound_ThrowsException() {
-        when(dealRepository.findByIdAndIsActiveTrue(any(UUID.class))).thenReturn(Optional.empty());
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(any(UUID.class))).thenReturn(Optional.empty());
 
         DealContractorException exception = assertThrows(DealContractorException.class, () -> {
             dealContractorService.saveDealContractor(createRequest);
@@ -101,7 +101,7 @@ class DealContractorServiceImplTest {
 
     @Test
     void saveDealContractor_NewContractor_SavesAndReturnsDto() {
-        when(dealRepository.findByIdAndIsActiveTrue(createRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(createRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.save(any(DealContractor.class))).thenAnswer(invocation -> {
             DealContractor dc = invocation.getArgument(0);
             dc.setId(UUID.randomUUID());
@@ -123,7 +123,7 @@ class DealContractorServiceImplTest {
 
     @Test
     void saveDealContractor_UpdateExistingContractor_UpdatesAndReturnsDto() {
-        when(dealRepository.findByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.findAllByDealIdAndIsActiveTrue(updateRequest.getDealId()))
                 .thenReturn(Arrays.asList(existingDealContractor));
 
@@ -151,7 +151,7 @@ class DealContractorServiceImplTest {
         updateRequest.setInn(null);
         String originalInn = existingDealContractor.getInn();
 
-        when(dealRepository.findByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.findAllByDealIdAndIsActiveTrue(updateRequest.getDealId()))
                 .thenReturn(Arrays.asList(existingDealContractor));
 
@@ -170,7 +170,7 @@ class DealContractorServiceImplTest {
         updateRequest.setMain(false);
         existingDealContractor.setMain(false);
 
-        when(dealRepository.findByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.findAllByDealIdAndIsActiveTrue(updateRequest.getDealId()))
                 .thenReturn(Arrays.asList(existingDealContractor));
 
@@ -190,7 +190,7 @@ class DealContractorServiceImplTest {
         updateRequest.setMain(false);
         existingDealContractor.setMain(true);
 
-        when(dealRepository.findByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.findAllByDealIdAndIsActiveTrue(updateRequest.getDealId()))
                 .thenReturn(Arrays.asList(existingDealContractor));
 
@@ -209,7 +209,7 @@ class DealContractorServiceImplTest {
     void saveDealContractor_UpdateExistingContractor_NotFoundByIdInList_ThrowsException() {
         updateRequest.setId(UUID.randomUUID());
 
-        when(dealRepository.findByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.findAllByDealIdAndIsActiveTrue(updateRequest.getDealId()))
                 .thenReturn(Arrays.asList(existingDealContractor));
 
@@ -224,7 +224,7 @@ class DealContractorServiceImplTest {
     @Test
     void saveDealContractorWithUserId_NewContractor_SavesWithUserIdAndReturnsDto() {
         String userId = "testUserId";
-        when(dealRepository.findByIdAndIsActiveTrue(createRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(createRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.save(any(DealContractor.class))).thenAnswer(invocation -> {
             DealContractor dc = invocation.getArgument(0);
             dc.setId(UUID.randomUUID());
@@ -246,7 +246,7 @@ class DealContractorServiceImplTest {
     @Test
     void saveDealContractorWithUserId_UpdateExistingContractor_UpdatesWithUserIdAndReturnsDto() {
         String userId = "testModifyUserId";
-        when(dealRepository.findByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findReferenceByIdAndIsActiveTrue(updateRequest.getDealId())).thenReturn(Optional.of(testDeal));
         when(dealContractorRepository.findAllByDealIdAndIsActiveTrue(updateRequest.getDealId()))
                 .thenReturn(Arrays.asList(existingDealContractor));
 
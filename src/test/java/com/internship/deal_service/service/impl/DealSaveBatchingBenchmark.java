@@ -0,0 +1,104 @@
+package com.internship.deal_service.service.impl;
+
+import com.internship.deal_service.DealServiceApplication;
+import com.internship.deal_service.model.DealRequest;
+import com.internship.deal_service.model.dto.DealSumRequest;
+import com.internship.deal_service.model.dto.DealTypeDto;
+import com.internship.deal_service.service.DealService;
+import com.internship.deal_service.testcontainer.TestContainer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+
+/**
+ * Сохранение новой сделки с 1/10/100 суммами: построчные вставки (JDBC-пакет из одной команды) против
+ * пакетных ({@code hibernate.jdbc.batch_size} из конфигурации). Для каждого случая печатается число
+ * подготовленных команд на сохранение (обращения к последовательности, вставки, пакеты) и время сохранения.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=DealSaveBatchingBenchmark} (без профиля бенчмарки не выполняются).
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = DealServiceApplication.class)
+@ActiveProfiles("test")
+class DealSaveBatchingBenchmark extends TestContainer {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+    private static final int[] SUM_COUNTS = {1, 10, 100};
+
+    @Autowired
+    private DealService dealService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void compareRowByRowAndBatchedInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        System.out.printf("%-8s %-12s %12s %12s%n", "sums", "inserts", "stmts/op", "us/op");
+        for (int sums : SUM_COUNTS) {
+            report(sums, "row-by-row", 1, statistics);
+            report(sums, "batched", null, statistics);
+        }
+    }
+
+    private void report(int sums, String mode, Integer batchSize, Statistics statistics) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            save(sums, batchSize);
+        }
+
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            save(sums, batchSize);
+        }
+        long micros = (System.nanoTime() - start) / MEASURED_ITERATIONS / 1_000;
+        double statements = (double) statistics.getPrepareStatementCount() / MEASURED_ITERATIONS;
+
+        System.out.printf("%-8d %-12s %12.1f %12d%n", sums, mode, statements, micros);
+    }
+
+    /**
+     * @param batchSize размер JDBC-пакета для сессии или {@code null} для значения из конфигурации.
+     */
+    private void save(int sums, Integer batchSize) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            dealService.saveDeal(dealRequest(sums));
+        });
+    }
+
+    private static DealRequest dealRequest(int sums) {
+        DealTypeDto type = new DealTypeDto();
+        type.setId("CREDIT");
+        return DealRequest.builder()
+                .description("benchmark")
+                .agreementDate(LocalDate.now())
+                .type(type)
+                .sum(IntStream.range(0, sums)
+                        .mapToObj(i -> new DealSumRequest(BigDecimal.valueOf(1_000L * (i + 1)), "RUB", i == 0))
+                        .toList())
+                .build();
+    }
+
+}
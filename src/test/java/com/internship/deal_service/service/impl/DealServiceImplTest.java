@@ -1,35 +1,46 @@
 package com.internship.deal_service.service.impl;
 
 import com.internship.deal_service.exception.DealException;
+import com.internship.deal_service.exception.DealSearchRequestException;
+import com.internship.deal_service.exception.DealStatusConflictException;
 import com.internship.deal_service.model.*;
 import com.internship.deal_service.model.Currency;
 import com.internship.deal_service.model.dto.*;
 import com.internship.deal_service.model.mapper.DealMapper;
 import com.internship.deal_service.model.mapper.DealSumMapper;
 import com.internship.deal_service.repository.*;
+import com.internship.deal_service.service.DealCacheService;
+import com.internship.deal_service.service.cache.ReferenceDataRegistry;
 import com.internship.deal_service.service.file.DealXlsxGenerator;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,13 +49,13 @@ class DealServiceImplTest {
     @Mock
     private DealRepository dealRepository;
     @Mock
-    private DealTypeRepository dealTypeRepository;
+    private DealSumRepository dealSumRepository;
     @Mock
-    private DealStatusRepository dealStatusRepository;
+    private ReferenceDataRegistry referenceDataRegistry;
     @Mock
-    private DealSumRepository dealSumRepository;
+    private DealCacheService dealCacheService;
     @Mock
-    private CurrencyRepository currencyRepository;
+    private TransactionTemplate transactionTemplate;
 
     private DealXlsxGenerator dealXlsxGenerator;
 
@@ -110,7 +121,7 @@ class DealServiceImplTest {
 
     @Test
     void getDealById_ExistingDeal_ReturnsDealDto() {
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
 
         try (MockedStatic<DealMapper> mockedMapper = Mockito.mockStatic(DealMapper.class)) {
             mockedMapper.when(() -> DealMapper.mapToDto(testDeal)).thenReturn(testDealDto);
@@ -120,27 +131,72 @@ class DealServiceImplTest {
             assertNotNull(result);
             assertEquals(testDealDto.getId(), result.getId());
             assertEquals(testDealDto.getDescription(), result.getDescription());
-            verify(dealRepository, times(1)).findByIdAndIsActiveTrue(testDealId);
+            verify(dealRepository, times(1)).findGraphByIdAndIsActiveTrue(testDealId);
             mockedMapper.verify(() -> DealMapper.mapToDto(testDeal), times(1));
         }
     }
 
     @Test
     void getDealById_NonExistingDeal_ThrowsEntityNotFoundException() {
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.empty());
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             dealService.getDealById(testDealId);
         });
 
         assertEquals("Deal с id " + testDealId + " не найдена или неактивна", exception.getMessage());
-        verify(dealRepository, times(1)).findByIdAndIsActiveTrue(testDealId);
+        verify(dealRepository, times(1)).findGraphByIdAndIsActiveTrue(testDealId);
+        verify(dealCacheService).markMissing(testDealId);
+    }
+
+    @Test
+    void getDealById_KnownMissing_SkipsDatabase() {
+        when(dealCacheService.isKnownMissing(testDealId)).thenReturn(true);
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> dealService.getDealById(testDealId));
+
+        assertEquals("Deal с id " + testDealId + " не найдена или неактивна", exception.getMessage());
+        verifyNoInteractions(dealRepository);
+    }
+
+    @Test
+    void getDealsByIds_LoadsOnlyCacheMissesAndReportsNotFound() {
+        UUID cachedId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        DealDto cachedDto = DealDto.builder().id(cachedId).build();
+        List<UUID> misses = List.of(testDealId, missingId);
+
+        when(dealCacheService.getAll(List.of(cachedId, testDealId, missingId))).thenReturn(Map.of(cachedId, cachedDto));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(misses)).thenReturn(List.of(testDeal));
+
+        try (MockedStatic<DealMapper> mockedMapper = Mockito.mockStatic(DealMapper.class)) {
+            mockedMapper.when(() -> DealMapper.mapToDto(testDeal)).thenReturn(testDealDto);
+
+            DealBatchResponse result = dealService.getDealsByIds(List.of(cachedId, testDealId, missingId, cachedId));
+
+            assertEquals(List.of(cachedDto, testDealDto), result.getDeals());
+            assertEquals(List.of(missingId), result.getNotFound());
+            verify(dealRepository, times(1)).findAllByIdInAndIsActiveTrue(misses);
+            verify(dealCacheService).putAll(List.of(testDealDto));
+        }
+    }
+
+    @Test
+    void getDealsByIds_AllCached_SkipsDatabase() {
+        when(dealCacheService.getAll(List.of(testDealId))).thenReturn(Map.of(testDealId, testDealDto));
+
+        DealBatchResponse result = dealService.getDealsByIds(List.of(testDealId));
+
+        assertEquals(List.of(testDealDto), result.getDeals());
+        assertTrue(result.getNotFound().isEmpty());
+        verifyNoInteractions(dealRepository);
     }
 
     @Test
     void saveDeal_NewDeal_SavesAndReturnsDto() {
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.of(testDealType));
-        when(dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
 
         when(dealRepository.save(any(Deal.class))).thenAnswer(invocation -> {
             Deal deal = invocation.getArgument(0);
@@ -157,13 +213,14 @@ class DealServiceImplTest {
 
             DealDto result = dealService.saveDeal(testDealRequest);
 
-            verify(dealTypeRepository, times(1)).findByIdAndIsActiveTrue(testDealType.getId());
-            verify(dealStatusRepository, times(1)).findByIdAndIsActiveTrue("DRAFT");
+            verify(referenceDataRegistry, times(1)).findDealType(testDealType.getId());
+            verify(referenceDataRegistry, times(1)).findDealStatus("DRAFT");
             verify(dealRepository, times(1)).save(any(Deal.class));
             verify(dealSumRepository, never()).save(any(DealSum.class));
 
             mockedDealMapper.verify(() -> DealMapper.dealRequestToEntity(testDealRequest), times(1));
             mockedDealMapper.verify(() -> DealMapper.mapToDto(any(Deal.class)), times(1));
+            verify(dealCacheService).refreshAfterCommit(testDealDto);
 
             assertNotNull(result);
             assertEquals(testDealDto.getId(), result.getId());
@@ -185,9 +242,9 @@ class DealServiceImplTest {
                 .build();
         testDealRequest.setSum(Arrays.asList(mainSumRequest, secondarySumRequest));
 
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.of(testDealType));
-        when(dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
-        when(currencyRepository.findByIdAndIsActiveTrue(testCurrencyId)).thenReturn(Optional.of(testCurrency));
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(referenceDataRegistry.findCurrency(testCurrencyId)).thenReturn(Optional.of(testCurrency));
 
         when(dealRepository.save(any(Deal.class))).thenAnswer(invocation -> {
             Deal deal = invocation.getArgument(0);
@@ -217,7 +274,7 @@ class DealServiceImplTest {
 
             verify(dealRepository, times(1)).save(any(Deal.class));
             verify(dealSumRepository, times(2)).save(any(DealSum.class));
-            verify(currencyRepository, times(2)).findByIdAndIsActiveTrue(testCurrencyId);
+            verify(referenceDataRegistry, times(2)).findCurrency(testCurrencyId);
 
             assertNotNull(result.getSum());
         }
@@ -226,21 +283,21 @@ class DealServiceImplTest {
 
     @Test
     void saveDeal_NewDeal_DealTypeNotFound_ThrowsEntityNotFoundException() {
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             dealService.saveDeal(testDealRequest);
         });
 
         assertEquals("DealType с id " + testDealType.getId() + " не был найден или неактивен.", exception.getMessage());
-        verify(dealStatusRepository, never()).findByIdAndIsActiveTrue(any());
+        verify(referenceDataRegistry, never()).findDealStatus(any());
         verify(dealRepository, never()).save(any(Deal.class));
     }
 
     @Test
     void saveDeal_NewDeal_DealStatusDraftNotFound_ThrowsEntityNotFoundException() {
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.of(testDealType));
-        when(dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             dealService.saveDeal(testDealRequest);
@@ -259,9 +316,9 @@ class DealServiceImplTest {
                 .build();
         testDealRequest.setSum(Collections.singletonList(sumRequest));
 
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.of(testDealType));
-        when(dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
-        when(currencyRepository.findByIdAndIsActiveTrue("NON_EXISTENT")).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(referenceDataRegistry.findCurrency("NON_EXISTENT")).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             dealService.saveDeal(testDealRequest);
@@ -275,9 +332,9 @@ class DealServiceImplTest {
     void saveDeal_UpdateExistingDeal_UpdatesFieldsAndReturnsDto() {
         testDealRequest.setId(testDealId);
 
-        when(dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
         when(dealRepository.save(any(Deal.class))).thenReturn(testDeal);
 
         try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
@@ -290,9 +347,9 @@ class DealServiceImplTest {
             assertEquals(testDealType, testDeal.getType());
             assertNotNull(testDeal.getModifyDate());
 
-            verify(dealRepository, times(1)).findByIdAndIsActiveTrue(testDealId);
-            verify(dealTypeRepository, times(1)).findByIdAndIsActiveTrue(testDealType.getId());
-            verify(dealStatusRepository, times(1)).findByIdAndIsActiveTrue("DRAFT");
+            verify(dealRepository, times(1)).findGraphByIdAndIsActiveTrue(testDealId);
+            verify(referenceDataRegistry, times(1)).findDealType(testDealType.getId());
+            verify(referenceDataRegistry, times(1)).findDealStatus("DRAFT");
             verify(dealRepository, times(1)).save(testDeal);
 
             mockedDealMapper.verify(() -> DealMapper.mapToDto(testDeal), times(1));
@@ -301,7 +358,7 @@ class DealServiceImplTest {
     }
 
     @Test
-    void saveDeal_UpdateExistingDeal_WithSums_ClearsAndAddsNewSums() {
+    void saveDeal_UpdateExistingDeal_WithSums_DeactivatesRemovedAndAddsNewSums() {
         testDealRequest.setId(testDealId);
         DealSum oldSum = DealSum.builder()
                 .id(1L)
@@ -324,10 +381,10 @@ class DealServiceImplTest {
                 .build();
         testDealRequest.setSum(Arrays.asList(newMainSumRequest, newSecondarySumRequest));
 
-        when(dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.of(testDealType));
-        when(currencyRepository.findByIdAndIsActiveTrue(testCurrencyId)).thenReturn(Optional.of(testCurrency));
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findCurrency(testCurrencyId)).thenReturn(Optional.of(testCurrency));
         when(dealSumRepository.save(any(DealSum.class))).thenAnswer(invocation -> {
             DealSum sum = invocation.getArgument(0);
             sum.setId(1L);
@@ -339,12 +396,102 @@ class DealServiceImplTest {
 
             dealService.saveDeal(testDealRequest);
             verify(dealSumRepository, times(2)).save(any(DealSum.class));
-            verify(dealRepository, times(1)).findByIdAndIsActiveTrue(testDealId);
-            verify(dealTypeRepository, times(1)).findByIdAndIsActiveTrue(testDealType.getId());
-            verify(dealStatusRepository, times(1)).findByIdAndIsActiveTrue("DRAFT");
+            verify(dealRepository, times(1)).findGraphByIdAndIsActiveTrue(testDealId);
+            verify(referenceDataRegistry, times(1)).findDealType(testDealType.getId());
+            verify(referenceDataRegistry, times(1)).findDealStatus("DRAFT");
 
             mockedDealMapper.verify(() -> DealMapper.mapToDto(testDeal), times(1));
         }
+
+        assertEquals(3, testDeal.getDealSums().size());
+        assertFalse(oldSum.getIsActive());
+        DealSum newMainSum = testDeal.getDealSums().stream()
+                .filter(sum -> sum.getSum().compareTo(BigDecimal.valueOf(200.0)) == 0)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(newMainSum.getIsMain());
+        verify(dealSumRepository).updateAllOthersMainToFalseForDeal(testDealId, newMainSum.getId());
+        assertEquals(BigDecimal.valueOf(200.0), testDealDto.getSum().getValue());
+    }
+
+    @Test
+    void saveDeal_UpdateExistingDeal_WithSameSums_KeepsRowsAndOnlyMovesMainFlag() {
+        testDealRequest.setId(testDealId);
+        DealSum first = DealSum.builder()
+                .id(1L)
+                .deal(testDeal)
+                .sum(new BigDecimal("500.00"))
+                .currency(testCurrency)
+                .isMain(true)
+                .build();
+        DealSum second = DealSum.builder()
+                .id(2L)
+                .deal(testDeal)
+                .sum(new BigDecimal("100.00"))
+                .currency(testCurrency)
+                .isMain(false)
+                .build();
+        testDeal.getDealSums().addAll(List.of(first, second));
+
+        testDealRequest.setSum(List.of(
+                new DealSumRequest(new BigDecimal("500"), testCurrencyId, false),
+                new DealSumRequest(new BigDecimal("100.0"), testCurrencyId, true)));
+
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findCurrency(testCurrencyId)).thenReturn(Optional.of(testCurrency));
+
+        try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
+            mockedDealMapper.when(() -> DealMapper.mapToDto(any(Deal.class))).thenReturn(testDealDto);
+
+            dealService.saveDeal(testDealRequest);
+        }
+
+        verify(dealSumRepository, never()).save(any(DealSum.class));
+        assertEquals(Set.of(first, second), testDeal.getDealSums());
+        assertTrue(first.getIsActive());
+        assertTrue(second.getIsActive());
+        assertTrue(second.getIsMain());
+        verify(dealSumRepository).updateAllOthersMainToFalseForDeal(testDealId, 2L);
+        assertEquals(new BigDecimal("100.00"), testDealDto.getSum().getValue());
+    }
+
+    @Test
+    void saveDeal_UpdateExistingDeal_SumWithoutMainFlag_IsMatchedWithoutFailing() {
+        testDealRequest.setId(testDealId);
+        DealSum withoutFlag = DealSum.builder()
+                .id(1L)
+                .deal(testDeal)
+                .sum(new BigDecimal("500.00"))
+                .currency(testCurrency)
+                .isMain(null)
+                .build();
+        DealSum main = DealSum.builder()
+                .id(2L)
+                .deal(testDeal)
+                .sum(new BigDecimal("500.00"))
+                .currency(testCurrency)
+                .isMain(true)
+                .build();
+        testDeal.getDealSums().addAll(List.of(withoutFlag, main));
+
+        testDealRequest.setSum(List.of(new DealSumRequest(new BigDecimal("500"), testCurrencyId, true)));
+
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findCurrency(testCurrencyId)).thenReturn(Optional.of(testCurrency));
+
+        try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
+            mockedDealMapper.when(() -> DealMapper.mapToDto(any(Deal.class))).thenReturn(testDealDto);
+
+            dealService.saveDeal(testDealRequest);
+        }
+
+        assertTrue(main.getIsActive());
+        assertFalse(withoutFlag.getIsActive());
+        verify(dealSumRepository).updateAllOthersMainToFalseForDeal(testDealId, 2L);
     }
 
 
@@ -353,8 +500,8 @@ class DealServiceImplTest {
         String userId = "newCreator";
         testDealRequest.setId(null);
 
-        when(dealTypeRepository.findByIdAndIsActiveTrue(testDealType.getId())).thenReturn(Optional.of(testDealType));
-        when(dealStatusRepository.findByIdAndIsActiveTrue("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
+        when(referenceDataRegistry.findDealType(testDealType.getId())).thenReturn(Optional.of(testDealType));
+        when(referenceDataRegistry.findDealStatus("DRAFT")).thenReturn(Optional.of(testDealStatusDraft));
 
         when(dealRepository.save(any(Deal.class))).thenAnswer(invocation -> {
             Deal deal = invocation.getArgument(0);
@@ -388,46 +535,119 @@ class DealServiceImplTest {
         DealStatusUpdateRequest request = new DealStatusUpdateRequest();
         request.setNewStatusId(newStatusId.toString());
 
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
-        when(dealStatusRepository.findByIdAndIsActiveTrue(newStatusId.toString())).thenReturn(Optional.of(newStatus));
-        when(dealRepository.save(any(Deal.class))).thenReturn(testDeal);
+        when(referenceDataRegistry.findDealStatus(newStatusId.toString())).thenReturn(Optional.of(newStatus));
+        DealStatusTransition transition = transition(newStatusId.toString(), null);
+        when(dealRepository.changeStatus(testDealId, newStatusId.toString(), false)).thenReturn(Optional.of(transition));
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
 
         try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
             mockedDealMapper.when(() -> DealMapper.mapToDto(any(Deal.class))).thenReturn(testDealDto);
 
             DealDto result = dealService.changeDealStatus(testDealId, request);
 
-            assertEquals(newStatus, testDeal.getStatus());
-            assertNotNull(testDeal.getModifyDate());
-            verify(dealRepository, times(1)).save(testDeal);
+            verify(dealRepository, never()).save(any(Deal.class));
+            verify(dealRepository, never()).transitionStatus(any(), any(), anyBoolean(), any());
             mockedDealMapper.verify(() -> DealMapper.mapToDto(testDeal), times(1));
+            verify(dealCacheService).refreshAfterCommit(testDealDto);
             assertNotNull(result);
         }
     }
 
     @Test
-    void changeDealStatus_ToClosedStatus_SetsCloseDt() {
-        String closedStatusId = "CLOSED";
-        DealStatus closedStatus = new DealStatus();
-        closedStatus.setId(closedStatusId);
-        closedStatus.setName("CLOSED");
-        closedStatus.setIsActive(true);
-
+    void changeDealStatus_AlreadyInTargetStatus_Succeeds() {
         DealStatusUpdateRequest request = new DealStatusUpdateRequest();
-        request.setNewStatusId(closedStatusId);
+        request.setNewStatusId("ACTIVE");
 
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
-        when(dealStatusRepository.findByIdAndIsActiveTrue(closedStatusId)).thenReturn(Optional.of(closedStatus));
-        when(dealRepository.save(any(Deal.class))).thenReturn(testDeal);
+        when(referenceDataRegistry.findDealStatus("ACTIVE")).thenReturn(Optional.of(status("ACTIVE")));
+        when(dealRepository.changeStatus(testDealId, "ACTIVE", false)).thenReturn(Optional.empty());
+        when(dealRepository.existsByIdAndStatusIdAndIsActiveTrue(testDealId, "ACTIVE")).thenReturn(true);
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
 
         try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
-            mockedDealMapper.when(() -> DealMapper.mapToDto(any(Deal.class))).thenReturn(testDealDto);
+            mockedDealMapper.when(() -> DealMapper.mapToDto(testDeal)).thenReturn(testDealDto);
 
-            dealService.changeDealStatus(testDealId, request);
+            assertSame(testDealDto, dealService.changeDealStatus(testDealId, request));
+        }
+    }
 
-            assertEquals(closedStatus, testDeal.getStatus());
-            assertNotNull(testDeal.getCloseDt());
-            verify(dealRepository, times(1)).save(testDeal);
+    @Test
+    void changeDealStatus_AlreadyInTargetStatusAndCached_ReturnsCachedDeal() {
+        DealStatusUpdateRequest request = new DealStatusUpdateRequest();
+        request.setNewStatusId("ACTIVE");
+        DealDto cached = testDealDto.toBuilder().status(DealStatusDto.builder().id("ACTIVE").build()).build();
+
+        when(referenceDataRegistry.findDealStatus("ACTIVE")).thenReturn(Optional.of(status("ACTIVE")));
+        when(dealRepository.changeStatus(testDealId, "ACTIVE", false)).thenReturn(Optional.empty());
+        when(dealRepository.existsByIdAndStatusIdAndIsActiveTrue(testDealId, "ACTIVE")).thenReturn(true);
+        when(dealCacheService.get(testDealId)).thenReturn(cached);
+
+        assertSame(cached, dealService.changeDealStatus(testDealId, request));
+        verify(dealRepository, never()).findGraphByIdAndIsActiveTrue(any());
+        verify(dealCacheService, never()).updateAfterCommit(any(), any());
+    }
+
+    @Test
+    void changeDealStatus_CachedDeal_AppliesReturnedColumnsToCachedDto() {
+        DealStatusUpdateRequest request = new DealStatusUpdateRequest();
+        request.setNewStatusId("CLOSED");
+        request.setExpectedStatusId("DRAFT");
+        LocalDateTime closeDt = LocalDateTime.of(2025, 3, 1, 12, 0);
+        DealStatusTransition transition = transition("CLOSED", closeDt);
+
+        when(referenceDataRegistry.findDealStatus("CLOSED")).thenReturn(Optional.of(status("CLOSED")));
+        when(dealRepository.transitionStatus(testDealId, "CLOSED", true, "DRAFT")).thenReturn(Optional.of(transition));
+        when(dealCacheService.get(testDealId)).thenReturn(testDealDto);
+
+        DealDto result = dealService.changeDealStatus(testDealId, request);
+
+        assertEquals("CLOSED", result.getStatus().getId());
+        assertEquals(closeDt, result.getCloseDt());
+        assertEquals(testDealDto.getDescription(), result.getDescription());
+        assertNull(testDealDto.getCloseDt());
+        verify(dealRepository, never()).findGraphByIdAndIsActiveTrue(any());
+        verify(dealCacheService, never()).refreshAfterCommit(any());
+
+        ArgumentCaptor<UnaryOperator<DealDto>> update = ArgumentCaptor.forClass(UnaryOperator.class);
+        verify(dealCacheService).updateAfterCommit(eq(testDealId), update.capture());
+        DealDto cachedAtCommit = testDealDto.toBuilder().description("changed concurrently").build();
+        DealDto updatedAtCommit = update.getValue().apply(cachedAtCommit);
+        assertEquals("CLOSED", updatedAtCommit.getStatus().getId());
+        assertEquals(closeDt, updatedAtCommit.getCloseDt());
+        assertEquals("changed concurrently", updatedAtCommit.getDescription());
+    }
+
+    @Test
+    void changeDealStatus_UnexpectedCurrentStatus_ThrowsConflict() {
+        DealStatusUpdateRequest request = new DealStatusUpdateRequest();
+        request.setNewStatusId("ACTIVE");
+        request.setExpectedStatusId("DRAFT");
+
+        when(referenceDataRegistry.findDealStatus("ACTIVE")).thenReturn(Optional.of(status("ACTIVE")));
+        when(dealRepository.transitionStatus(testDealId, "ACTIVE", false, "DRAFT")).thenReturn(Optional.empty());
+        when(dealRepository.existsByIdAndStatusIdAndIsActiveTrue(testDealId, "ACTIVE")).thenReturn(false);
+        when(dealRepository.existsByIdAndIsActiveTrue(testDealId)).thenReturn(true);
+
+        assertThrows(DealStatusConflictException.class, () -> dealService.changeDealStatus(testDealId, request));
+
+        verify(dealCacheService, never()).refreshAfterCommit(any());
+    }
+
+    @Test
+    void changeDealStatus_ExpectedStatusMissedButAlreadyInTarget_Succeeds() {
+        DealStatusUpdateRequest request = new DealStatusUpdateRequest();
+        request.setNewStatusId("ACTIVE");
+        request.setExpectedStatusId("DRAFT");
+
+        when(referenceDataRegistry.findDealStatus("ACTIVE")).thenReturn(Optional.of(status("ACTIVE")));
+        when(dealRepository.transitionStatus(testDealId, "ACTIVE", false, "DRAFT")).thenReturn(Optional.empty());
+        when(dealRepository.existsByIdAndStatusIdAndIsActiveTrue(testDealId, "ACTIVE")).thenReturn(true);
+        when(dealRepository.findGraphByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
+
+        try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
+            mockedDealMapper.when(() -> DealMapper.mapToDto(testDeal)).thenReturn(testDealDto);
+
+            assertSame(testDealDto, dealService.changeDealStatus(testDealId, request));
+            verify(dealCacheService).refreshAfterCommit(testDealDto);
         }
     }
 
@@ -437,14 +657,16 @@ class DealServiceImplTest {
         DealStatusUpdateRequest request = new DealStatusUpdateRequest();
         request.setNewStatusId(newStatusId);
 
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findDealStatus(newStatusId)).thenReturn(Optional.of(status(newStatusId)));
+        when(dealRepository.changeStatus(testDealId, newStatusId, false)).thenReturn(Optional.empty());
+        when(dealRepository.existsByIdAndStatusIdAndIsActiveTrue(testDealId, newStatusId)).thenReturn(false);
+        when(dealRepository.existsByIdAndIsActiveTrue(testDealId)).thenReturn(false);
 
         DealException exception = assertThrows(DealException.class, () -> {
             dealService.changeDealStatus(testDealId, request);
         });
 
         assertEquals("Deal с id <<" + testDealId + ">> не найдена или неактивна.", exception.getMessage());
-        verify(dealStatusRepository, never()).findByIdAndIsActiveTrue(any());
         verify(dealRepository, never()).save(any(Deal.class));
     }
 
@@ -454,53 +676,276 @@ class DealServiceImplTest {
         DealStatusUpdateRequest request = new DealStatusUpdateRequest();
         request.setNewStatusId(nonExistentStatusId);
 
-        when(dealRepository.findByIdAndIsActiveTrue(testDealId)).thenReturn(Optional.of(testDeal));
-        when(dealStatusRepository.findByIdAndIsActiveTrue(nonExistentStatusId)).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findDealStatus(nonExistentStatusId)).thenReturn(Optional.empty());
 
         DealException exception = assertThrows(DealException.class, () -> {
             dealService.changeDealStatus(testDealId, request);
         });
 
         assertEquals("Новый DealStatus с id <<" + nonExistentStatusId + ">> не найден или неактивен.", exception.getMessage());
-        verify(dealRepository, never()).save(any(Deal.class));
+        verifyNoInteractions(dealRepository);
+    }
+
+    @Test
+    void changeDealStatuses_ProcessesIdsInChunksAndCountsOutcomes() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        DealBulkStatusUpdateRequest request = DealBulkStatusUpdateRequest.builder()
+                .dealIds(Arrays.asList(first, second, null, first, third))
+                .newStatusId("CLOSED")
+                .build();
+
+        ReflectionTestUtils.setField(dealService, "bulkChunkSize", 2);
+        inTransaction();
+        when(referenceDataRegistry.findDealStatus("CLOSED")).thenReturn(Optional.of(status("CLOSED")));
+        when(dealRepository.changeStatuses(List.of(first, second), "CLOSED", true)).thenReturn(List.of(first, second));
+        when(dealRepository.changeStatuses(List.of(third), "CLOSED", true)).thenReturn(List.of());
+        when(dealRepository.findActiveIdsNotInStatus(List.of(third), "CLOSED")).thenReturn(List.of());
+
+        DealBulkStatusUpdateResponse response = dealService.changeDealStatuses(request);
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getSkipped());
+        assertEquals(0, response.getConflicted());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(dealCacheService).evictAllAfterCommit(List.of(first, second));
+        verify(dealCacheService).evictAllAfterCommit(List.of());
+    }
+
+    @Test
+    void changeDealStatuses_ReportsActiveDealsInUnexpectedStatusAsConflicted() {
+        UUID updated = UUID.randomUUID();
+        UUID conflicted = UUID.randomUUID();
+        DealBulkStatusUpdateRequest request = DealBulkStatusUpdateRequest.builder()
+                .dealIds(List.of(updated, conflicted))
+                .newStatusId("CLOSED")
+                .expectedStatusId("ACTIVE")
+                .build();
+
+        ReflectionTestUtils.setField(dealService, "bulkChunkSize", 500);
+        inTransaction();
+        when(referenceDataRegistry.findDealStatus("CLOSED")).thenReturn(Optional.of(status("CLOSED")));
+        when(dealRepository.transitionStatuses(List.of(updated, conflicted), "CLOSED", true, "ACTIVE"))
+                .thenReturn(List.of(updated));
+        when(dealRepository.findActiveIdsNotInStatus(List.of(conflicted), "CLOSED")).thenReturn(List.of(conflicted));
+
+        DealBulkStatusUpdateResponse response = dealService.changeDealStatuses(request);
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(0, response.getSkipped());
+        assertEquals(1, response.getConflicted());
+        assertEquals(List.of(conflicted), response.getConflictedIds());
+    }
+
+    @Test
+    void changeDealStatuses_ByFilter_ResolvesIdsWithSearchSpecification() {
+        DealBulkStatusUpdateRequest request = DealBulkStatusUpdateRequest.builder()
+                .filter(DealSearchRequest.builder().statusIds(List.of("ACTIVE")).build())
+                .newStatusId("CLOSED")
+                .build();
+
+        ReflectionTestUtils.setField(dealService, "bulkChunkSize", 500);
+        inTransaction();
+        when(referenceDataRegistry.findDealStatus("CLOSED")).thenReturn(Optional.of(status("CLOSED")));
+        when(dealRepository.findIds(any())).thenReturn(List.of(testDealId));
+        when(dealRepository.changeStatuses(List.of(testDealId), "CLOSED", true)).thenReturn(List.of(testDealId));
+
+        DealBulkStatusUpdateResponse response = dealService.changeDealStatuses(request);
+
+        assertEquals(1, response.getSucceeded());
+        verify(dealRepository, never()).findActiveIdsNotInStatus(any(), any());
+    }
+
+    @Test
+    void changeDealStatuses_NoIdsAndNoFilter_ThrowsDealException() {
+        DealBulkStatusUpdateRequest request = DealBulkStatusUpdateRequest.builder()
+                .newStatusId("CLOSED")
+                .build();
+
+        when(referenceDataRegistry.findDealStatus("CLOSED")).thenReturn(Optional.of(status("CLOSED")));
+
+        assertThrows(DealException.class, () -> dealService.changeDealStatuses(request));
+        verifyNoInteractions(dealRepository, transactionTemplate);
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+    }
+
+    private static DealStatus status(String id) {
+        DealStatus dealStatus = new DealStatus();
+        dealStatus.setId(id);
+        dealStatus.setName(id);
+        dealStatus.setIsActive(true);
+        return dealStatus;
+    }
+
+    private DealStatusTransition transition(String statusId, LocalDateTime closeDt) {
+        DealStatusTransition transition = mock(DealStatusTransition.class);
+        lenient().when(transition.getId()).thenReturn(testDealId);
+        lenient().when(transition.getStatusId()).thenReturn(statusId);
+        lenient().when(transition.getCloseDt()).thenReturn(closeDt);
+        return transition;
+    }
+
+    @Test
+    void searchDealsByCursor_ExtraRow_ReturnsPageInIdOrderWithNextCursor() {
+        Deal second = new Deal();
+        second.setId(UUID.randomUUID());
+        DealSearchCursor firstKey = new DealSearchCursor(LocalDateTime.of(2025, 1, 2, 10, 0), testDealId);
+        DealSearchCursor secondKey = new DealSearchCursor(LocalDateTime.of(2025, 1, 1, 10, 0), second.getId());
+        DealSearchCursor extraKey = new DealSearchCursor(LocalDateTime.of(2024, 12, 31, 10, 0), UUID.randomUUID());
+
+        ReflectionTestUtils.setField(dealService, "cursorMaxSize", 100);
+        when(dealRepository.findKeys(any(), eq(PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "createDate", "id")))))
+                .thenReturn(List.of(firstKey, secondKey, extraKey));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(List.of(testDealId, second.getId())))
+                .thenReturn(List.of(second, testDeal));
+
+        DealCursorPage page = dealService.searchDealsByCursor(new DealSearchRequest(), null, 2);
+
+        assertEquals(List.of(testDealId, second.getId()), page.getDeals().stream().map(DealDto::getId).toList());
+        assertEquals(secondKey, DealSearchCursor.decode(page.getNextCursor()));
+        verify(dealRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void searchDealsByCursor_LastSelectedDealDeactivatedBeforeLoad_CursorStillAdvancesPastIt() {
+        DealSearchCursor firstKey = new DealSearchCursor(LocalDateTime.of(2025, 1, 2, 10, 0), testDealId);
+        DealSearchCursor deactivatedKey = new DealSearchCursor(LocalDateTime.of(2025, 1, 1, 10, 0), UUID.randomUUID());
+        DealSearchCursor extraKey = new DealSearchCursor(LocalDateTime.of(2024, 12, 31, 10, 0), UUID.randomUUID());
+
+        ReflectionTestUtils.setField(dealService, "cursorMaxSize", 100);
+        when(dealRepository.findKeys(any(), any(Pageable.class))).thenReturn(List.of(firstKey, deactivatedKey, extraKey));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(List.of(testDealId, deactivatedKey.id())))
+                .thenReturn(List.of(testDeal));
+
+        DealCursorPage page = dealService.searchDealsByCursor(new DealSearchRequest(), null, 2);
+
+        assertEquals(1, page.getDeals().size());
+        assertEquals(deactivatedKey, DealSearchCursor.decode(page.getNextCursor()));
     }
 
     @Test
-    void searchDeals_ReturnsPageOfDealDtos() {
+    void searchDealsByCursor_AllSelectedDealsDeactivatedBeforeLoad_StillReturnsCursor() {
+        DealSearchCursor deactivatedKey = new DealSearchCursor(LocalDateTime.of(2025, 1, 1, 10, 0), UUID.randomUUID());
+        DealSearchCursor extraKey = new DealSearchCursor(LocalDateTime.of(2024, 12, 31, 10, 0), UUID.randomUUID());
+
+        ReflectionTestUtils.setField(dealService, "cursorMaxSize", 100);
+        when(dealRepository.findKeys(any(), any(Pageable.class))).thenReturn(List.of(deactivatedKey, extraKey));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(List.of(deactivatedKey.id()))).thenReturn(List.of());
+
+        DealCursorPage page = dealService.searchDealsByCursor(new DealSearchRequest(), null, 1);
+
+        assertTrue(page.getDeals().isEmpty());
+        assertEquals(deactivatedKey, DealSearchCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void searchDealsByCursor_LastPage_ReturnsNoCursor() {
+        ReflectionTestUtils.setField(dealService, "cursorMaxSize", 100);
+        when(dealRepository.findKeys(any(), any(Pageable.class)))
+                .thenReturn(List.of(new DealSearchCursor(LocalDateTime.of(2024, 12, 1, 0, 0), testDealId)));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(List.of(testDealId))).thenReturn(List.of(testDeal));
+
+        DealCursorPage page = dealService.searchDealsByCursor(new DealSearchRequest(),
+                new DealSearchCursor(LocalDateTime.of(2025, 1, 1, 0, 0), UUID.randomUUID()).encode(), 10);
+
+        assertEquals(1, page.getDeals().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchDealsByCursor_SizeAboveMaximum_IsCapped() {
+        ReflectionTestUtils.setField(dealService, "cursorMaxSize", 100);
+        when(dealRepository.findKeys(any(), eq(PageRequest.of(0, 101, Sort.by(Sort.Direction.DESC, "createDate", "id")))))
+                .thenReturn(List.of());
+
+        DealCursorPage page = dealService.searchDealsByCursor(new DealSearchRequest(), null, Integer.MAX_VALUE);
+
+        assertTrue(page.getDeals().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchDealsByCursor_NonPositiveSize_ThrowsDealSearchRequestException() {
+        ReflectionTestUtils.setField(dealService, "cursorMaxSize", 100);
+
+        assertThrows(DealSearchRequestException.class,
+                () -> dealService.searchDealsByCursor(new DealSearchRequest(), null, 0));
+        assertThrows(DealSearchRequestException.class,
+                () -> dealService.searchDealsByCursor(new DealSearchRequest(), null, -5));
+        verifyNoInteractions(dealRepository);
+    }
+
+    @Test
+    void searchDeals_SelectsPageIdsThenLoadsGraphsInIdOrder() {
         DealSearchRequest searchRequest = new DealSearchRequest();
-        Pagination pagination = new Pagination(0, 10);
-        Pageable pageable = PageRequest.of(pagination.getPage(), pagination.getSize());
+        Pagination pagination = new Pagination(1, 2);
+        Pageable pageable = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "createDate", "id"));
 
-        List<Deal> deals = Collections.singletonList(testDeal);
-        Page<Deal> dealPage = new PageImpl<>(deals, pageable, 1);
+        Deal second = new Deal();
+        second.setId(UUID.randomUUID());
+        DealDto secondDto = new DealDto();
+        secondDto.setId(second.getId());
 
-        when(dealRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(dealPage);
+        when(dealRepository.findIds(any(), eq(pageable))).thenReturn(List.of(testDealId, second.getId()));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(List.of(testDealId, second.getId())))
+                .thenReturn(List.of(second, testDeal));
+        when(dealRepository.countIds(any())).thenReturn(5L);
 
         try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
             mockedDealMapper.when(() -> DealMapper.mapToDto(testDeal)).thenReturn(testDealDto);
+            mockedDealMapper.when(() -> DealMapper.mapToDto(second)).thenReturn(secondDto);
 
             Page<DealDto> resultPage = dealService.searchDeals(searchRequest, pagination);
 
             assertNotNull(resultPage);
-            assertEquals(1, resultPage.getTotalElements());
-            assertEquals(testDealDto.getId(), resultPage.getContent().get(0).getId());
+            assertEquals(5, resultPage.getTotalElements());
+            assertEquals(List.of(testDealId, second.getId()), resultPage.getContent().stream().map(DealDto::getId).toList());
+            verify(dealRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
+    }
 
-            verify(dealRepository, times(1)).findAll(any(Specification.class), eq(pageable));
-            mockedDealMapper.verify(() -> DealMapper.mapToDto(testDeal), times(1));
+    @Test
+    void searchDeals_LastPartialPage_SkipsCountQuery() {
+        when(dealRepository.findIds(any(), any(Pageable.class))).thenReturn(List.of(testDealId));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(List.of(testDealId))).thenReturn(List.of(testDeal));
+
+        try (MockedStatic<DealMapper> mockedDealMapper = Mockito.mockStatic(DealMapper.class)) {
+            mockedDealMapper.when(() -> DealMapper.mapToDto(testDeal)).thenReturn(testDealDto);
+
+            Page<DealDto> resultPage = dealService.searchDeals(new DealSearchRequest(), new Pagination(0, 10));
+
+            assertEquals(1, resultPage.getTotalElements());
+            verify(dealRepository, never()).countIds(any());
         }
     }
 
+    @Test
+    void searchDeals_NoMatches_SkipsGraphQuery() {
+        when(dealRepository.findIds(any(), any(Pageable.class))).thenReturn(List.of());
+
+        Page<DealDto> resultPage = dealService.searchDeals(new DealSearchRequest(), new Pagination(0, 10));
+
+        assertTrue(resultPage.isEmpty());
+        verify(dealRepository, never()).findAllByIdInAndIsActiveTrue(any());
+    }
+
     @Test
     void exportDealsToExcel_ReturnsByteArray() {
         DealSearchRequest searchRequest = new DealSearchRequest();
         Pagination pagination = new Pagination(0, 10);
-        Pageable pageable = PageRequest.of(pagination.getPage(), pagination.getSize(), org.springframework.data.domain.Sort.unsorted());
+        Pageable pageable = PageRequest.of(pagination.getPage(), pagination.getSize(),
+                Sort.by(Sort.Direction.DESC, "createDate", "id"));
 
         List<Deal> deals = Collections.singletonList(testDeal);
-        Page<Deal> dealPage = new PageImpl<>(deals, pageable, 1);
         byte[] expectedBytes = "excel_data".getBytes();
 
-        when(dealRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(dealPage);
+        when(dealRepository.findIds(any(), eq(pageable))).thenReturn(List.of(testDealId));
+        when(dealRepository.findAllByIdInAndIsActiveTrue(List.of(testDealId))).thenReturn(deals);
 
         try (MockedStatic<DealXlsxGenerator> mockedGenerator = Mockito.mockStatic(DealXlsxGenerator.class)) {
             mockedGenerator.when(() -> DealXlsxGenerator.createAndFillDealXlsxTable(deals))
@@ -511,7 +956,7 @@ class DealServiceImplTest {
             assertNotNull(resultBytes);
             assertArrayEquals(expectedBytes, resultBytes);
 
-            verify(dealRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+            verify(dealRepository, times(1)).findIds(any(), eq(pageable));
             mockedGenerator.verify(() -> DealXlsxGenerator.createAndFillDealXlsxTable(deals), times(1));
         }
     }
@@ -4,7 +4,9 @@ import com.internship.deal_service.model.DealContractor;
 import com.internship.deal_service.model.dto.ContractorRequestRabbit;
 import com.internship.deal_service.model.dto.DealContractorDto;
 import com.internship.deal_service.model.mapper.DealContractorMapper;
+import com.internship.deal_service.model.Deal;
 import com.internship.deal_service.repository.DealContractorRepository;
+import com.internship.deal_service.service.DealCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,12 +35,16 @@ class DealContractorRabbitServiceImplTest {
     @Mock
     private DealContractorRepository dealContractorRepository;
 
+    @Mock
+    private DealCacheService dealCacheService;
+
     @InjectMocks
     private DealContractorRabbitServiceImpl dealContractorRabbitService;
 
     private ContractorRequestRabbit testRequest;
     private DealContractor existingDealContractor;
     private DealContractorDto expectedDto;
+    private Deal deal;
 
     @BeforeEach
     void setUp() {
@@ -54,7 +61,11 @@ class DealContractorRabbitServiceImplTest {
                 .modifyDate(LocalDateTime.now())
                 .build();
 
+        deal = new Deal();
+        deal.setId(UUID.randomUUID());
+
         existingDealContractor = new DealContractor();
+        existingDealContractor.setDeal(deal);
         existingDealContractor.setId(dealContractorId);
         existingDealContractor.setContractorId(contractorId.toString());
         existingDealContractor.setName("TestName");
@@ -89,6 +100,7 @@ class DealContractorRabbitServiceImplTest {
             assertEquals(testRequest.getModifyUserId(), existingDealContractor.getModifyUserId());
 
             mockedMapper.verify(() -> DealContractorMapper.toDto(existingDealContractor), times(1));
+            verify(dealCacheService).evictAllAfterCommit(Set.of(deal.getId()));
 
             assertNotNull(result);
             assertEquals(expectedDto.getId(), result.getId());
@@ -121,6 +133,35 @@ class DealContractorRabbitServiceImplTest {
         }
     }
 
+    @Test
+    void saveDealContractorWithUserId_ContractorInSeveralDeals_UpdatesAllAndEvictsEachDealOnce() {
+        Deal otherDeal = new Deal();
+        otherDeal.setId(UUID.randomUUID());
+        DealContractor otherDealContractor = new DealContractor();
+        otherDealContractor.setId(UUID.randomUUID());
+        otherDealContractor.setContractorId(testRequest.getContractorId());
+        otherDealContractor.setName("TestName");
+        otherDealContractor.setDeal(otherDeal);
+        DealContractor sameDealContractor = new DealContractor();
+        sameDealContractor.setId(UUID.randomUUID());
+        sameDealContractor.setContractorId(testRequest.getContractorId());
+        sameDealContractor.setDeal(deal);
+
+        when(dealContractorRepository.findByContractorIdAndIsActiveTrue(testRequest.getContractorId()))
+                .thenReturn(Arrays.asList(existingDealContractor, otherDealContractor, sameDealContractor));
+
+        try (MockedStatic<DealContractorMapper> mockedMapper = Mockito.mockStatic(DealContractorMapper.class)) {
+            mockedMapper.when(() -> DealContractorMapper.toDto(any(DealContractor.class)))
+                    .thenReturn(expectedDto);
+
+            dealContractorRabbitService.saveDealContractorWithUserId(testRequest);
+
+            assertEquals(testRequest.getName(), otherDealContractor.getName());
+            assertEquals(testRequest.getName(), sameDealContractor.getName());
+            verify(dealCacheService).evictAllAfterCommit(Set.of(deal.getId(), otherDeal.getId()));
+        }
+    }
+
     @Test
     void saveDealContractorWithUserId_NoExistingContractor() {
         when(dealContractorRepository.findByContractorIdAndIsActiveTrue(testRequest.getContractorId()))
@@ -130,6 +171,7 @@ class DealContractorRabbitServiceImplTest {
 
         verify(dealContractorRepository, times(1)).findByContractorIdAndIsActiveTrue(testRequest.getContractorId());
         verify(dealContractorRepository, never()).save(any(DealContractor.class));
+        verify(dealCacheService, never()).evictAllAfterCommit(any());
         assertNull(dto);
     }
 